@@ -2,20 +2,60 @@ package com.example.DocsSignatureAppBE.Controller;
 
 import com.example.DocsSignatureAppBE.Entity.Role;
 import com.example.DocsSignatureAppBE.Entity.User;
+import com.example.DocsSignatureAppBE.Security.SignatureAlgorithmBenchmark;
+import com.example.DocsSignatureAppBE.Security.SigningKeyManager;
 import com.example.DocsSignatureAppBE.Service.AuthService;
+import com.example.DocsSignatureAppBE.Service.DocumentAnalysisService;
+import com.example.DocsSignatureAppBE.Service.MerkleBatchSigner;
+import com.example.DocsSignatureAppBE.Service.ResumableUploadService;
+import com.example.DocsSignatureAppBE.Service.SignatureImageCache;
+import com.example.DocsSignatureAppBE.Service.SignatureStampBenchmark;
+import com.example.DocsSignatureAppBE.Service.SignatureVerificationService;
+import com.example.DocsSignatureAppBE.Storage.ContentAddressedStore;
+import com.example.DocsSignatureAppBE.Util.FileDownloadWriter;
+import com.example.DocsSignatureAppBE.Util.PdfOutputOptimizer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin")
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
     private final AuthService authService;
+    private final SigningKeyManager signingKeyManager;
+    private final SignatureImageCache signatureImageCache;
+    private final PdfOutputOptimizer pdfOutputOptimizer;
+    private final MerkleBatchSigner merkleBatchSigner;
+    private final SignatureAlgorithmBenchmark signatureAlgorithmBenchmark;
+    private final SignatureVerificationService signatureVerificationService;
+    private final ContentAddressedStore contentAddressedStore;
+    private final FileDownloadWriter fileDownloadWriter;
+    private final ResumableUploadService resumableUploadService;
+    private final DocumentAnalysisService documentAnalysisService;
+    private final SignatureStampBenchmark signatureStampBenchmark;
 
-    public AdminController(AuthService authService) {
+    public AdminController(AuthService authService, SigningKeyManager signingKeyManager,
+                           SignatureImageCache signatureImageCache, PdfOutputOptimizer pdfOutputOptimizer,
+                           MerkleBatchSigner merkleBatchSigner, SignatureAlgorithmBenchmark signatureAlgorithmBenchmark,
+                           SignatureVerificationService signatureVerificationService, ContentAddressedStore contentAddressedStore,
+                           FileDownloadWriter fileDownloadWriter, ResumableUploadService resumableUploadService,
+                           DocumentAnalysisService documentAnalysisService, SignatureStampBenchmark signatureStampBenchmark) {
         this.authService = authService;
+        this.signingKeyManager = signingKeyManager;
+        this.signatureImageCache = signatureImageCache;
+        this.pdfOutputOptimizer = pdfOutputOptimizer;
+        this.merkleBatchSigner = merkleBatchSigner;
+        this.signatureAlgorithmBenchmark = signatureAlgorithmBenchmark;
+        this.signatureVerificationService = signatureVerificationService;
+        this.contentAddressedStore = contentAddressedStore;
+        this.fileDownloadWriter = fileDownloadWriter;
+        this.resumableUploadService = resumableUploadService;
+        this.documentAnalysisService = documentAnalysisService;
+        this.signatureStampBenchmark = signatureStampBenchmark;
     }
 
     @PutMapping("/users/{userId}/role")
@@ -28,5 +68,80 @@ public class AdminController {
     public ResponseEntity<String> getAdminDashboard() {
         return ResponseEntity.ok("Welcome to Admin Dashboard");
     }
-}
 
+    @GetMapping("/signing-keys/stats")
+    public ResponseEntity<Map<String, Object>> getSigningKeyStats() {
+        return ResponseEntity.ok(signingKeyManager.getStats());
+    }
+
+    @PostMapping("/signing-keys/reload")
+    public ResponseEntity<Map<String, Object>> reloadSigningKey() throws Exception {
+        signingKeyManager.evict();
+        signingKeyManager.getSigningKey();
+        return ResponseEntity.ok(signingKeyManager.getStats());
+    }
+
+    @PostMapping("/signing-algorithms/benchmark")
+    public ResponseEntity<Map<String, Object>> benchmarkSigningAlgorithms(
+            @RequestParam(defaultValue = "200") int iterations) throws Exception {
+        return ResponseEntity.ok(signatureAlgorithmBenchmark.run(iterations));
+    }
+
+    @PostMapping("/signature-stamps/benchmark")
+    public ResponseEntity<Map<String, Object>> benchmarkSignatureStamps(
+            @RequestParam(defaultValue = "50") int iterations) throws Exception {
+        return ResponseEntity.ok(signatureStampBenchmark.run(iterations));
+    }
+
+    @GetMapping("/signature-image-cache/stats")
+    public ResponseEntity<Map<String, Object>> getSignatureImageCacheStats() {
+        return ResponseEntity.ok(signatureImageCache.getStats());
+    }
+
+    @GetMapping("/pdf-output/stats")
+    public ResponseEntity<Map<String, Object>> getPdfOutputStats() {
+        return ResponseEntity.ok(pdfOutputOptimizer.getStats());
+    }
+
+    @GetMapping("/merkle-signing/stats")
+    public ResponseEntity<Map<String, Object>> getMerkleSigningStats() {
+        return ResponseEntity.ok(merkleBatchSigner.getStats());
+    }
+
+    @GetMapping("/signature-verification/stats")
+    public ResponseEntity<Map<String, Object>> getSignatureVerificationStats() {
+        return ResponseEntity.ok(signatureVerificationService.getStats());
+    }
+
+    @PostMapping("/signature-verification/cache/clear")
+    public ResponseEntity<Map<String, Object>> clearSignatureVerificationCache() {
+        signatureVerificationService.clearCache();
+        return ResponseEntity.ok(signatureVerificationService.getStats());
+    }
+
+    @GetMapping("/storage/stats")
+    public ResponseEntity<Map<String, Object>> getStorageStats() {
+        return ResponseEntity.ok(contentAddressedStore.getStats());
+    }
+
+    @GetMapping("/downloads/stats")
+    public ResponseEntity<Map<String, Object>> getDownloadStats() {
+        return ResponseEntity.ok(fileDownloadWriter.getStats());
+    }
+
+    @GetMapping("/uploads/stats")
+    public ResponseEntity<Map<String, Object>> getUploadStats() {
+        return ResponseEntity.ok(resumableUploadService.getStats());
+    }
+
+    @GetMapping("/analysis/stats")
+    public ResponseEntity<Map<String, Object>> getAnalysisStats() {
+        return ResponseEntity.ok(documentAnalysisService.getStats());
+    }
+
+    @PostMapping("/analysis/backfill")
+    public ResponseEntity<Map<String, Object>> backfillAnalysis() {
+        documentAnalysisService.submitUnanalyzed();
+        return ResponseEntity.ok(documentAnalysisService.getStats());
+    }
+}
@@ -1,11 +1,23 @@
 package com.example.DocsSignatureAppBE.Controller;
 
+import com.example.DocsSignatureAppBE.DTO.BatchFinalizeRequestDto;
+import com.example.DocsSignatureAppBE.DTO.BatchFinalizeResultDto;
 import com.example.DocsSignatureAppBE.DTO.DocumentDetailDto;
 import com.example.DocsSignatureAppBE.DTO.DocumentDto;
+import com.example.DocsSignatureAppBE.DTO.DocumentRevisionDto;
+import com.example.DocsSignatureAppBE.DTO.DocumentVerificationDto;
+import com.example.DocsSignatureAppBE.DTO.FinalizeJobDto;
+import com.example.DocsSignatureAppBE.DTO.PagePreviewDto;
 import com.example.DocsSignatureAppBE.DTO.SignatureRequestDto;
+import com.example.DocsSignatureAppBE.Exception.ResourceNotFoundException;
 import com.example.DocsSignatureAppBE.Service.DocumentService;
-import com.example.DocsSignatureAppBE.Service.PdfSignatureService;
+import com.example.DocsSignatureAppBE.Service.FinalizeSignatureService;
+import com.example.DocsSignatureAppBE.Service.PagePreviewService;
 import com.example.DocsSignatureAppBE.Service.SignatureRequestService;
+import com.example.DocsSignatureAppBE.Service.SignatureVerificationService;
+import com.example.DocsSignatureAppBE.Storage.BlobStore;
+import com.example.DocsSignatureAppBE.Util.FileDownloadWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,15 +26,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -31,13 +52,26 @@ import java.util.List;
 public class DocumentController {
 
     private final DocumentService documentService;
-    private final PdfSignatureService pdfSignatureService;
+    private final FinalizeSignatureService finalizeSignatureService;
     private final SignatureRequestService signatureRequestService;
+    private final PagePreviewService pagePreviewService;
+    private final SignatureVerificationService signatureVerificationService;
+    private final BlobStore blobStore;
+    private final FileDownloadWriter fileDownloadWriter;
+    private final ObjectMapper objectMapper;
 
-    public DocumentController(DocumentService documentService, PdfSignatureService pdfSignatureService, SignatureRequestService signatureRequestService) throws Exception {
+    public DocumentController(DocumentService documentService, FinalizeSignatureService finalizeSignatureService, SignatureRequestService signatureRequestService,
+                              PagePreviewService pagePreviewService,
+                              SignatureVerificationService signatureVerificationService, BlobStore blobStore,
+                              FileDownloadWriter fileDownloadWriter, ObjectMapper objectMapper) throws Exception {
         this.documentService = documentService;
-        this.pdfSignatureService = pdfSignatureService;
+        this.finalizeSignatureService = finalizeSignatureService;
         this.signatureRequestService = signatureRequestService;
+        this.pagePreviewService = pagePreviewService;
+        this.signatureVerificationService = signatureVerificationService;
+        this.blobStore = blobStore;
+        this.fileDownloadWriter = fileDownloadWriter;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/upload")
@@ -58,6 +92,24 @@ public class DocumentController {
         return ResponseEntity.ok(documentDto);
     }
 
+    @PostMapping("/upload/stream")
+    @Operation(summary = "Upload a document (streaming)",
+            description = "Same form fields as /upload (file, title), but the multipart body is parsed as it arrives and " +
+                    "written straight to storage, with no temporary copy. Suited to large files.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Document uploaded successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentDto.class))),
+            @ApiResponse(responseCode = "400", description = "Not a multipart request, missing file or not a PDF"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "413", description = "File too large")
+    })
+    public ResponseEntity<DocumentDto> uploadDocumentStream(HttpServletRequest request) throws Exception {
+        // Only the raw body is read here; touching request parameters would make the container parse and buffer it
+        DocumentDto documentDto = documentService.uploadDocumentStream(request.getInputStream(),
+                request.getContentType(), request.getContentLengthLong());
+        return ResponseEntity.ok(documentDto);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get document by ID", description = "Retrieve a specific document by its ID")
     @ApiResponses(value = {
@@ -96,86 +148,212 @@ public class DocumentController {
     }
 
     @PostMapping("/{id}/finalize-signature")
-    @Operation(summary = "Finalize signature and produce signed PDF")
+    @Operation(summary = "Finalize signature and produce signed PDF",
+            description = "Stamps and signs the document. With async=true the work is queued and a job is returned immediately.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Document signed"),
+            @ApiResponse(responseCode = "202", description = "Finalize job queued",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = FinalizeJobDto.class))),
+            @ApiResponse(responseCode = "404", description = "Document not found"),
+            @ApiResponse(responseCode = "503", description = "Finalize queue is full")
+    })
     public ResponseEntity<?> finalizeSignature(
             @Parameter(description = "Document ID") @PathVariable Long id,
+            @Parameter(description = "Queue the work and return a job instead of signing on the request thread")
+            @RequestParam(defaultValue = "false") boolean async,
             @RequestBody com.example.DocsSignatureAppBE.DTO.FinalizeSignatureRequestDto request
     ) throws Exception {
         DocumentDetailDto doc = documentService.getDocumentById(id);
         String inputPath = doc.getFilePath();
 
-        // Decode base64 image
-        String imageBase64 = request.getSignatureBase64();
-        File tempImageFile = null;
-        String imagePathForEmbed = null;
-
-        if (imageBase64 != null && !imageBase64.isEmpty()) {
-            if (imageBase64.contains(",")) {
-                imageBase64 = imageBase64.split(",")[1];
-            }
-            tempImageFile = File.createTempFile("temp_sig_", ".png");
-            byte[] imageBytes = java.util.Base64.getDecoder().decode(imageBase64);
-            java.nio.file.Files.write(tempImageFile.toPath(), imageBytes);
-            imagePathForEmbed = tempImageFile.getAbsolutePath();
-        }
+        // Decode base64 image, or take the SVG as-is for vector stamping
+        byte[] imageBytes = finalizeSignatureService.decodeSignature(request.getSignatureBase64(), request.getSignatureSvg());
 
-        // Embed images (multiple)
-        File stamped = pdfSignatureService.embedImages(inputPath, imagePathForEmbed, request.getPositions());
-        
-        // Clean up temp image
-        if (tempImageFile != null && tempImageFile.exists()) {
-            tempImageFile.delete();
+        if (async) {
+            FinalizeJobDto job = finalizeSignatureService.submit(id, inputPath, imageBytes, request.getPositions());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
         }
 
-        // Sign PDF (crypto)
-        File signed = pdfSignatureService.signPdf(stamped.getAbsolutePath(), "Signer", "Approved", "Location");
-
-        // Update document
-        documentService.markDocumentAsSigned(id, signed.getAbsolutePath());
+        // Stamp all positions and sign (crypto) in one pass
+        File signed = finalizeSignatureService.finalizeDocument(id, inputPath, imageBytes, request.getPositions());
 
         return ResponseEntity.ok().body("Signed file stored at: " + signed.getAbsolutePath());
     }
 
+    @PostMapping("/finalize-batch")
+    @Operation(summary = "Finalize many documents in one call",
+            description = "Stamps and signs the listed documents in parallel with one signing key. "
+                    + "Streams one JSON result per line as each document completes.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result stream",
+                    content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = BatchFinalizeResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch")
+    })
+    public ResponseEntity<StreamingResponseBody> finalizeBatch(@RequestBody BatchFinalizeRequestDto request) {
+        List<FinalizeSignatureService.BatchEntry> entries = finalizeSignatureService.prepareBatch(request);
+
+        StreamingResponseBody body = out -> finalizeSignatureService.finalizeBatch(entries, result -> {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    @GetMapping("/finalize-jobs/{jobId}")
+    @Operation(summary = "Get finalize job status", description = "Poll the outcome of an asynchronous finalize-signature job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = FinalizeJobDto.class))),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    public ResponseEntity<FinalizeJobDto> getFinalizeJob(
+            @Parameter(description = "Job ID") @PathVariable String jobId) {
+        return ResponseEntity.ok(finalizeSignatureService.getJob(jobId));
+    }
+
+    @GetMapping(value = "/finalize-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to finalize job", description = "Server-sent event stream that emits the job status once it finishes")
+    public SseEmitter subscribeFinalizeJob(
+            @Parameter(description = "Job ID") @PathVariable String jobId) {
+        return finalizeSignatureService.subscribe(jobId);
+    }
+
+    @GetMapping("/{id}/pages/{pageNumber}/preview")
+    @Operation(summary = "Render a page preview", description = "Render one page as PNG at the requested DPI. Renderings are cached by document checksum.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "PNG image", content = @Content(mediaType = "image/png")),
+            @ApiResponse(responseCode = "400", description = "Invalid page number or DPI"),
+            @ApiResponse(responseCode = "404", description = "Document not found")
+    })
+    public ResponseEntity<FileSystemResource> previewPage(
+            @Parameter(description = "Document ID") @PathVariable Long id,
+            @Parameter(description = "Page number (1-based)") @PathVariable int pageNumber,
+            @Parameter(description = "Resolution in dots per inch") @RequestParam(defaultValue = "96") int dpi) throws Exception {
+        DocumentDetailDto doc = documentService.getDocumentById(id);
+        Path image = pagePreviewService.renderPage(id, doc.getFilePath(), pageNumber, dpi);
+        return pngResponse(image);
+    }
+
+    @GetMapping("/{id}/pages/{pageNumber}/thumbnail")
+    @Operation(summary = "Render a page thumbnail", description = "Render one page as a small PNG thumbnail")
+    public ResponseEntity<FileSystemResource> pageThumbnail(
+            @Parameter(description = "Document ID") @PathVariable Long id,
+            @Parameter(description = "Page number (1-based)") @PathVariable int pageNumber) throws Exception {
+        DocumentDetailDto doc = documentService.getDocumentById(id);
+        Path image = pagePreviewService.renderThumbnail(id, doc.getFilePath(), pageNumber);
+        return pngResponse(image);
+    }
+
+    @GetMapping("/{id}/thumbnails")
+    @Operation(summary = "Render thumbnails for all pages", description = "Renders missing thumbnails in parallel and returns their URLs and pixel sizes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Thumbnails ready",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = PagePreviewDto.class))),
+            @ApiResponse(responseCode = "404", description = "Document not found")
+    })
+    public ResponseEntity<List<PagePreviewDto>> thumbnails(
+            @Parameter(description = "Document ID") @PathVariable Long id) throws Exception {
+        DocumentDetailDto doc = documentService.getDocumentById(id);
+        return ResponseEntity.ok(pagePreviewService.renderThumbnails(id, doc.getFilePath()));
+    }
+
+    @GetMapping("/{id}/revisions")
+    @Operation(summary = "List signed revisions", description = "Revision chain of the document, one incremental update per signer, oldest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Revisions retrieved",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentRevisionDto.class))),
+            @ApiResponse(responseCode = "404", description = "Document not found")
+    })
+    public ResponseEntity<List<DocumentRevisionDto>> revisions(
+            @Parameter(description = "Document ID") @PathVariable Long id) {
+        return ResponseEntity.ok(documentService.getRevisions(id));
+    }
+
+    @GetMapping("/{id}/signatures/verify")
+    @Operation(summary = "Verify document signatures", description = "Check every signature of the latest revision: signed digest (through the inclusion proof for Merkle batch signatures), CMS signature and certificate chain at signing time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Verification result with one entry per signature",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentVerificationDto.class))),
+            @ApiResponse(responseCode = "404", description = "Document not found")
+    })
+    public ResponseEntity<DocumentVerificationDto> verifySignatures(
+            @Parameter(description = "Document ID") @PathVariable Long id) throws IOException {
+        return ResponseEntity.ok(signatureVerificationService.verifyDocument(id));
+    }
+
+    @PostMapping("/signatures/verify")
+    @Operation(summary = "Verify signatures of several documents", description = "Verify the latest revision of each document in parallel")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Verification results in request order"),
+            @ApiResponse(responseCode = "400", description = "No document IDs given, or more than the configured maximum"),
+            @ApiResponse(responseCode = "404", description = "A document was not found")
+    })
+    public ResponseEntity<List<DocumentVerificationDto>> verifySignaturesBatch(@RequestBody List<Long> documentIds) throws IOException {
+        return ResponseEntity.ok(signatureVerificationService.verifyDocuments(documentIds));
+    }
+
+    private ResponseEntity<FileSystemResource> pngResponse(Path image) {
+        // Renderings are keyed by content checksum, so they never change for a given document
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                .body(new FileSystemResource(image));
+    }
+
     @GetMapping("/{id}/download")
-    @Operation(summary = "Download original PDF")
-    public ResponseEntity<FileSystemResource> downloadOriginal(@PathVariable Long id) {
+    @Operation(summary = "Download original PDF", description = "Supports single byte ranges, and If-None-Match against the content-hash ETag")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Whole file"),
+            @ApiResponse(responseCode = "206", description = "Requested byte range"),
+            @ApiResponse(responseCode = "304", description = "Client copy is current"),
+            @ApiResponse(responseCode = "404", description = "Document or file not found"),
+            @ApiResponse(responseCode = "416", description = "Range outside the file")
+    })
+    public void downloadOriginal(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
         DocumentDetailDto doc = documentService.getDocumentById(id);
         String filePath = doc.getFilePath();
         if (filePath == null || filePath.isEmpty()) {
-            return ResponseEntity.notFound().build();
+            throw new ResourceNotFoundException("File not found for document " + id);
         }
 
-        File file = new File(filePath);
-        if (!file.exists()) {
-            return ResponseEntity.notFound().build();
+        Path file = blobStore.fetch(filePath);
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("File not found for document " + id);
         }
 
-        FileSystemResource resource = new FileSystemResource(file);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", file.getName());
-        return ResponseEntity.ok().headers(headers).body(resource);
+        // Stored files are named by content hash; hand out the name the file was uploaded with
+        fileDownloadWriter.write(request, response, file, documentService.getChecksum(id),
+                MediaType.APPLICATION_PDF_VALUE, downloadName(doc, file, ""));
     }
 
     @GetMapping("/{id}/download-signed")
-
-    @Operation(summary = "Download final signed PDF")
-    public ResponseEntity<FileSystemResource> downloadSigned(@PathVariable Long id) {
+    @Operation(summary = "Download final signed PDF", description = "Supports single byte ranges, and If-None-Match against the content-hash ETag of the latest revision")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Whole file"),
+            @ApiResponse(responseCode = "206", description = "Requested byte range"),
+            @ApiResponse(responseCode = "304", description = "Client copy is current"),
+            @ApiResponse(responseCode = "404", description = "Document not found or not signed"),
+            @ApiResponse(responseCode = "416", description = "Range outside the file")
+    })
+    public void downloadSigned(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
         DocumentDetailDto doc = documentService.getDocumentById(id);
         String signedPath = doc.getFinalSignedFilePath();
         if (signedPath == null || signedPath.isEmpty()) {
-            return ResponseEntity.notFound().build();
+            throw new ResourceNotFoundException("Document " + id + " is not signed");
         }
 
-        File file = new File(signedPath);
-        if (!file.exists()) {
-            return ResponseEntity.notFound().build();
+        Path file = blobStore.fetch(signedPath);
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("Signed file not found for document " + id);
         }
 
-        FileSystemResource resource = new FileSystemResource(file);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", file.getName());
-        return ResponseEntity.ok().headers(headers).body(resource);
+        fileDownloadWriter.write(request, response, file, documentService.getSignedChecksum(id),
+                MediaType.APPLICATION_PDF_VALUE, downloadName(doc, file, "signed_"));
+    }
+
+    private static String downloadName(DocumentDetailDto doc, Path file, String prefix) {
+        String original = doc.getOriginalFilename();
+        return original != null && !original.isBlank() ? prefix + original : file.getFileName().toString();
     }
 }
@@ -271,10 +271,12 @@ public class SignatureController {
             @Parameter(description = "Page number")
             @RequestParam(required = false) Integer pageNumber,
             @Parameter(description = "Signature data (optional)")
-            @RequestParam(required = false) String signatureData) {
+            @RequestParam(required = false) String signatureData,
+            @Parameter(description = "Document ID (optional, enables page count checks)")
+            @RequestParam(required = false) Long documentId) {
 
         SignatureValidationResponse validation = signatureService.validateCoordinatesOnly(
-                xCoordinate, yCoordinate, pageNumber, signatureData);
+                xCoordinate, yCoordinate, pageNumber, signatureData, documentId);
         return ResponseEntity.ok(validation);
     }
 
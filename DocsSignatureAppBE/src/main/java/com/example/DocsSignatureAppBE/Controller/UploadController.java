@@ -0,0 +1,113 @@
+package com.example.DocsSignatureAppBE.Controller;
+
+import com.example.DocsSignatureAppBE.DTO.UploadChunkDto;
+import com.example.DocsSignatureAppBE.DTO.UploadSessionDto;
+import com.example.DocsSignatureAppBE.DTO.UploadSessionRequestDto;
+import com.example.DocsSignatureAppBE.Service.ResumableUploadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/uploads")
+@Tag(name = "Uploads", description = "Resumable chunked upload APIs for large documents")
+@SecurityRequirement(name = "Bearer Authentication")
+public class UploadController {
+
+    private final ResumableUploadService resumableUploadService;
+
+    public UploadController(ResumableUploadService resumableUploadService) {
+        this.resumableUploadService = resumableUploadService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Start a resumable upload", description = "Open an upload session and get the chunk size to use")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Upload session created",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UploadSessionDto.class))),
+            @ApiResponse(responseCode = "400", description = "Not a PDF or file too large"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<UploadSessionDto> createSession(@RequestBody UploadSessionRequestDto request) throws IOException {
+        return ResponseEntity.ok(resumableUploadService.createSession(request));
+    }
+
+    @PutMapping("/{uploadId}/chunks/{index}")
+    @Operation(summary = "Upload a chunk",
+            description = "Send the raw bytes of one chunk as the request body. Chunks can be sent in any order and retried; " +
+                    "the returned SHA-256 is what was stored.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Chunk stored",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UploadChunkDto.class))),
+            @ApiResponse(responseCode = "400", description = "Wrong chunk size, index or checksum"),
+            @ApiResponse(responseCode = "404", description = "Upload not found"),
+            @ApiResponse(responseCode = "409", description = "Upload already completed or cancelled")
+    })
+    public ResponseEntity<UploadChunkDto> putChunk(
+            @Parameter(description = "Upload session ID")
+            @PathVariable String uploadId,
+            @Parameter(description = "Chunk index (0-based)")
+            @PathVariable int index,
+            @Parameter(description = "Expected SHA-256 of the chunk, hex encoded")
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+            HttpServletRequest request) throws IOException {
+        try (InputStream body = request.getInputStream()) {
+            return ResponseEntity.ok(resumableUploadService.putChunk(uploadId, index, body, sha256));
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "Get upload state", description = "List received and missing chunks, to resume an interrupted upload")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Upload state",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UploadSessionDto.class))),
+            @ApiResponse(responseCode = "404", description = "Upload not found")
+    })
+    public ResponseEntity<UploadSessionDto> getSession(
+            @Parameter(description = "Upload session ID")
+            @PathVariable String uploadId) {
+        return ResponseEntity.ok(resumableUploadService.getSession(uploadId));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @Operation(summary = "Complete an upload", description = "Assemble the chunks and create the document")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Document created",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UploadSessionDto.class))),
+            @ApiResponse(responseCode = "400", description = "Not a valid PDF or checksum mismatch"),
+            @ApiResponse(responseCode = "404", description = "Upload not found"),
+            @ApiResponse(responseCode = "409", description = "Chunks still missing")
+    })
+    public ResponseEntity<UploadSessionDto> complete(
+            @Parameter(description = "Upload session ID")
+            @PathVariable String uploadId,
+            @Parameter(description = "Expected SHA-256 of the whole file, hex encoded")
+            @RequestParam(value = "sha256", required = false) String sha256) throws Exception {
+        return ResponseEntity.ok(resumableUploadService.complete(uploadId, sha256));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "Cancel an upload", description = "Discard an unfinished upload and the chunks received so far")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Upload cancelled"),
+            @ApiResponse(responseCode = "404", description = "Upload not found"),
+            @ApiResponse(responseCode = "409", description = "Upload already completed")
+    })
+    public ResponseEntity<Void> abort(
+            @Parameter(description = "Upload session ID")
+            @PathVariable String uploadId) throws IOException {
+        resumableUploadService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
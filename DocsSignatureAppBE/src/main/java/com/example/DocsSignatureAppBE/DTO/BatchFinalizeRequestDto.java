@@ -0,0 +1,29 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class BatchFinalizeRequestDto {
+    // Used for every document that does not carry its own signature image
+    @JsonProperty("signatureBase64")
+    private String signatureBase64;
+
+    @JsonProperty("documents")
+    private List<BatchFinalizeItemDto> documents;
+
+    public String getSignatureBase64() {
+        return signatureBase64;
+    }
+
+    public void setSignatureBase64(String signatureBase64) {
+        this.signatureBase64 = signatureBase64;
+    }
+
+    public List<BatchFinalizeItemDto> getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(List<BatchFinalizeItemDto> documents) {
+        this.documents = documents;
+    }
+}
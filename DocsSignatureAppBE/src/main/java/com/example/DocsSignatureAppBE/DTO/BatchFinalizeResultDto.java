@@ -0,0 +1,56 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One line of the batch finalize result stream
+ */
+@Schema(description = "Per-document result of a batch finalize")
+public class BatchFinalizeResultDto {
+
+    @Schema(description = "Document ID", example = "1")
+    private Long documentId;
+
+    @Schema(description = "Result status (SIGNED, FAILED)", example = "SIGNED")
+    private String status;
+
+    @Schema(description = "Path to the signed document", example = "/signed-uploads/signed_contract.pdf")
+    private String signedFilePath;
+
+    @Schema(description = "Error message if signing failed")
+    private String errorMessage;
+
+    @Schema(description = "HTTP status the failure would get as a single finalize request", example = "409")
+    private Integer errorStatus;
+
+    @Schema(description = "Time spent stamping and signing in milliseconds", example = "120")
+    private Long durationMs;
+
+    public BatchFinalizeResultDto() {}
+
+    public BatchFinalizeResultDto(Long documentId, String status, String signedFilePath, String errorMessage, Long durationMs) {
+        this.documentId = documentId;
+        this.status = status;
+        this.signedFilePath = signedFilePath;
+        this.errorMessage = errorMessage;
+        this.durationMs = durationMs;
+    }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getSignedFilePath() { return signedFilePath; }
+    public void setSignedFilePath(String signedFilePath) { this.signedFilePath = signedFilePath; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public Integer getErrorStatus() { return errorStatus; }
+    public void setErrorStatus(Integer errorStatus) { this.errorStatus = errorStatus; }
+
+    public Long getDurationMs() { return durationMs; }
+    public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
+}
@@ -48,6 +48,27 @@ public class DocumentDetailDto {
     @Schema(description = "Path to the final signed document", example = "/signed-uploads/signed_contract.pdf")
     private String finalSignedFilePath;
 
+    @Schema(description = "Number of pages", example = "12")
+    private Integer pageCount;
+
+    @Schema(description = "PDF version", example = "1.7")
+    private String pdfVersion;
+
+    @Schema(description = "Whether the file is encrypted", example = "false")
+    private Boolean isEncrypted;
+
+    @Schema(description = "Whether the uploaded file already carried digital signatures", example = "false")
+    private Boolean hasSignatures;
+
+    @Schema(description = "Whether the file is linearized for fast web view", example = "false")
+    private Boolean isLinearized;
+
+    @Schema(description = "Whether the pages have text (not only scanned images)", example = "true")
+    private Boolean hasTextLayer;
+
+    @Schema(description = "When the upload analysis ran; null while it is pending", example = "2026-02-18T10:30:05")
+    private LocalDateTime analyzedAt;
+
     // Constructors
     public DocumentDetailDto() {}
 
@@ -174,5 +195,61 @@ public class DocumentDetailDto {
     public void setFinalSignedFilePath(String finalSignedFilePath) {
         this.finalSignedFilePath = finalSignedFilePath;
     }
+
+    public Integer getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(Integer pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public String getPdfVersion() {
+        return pdfVersion;
+    }
+
+    public void setPdfVersion(String pdfVersion) {
+        this.pdfVersion = pdfVersion;
+    }
+
+    public Boolean getIsEncrypted() {
+        return isEncrypted;
+    }
+
+    public void setIsEncrypted(Boolean isEncrypted) {
+        this.isEncrypted = isEncrypted;
+    }
+
+    public Boolean getHasSignatures() {
+        return hasSignatures;
+    }
+
+    public void setHasSignatures(Boolean hasSignatures) {
+        this.hasSignatures = hasSignatures;
+    }
+
+    public Boolean getIsLinearized() {
+        return isLinearized;
+    }
+
+    public void setIsLinearized(Boolean isLinearized) {
+        this.isLinearized = isLinearized;
+    }
+
+    public Boolean getHasTextLayer() {
+        return hasTextLayer;
+    }
+
+    public void setHasTextLayer(Boolean hasTextLayer) {
+        this.hasTextLayer = hasTextLayer;
+    }
+
+    public LocalDateTime getAnalyzedAt() {
+        return analyzedAt;
+    }
+
+    public void setAnalyzedAt(LocalDateTime analyzedAt) {
+        this.analyzedAt = analyzedAt;
+    }
 }
 
@@ -12,6 +12,14 @@ public class DocumentDto {
     private LocalDateTime uploadDate;
     private Boolean isSigned;
     private String fileStatus;
+    // Set by the post-upload analysis; null while it is pending
+    private Integer pageCount;
+    private String pdfVersion;
+    private Boolean isEncrypted;
+    private Boolean hasSignatures;
+    private Boolean isLinearized;
+    private Boolean hasTextLayer;
+    private LocalDateTime analyzedAt;
 
     public DocumentDto() {}
 
@@ -52,4 +60,25 @@ public class DocumentDto {
 
     public String getFileStatus() { return fileStatus; }
     public void setFileStatus(String fileStatus) { this.fileStatus = fileStatus; }
+
+    public Integer getPageCount() { return pageCount; }
+    public void setPageCount(Integer pageCount) { this.pageCount = pageCount; }
+
+    public String getPdfVersion() { return pdfVersion; }
+    public void setPdfVersion(String pdfVersion) { this.pdfVersion = pdfVersion; }
+
+    public Boolean getIsEncrypted() { return isEncrypted; }
+    public void setIsEncrypted(Boolean isEncrypted) { this.isEncrypted = isEncrypted; }
+
+    public Boolean getHasSignatures() { return hasSignatures; }
+    public void setHasSignatures(Boolean hasSignatures) { this.hasSignatures = hasSignatures; }
+
+    public Boolean getIsLinearized() { return isLinearized; }
+    public void setIsLinearized(Boolean isLinearized) { this.isLinearized = isLinearized; }
+
+    public Boolean getHasTextLayer() { return hasTextLayer; }
+    public void setHasTextLayer(Boolean hasTextLayer) { this.hasTextLayer = hasTextLayer; }
+
+    public LocalDateTime getAnalyzedAt() { return analyzedAt; }
+    public void setAnalyzedAt(LocalDateTime analyzedAt) { this.analyzedAt = analyzedAt; }
 }
@@ -0,0 +1,67 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing one signed revision of a document
+ */
+@Schema(description = "Signed revision of a document")
+public class DocumentRevisionDto {
+
+    @Schema(description = "Revision number (1-based)", example = "2")
+    private int revisionNumber;
+
+    @Schema(description = "Size of the revision file in bytes", example = "184320")
+    private long fileSize;
+
+    @Schema(description = "Growth in bytes over the previous revision; each revision is stored as a complete file", example = "21504")
+    private long deltaSize;
+
+    @Schema(description = "SHA-256 of the revision file, hex encoded")
+    private String checksum;
+
+    @Schema(description = "SHA-256 of the revision this one was appended to, hex encoded")
+    private String previousChecksum;
+
+    @Schema(description = "User who signed this revision", example = "alice")
+    private String signedBy;
+
+    @Schema(description = "When the revision was created")
+    private LocalDateTime createdAt;
+
+    public DocumentRevisionDto() {}
+
+    public DocumentRevisionDto(int revisionNumber, long fileSize, long deltaSize, String checksum,
+                               String previousChecksum, String signedBy, LocalDateTime createdAt) {
+        this.revisionNumber = revisionNumber;
+        this.fileSize = fileSize;
+        this.deltaSize = deltaSize;
+        this.checksum = checksum;
+        this.previousChecksum = previousChecksum;
+        this.signedBy = signedBy;
+        this.createdAt = createdAt;
+    }
+
+    public int getRevisionNumber() { return revisionNumber; }
+    public void setRevisionNumber(int revisionNumber) { this.revisionNumber = revisionNumber; }
+
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+
+    public long getDeltaSize() { return deltaSize; }
+    public void setDeltaSize(long deltaSize) { this.deltaSize = deltaSize; }
+
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+
+    public String getPreviousChecksum() { return previousChecksum; }
+    public void setPreviousChecksum(String previousChecksum) { this.previousChecksum = previousChecksum; }
+
+    public String getSignedBy() { return signedBy; }
+    public void setSignedBy(String signedBy) { this.signedBy = signedBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
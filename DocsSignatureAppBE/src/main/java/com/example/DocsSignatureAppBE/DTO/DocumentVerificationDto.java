@@ -0,0 +1,59 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO describing the verification of all signatures in one PDF
+ */
+@Schema(description = "Verification result for all signatures of a document")
+public class DocumentVerificationDto {
+
+    @Schema(description = "Document ID", example = "1")
+    private Long documentId;
+
+    @Schema(description = "SHA-256 of the verified file, hex encoded")
+    private String sha256;
+
+    @Schema(description = "Result was served from the verification cache", example = "false")
+    private boolean cached;
+
+    @Schema(description = "Why the file could not be verified, if it could not")
+    private String message;
+
+    @Schema(description = "One result per signature, oldest first")
+    private List<SignatureVerificationDto> signatures;
+
+    public DocumentVerificationDto() {}
+
+    public DocumentVerificationDto(Long documentId, String sha256, boolean cached, String message,
+                                   List<SignatureVerificationDto> signatures) {
+        this.documentId = documentId;
+        this.sha256 = sha256;
+        this.cached = cached;
+        this.message = message;
+        this.signatures = signatures;
+    }
+
+    @Schema(description = "The file has at least one signature and every signature is valid", example = "true")
+    public boolean isValid() {
+        return message == null && signatures != null && !signatures.isEmpty()
+                && signatures.stream().allMatch(SignatureVerificationDto::isValid);
+    }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public List<SignatureVerificationDto> getSignatures() { return signatures; }
+    public void setSignatures(List<SignatureVerificationDto> signatures) { this.signatures = signatures; }
+}
@@ -0,0 +1,73 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing an asynchronous finalize-signature job
+ */
+@Schema(description = "Status of an asynchronous finalize-signature job")
+public class FinalizeJobDto {
+
+    @Schema(description = "Job ID", example = "6f1c2b7e-4d0a-4a57-9b8e-3f2d5a1c9e10")
+    private String jobId;
+
+    @Schema(description = "Document ID", example = "1")
+    private Long documentId;
+
+    @Schema(description = "Job status (QUEUED, RUNNING, SIGNING, SUCCEEDED, FAILED)", example = "QUEUED")
+    private String status;
+
+    @Schema(description = "Document status", example = "PROCESSING")
+    private String fileStatus;
+
+    @Schema(description = "Path to the signed document once the job succeeded", example = "/signed-uploads/signed_contract.pdf")
+    private String signedFilePath;
+
+    @Schema(description = "Error message if the job failed")
+    private String errorMessage;
+
+    @Schema(description = "Time the job was queued", example = "2026-02-18T10:30:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Time the job finished", example = "2026-02-18T10:30:02")
+    private LocalDateTime completedAt;
+
+    public FinalizeJobDto() {}
+
+    public FinalizeJobDto(String jobId, Long documentId, String status, String fileStatus, String signedFilePath,
+                          String errorMessage, LocalDateTime createdAt, LocalDateTime completedAt) {
+        this.jobId = jobId;
+        this.documentId = documentId;
+        this.status = status;
+        this.fileStatus = fileStatus;
+        this.signedFilePath = signedFilePath;
+        this.errorMessage = errorMessage;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+    }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getFileStatus() { return fileStatus; }
+    public void setFileStatus(String fileStatus) { this.fileStatus = fileStatus; }
+
+    public String getSignedFilePath() { return signedFilePath; }
+    public void setSignedFilePath(String signedFilePath) { this.signedFilePath = signedFilePath; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -7,6 +7,9 @@ public class FinalizeSignatureRequestDto {
     @JsonProperty("signatureBase64")
     private String signatureBase64;
     
+    @JsonProperty("signatureSvg")
+    private String signatureSvg;
+
     @JsonProperty("positions")
     private List<SignaturePositionDto> positions;
 
@@ -18,6 +21,14 @@ public class FinalizeSignatureRequestDto {
         this.signatureBase64 = signatureBase64;
     }
 
+    public String getSignatureSvg() {
+        return signatureSvg;
+    }
+
+    public void setSignatureSvg(String signatureSvg) {
+        this.signatureSvg = signatureSvg;
+    }
+
     public List<SignaturePositionDto> getPositions() {
         return positions;
     }
@@ -0,0 +1,50 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO describing a rendered page image
+ */
+@Schema(description = "Rendered page image")
+public class PagePreviewDto {
+
+    @Schema(description = "Page number (1-based)", example = "1")
+    private int pageNumber;
+
+    @Schema(description = "Resolution the page was rendered at", example = "36")
+    private int dpi;
+
+    @Schema(description = "Image width in pixels", example = "306")
+    private int width;
+
+    @Schema(description = "Image height in pixels", example = "396")
+    private int height;
+
+    @Schema(description = "URL of the PNG image", example = "/api/documents/1/pages/1/thumbnail")
+    private String url;
+
+    public PagePreviewDto() {}
+
+    public PagePreviewDto(int pageNumber, int dpi, int width, int height, String url) {
+        this.pageNumber = pageNumber;
+        this.dpi = dpi;
+        this.width = width;
+        this.height = height;
+        this.url = url;
+    }
+
+    public int getPageNumber() { return pageNumber; }
+    public void setPageNumber(int pageNumber) { this.pageNumber = pageNumber; }
+
+    public int getDpi() { return dpi; }
+    public void setDpi(int dpi) { this.dpi = dpi; }
+
+    public int getWidth() { return width; }
+    public void setWidth(int width) { this.width = width; }
+
+    public int getHeight() { return height; }
+    public void setHeight(int height) { this.height = height; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+}
@@ -0,0 +1,119 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing the verification of one signature in a PDF
+ */
+@Schema(description = "Verification result for one signature")
+public class SignatureVerificationDto {
+
+    @Schema(description = "Position of the signature in the document, oldest first (1-based)", example = "1")
+    private int revision;
+
+    @Schema(description = "Signer name from the signature dictionary", example = "alice")
+    private String signatureName;
+
+    @Schema(description = "Signing time from the CMS, or from the signature dictionary")
+    private LocalDateTime signedAt;
+
+    @Schema(description = "Signature sub-filter", example = "adbe.pkcs7.detached")
+    private String subFilter;
+
+    @Schema(description = "Digest algorithm of the signer", example = "SHA-256")
+    private String digestAlgorithm;
+
+    @Schema(description = "Signature algorithm of the signer", example = "SHA256WITHRSA")
+    private String signatureAlgorithm;
+
+    @Schema(description = "Subject of the signer certificate", example = "CN=DocsSignature")
+    private String signer;
+
+    @Schema(description = "Issuer of the signer certificate", example = "CN=DocsSignature CA")
+    private String issuer;
+
+    @Schema(description = "Signed byte range runs to the end of the file; false for signatures of earlier revisions", example = "true")
+    private boolean coversWholeDocument;
+
+    @Schema(description = "Signature is Merkle-batched and was checked through its inclusion proof", example = "false")
+    private boolean batched;
+
+    @Schema(description = "Position of the document among the batch's leaves, for batched signatures", example = "3")
+    private Integer batchLeafIndex;
+
+    @Schema(description = "Number of documents signed in the same batch, for batched signatures", example = "12")
+    private Integer batchSize;
+
+    @Schema(description = "Signed Merkle root (hex), for batched signatures")
+    private String batchRoot;
+
+    @Schema(description = "Digest of the signed byte range matches the signed messageDigest", example = "true")
+    private boolean digestValid;
+
+    @Schema(description = "CMS signature verifies with the signer certificate", example = "true")
+    private boolean signatureValid;
+
+    @Schema(description = "Signer certificate chains to a trust anchor at signing time", example = "true")
+    private boolean chainValid;
+
+    @Schema(description = "Why a check failed, if one did")
+    private String message;
+
+    public SignatureVerificationDto() {}
+
+    @Schema(description = "Digest, signature and certificate chain are all valid", example = "true")
+    public boolean isValid() { return digestValid && signatureValid && chainValid; }
+
+    public int getRevision() { return revision; }
+    public void setRevision(int revision) { this.revision = revision; }
+
+    public String getSignatureName() { return signatureName; }
+    public void setSignatureName(String signatureName) { this.signatureName = signatureName; }
+
+    public LocalDateTime getSignedAt() { return signedAt; }
+    public void setSignedAt(LocalDateTime signedAt) { this.signedAt = signedAt; }
+
+    public String getSubFilter() { return subFilter; }
+    public void setSubFilter(String subFilter) { this.subFilter = subFilter; }
+
+    public String getDigestAlgorithm() { return digestAlgorithm; }
+    public void setDigestAlgorithm(String digestAlgorithm) { this.digestAlgorithm = digestAlgorithm; }
+
+    public String getSignatureAlgorithm() { return signatureAlgorithm; }
+    public void setSignatureAlgorithm(String signatureAlgorithm) { this.signatureAlgorithm = signatureAlgorithm; }
+
+    public String getSigner() { return signer; }
+    public void setSigner(String signer) { this.signer = signer; }
+
+    public String getIssuer() { return issuer; }
+    public void setIssuer(String issuer) { this.issuer = issuer; }
+
+    public boolean isCoversWholeDocument() { return coversWholeDocument; }
+    public void setCoversWholeDocument(boolean coversWholeDocument) { this.coversWholeDocument = coversWholeDocument; }
+
+    public boolean isBatched() { return batched; }
+    public void setBatched(boolean batched) { this.batched = batched; }
+
+    public Integer getBatchLeafIndex() { return batchLeafIndex; }
+    public void setBatchLeafIndex(Integer batchLeafIndex) { this.batchLeafIndex = batchLeafIndex; }
+
+    public Integer getBatchSize() { return batchSize; }
+    public void setBatchSize(Integer batchSize) { this.batchSize = batchSize; }
+
+    public String getBatchRoot() { return batchRoot; }
+    public void setBatchRoot(String batchRoot) { this.batchRoot = batchRoot; }
+
+    public boolean isDigestValid() { return digestValid; }
+    public void setDigestValid(boolean digestValid) { this.digestValid = digestValid; }
+
+    public boolean isSignatureValid() { return signatureValid; }
+    public void setSignatureValid(boolean signatureValid) { this.signatureValid = signatureValid; }
+
+    public boolean isChainValid() { return chainValid; }
+    public void setChainValid(boolean chainValid) { this.chainValid = chainValid; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,43 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO acknowledging one stored chunk of a resumable upload
+ */
+@Schema(description = "Stored chunk of a resumable upload")
+public class UploadChunkDto {
+
+    @Schema(description = "Chunk index (0-based)", example = "3")
+    private int index;
+
+    @Schema(description = "Byte offset of the chunk in the file", example = "25165824")
+    private long offset;
+
+    @Schema(description = "Chunk size in bytes", example = "8388608")
+    private long size;
+
+    @Schema(description = "SHA-256 of the chunk as stored, hex encoded")
+    private String sha256;
+
+    public UploadChunkDto() {}
+
+    public UploadChunkDto(int index, long offset, long size, String sha256) {
+        this.index = index;
+        this.offset = offset;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public long getOffset() { return offset; }
+    public void setOffset(long offset) { this.offset = offset; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+}
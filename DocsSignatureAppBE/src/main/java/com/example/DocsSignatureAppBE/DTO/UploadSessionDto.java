@@ -0,0 +1,86 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO describing the state of a resumable upload, enough for a client to resume it
+ */
+@Schema(description = "State of a resumable upload")
+public class UploadSessionDto {
+
+    @Schema(description = "Upload session ID", example = "3f2c9a4e-6a7b-4f0e-9a51-1d2b7c9e8f10")
+    private String uploadId;
+
+    @Schema(description = "Name of the file on the client", example = "contract.pdf")
+    private String filename;
+
+    @Schema(description = "Total size of the file in bytes", example = "268435456")
+    private long fileSize;
+
+    @Schema(description = "Size of every chunk except possibly the last", example = "8388608")
+    private int chunkSize;
+
+    @Schema(description = "Number of chunks", example = "32")
+    private int totalChunks;
+
+    @Schema(description = "Upload progress in percent", example = "40")
+    private int uploadProgress;
+
+    @Schema(description = "Upload status", example = "PENDING")
+    private String status;
+
+    @Schema(description = "Chunks stored so far, with their checksums")
+    private List<UploadChunkDto> receivedChunks;
+
+    @Schema(description = "Indexes of chunks still to send")
+    private List<Integer> missingChunks;
+
+    @Schema(description = "Document created on completion", example = "42")
+    private Long documentId;
+
+    @Schema(description = "SHA-256 of the assembled file once completed, hex encoded")
+    private String checksum;
+
+    @Schema(description = "Why the upload failed, if it did")
+    private String errorMessage;
+
+    public UploadSessionDto() {}
+
+    public String getUploadId() { return uploadId; }
+    public void setUploadId(String uploadId) { this.uploadId = uploadId; }
+
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+
+    public int getTotalChunks() { return totalChunks; }
+    public void setTotalChunks(int totalChunks) { this.totalChunks = totalChunks; }
+
+    public int getUploadProgress() { return uploadProgress; }
+    public void setUploadProgress(int uploadProgress) { this.uploadProgress = uploadProgress; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public List<UploadChunkDto> getReceivedChunks() { return receivedChunks; }
+    public void setReceivedChunks(List<UploadChunkDto> receivedChunks) { this.receivedChunks = receivedChunks; }
+
+    public List<Integer> getMissingChunks() { return missingChunks; }
+    public void setMissingChunks(List<Integer> missingChunks) { this.missingChunks = missingChunks; }
+
+    public Long getDocumentId() { return documentId; }
+    public void setDocumentId(Long documentId) { this.documentId = documentId; }
+
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
@@ -0,0 +1,36 @@
+package com.example.DocsSignatureAppBE.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO for starting a resumable upload
+ */
+@Schema(description = "Request to start a resumable upload")
+public class UploadSessionRequestDto {
+
+    @Schema(description = "Name of the file on the client", example = "contract.pdf")
+    private String filename;
+
+    @Schema(description = "Title of the document created on completion", example = "Service contract")
+    private String title;
+
+    @Schema(description = "Total size of the file in bytes", example = "268435456")
+    private Long fileSize;
+
+    @Schema(description = "Preferred chunk size in bytes; clamped to the server limits", example = "8388608")
+    private Integer chunkSize;
+
+    public UploadSessionRequestDto() {}
+
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public Integer getChunkSize() { return chunkSize; }
+    public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+}
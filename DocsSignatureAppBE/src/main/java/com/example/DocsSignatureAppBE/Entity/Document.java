@@ -4,11 +4,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "documents")
+// An incidental flush of a loaded Document writes only what changed, never stale analysis columns
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -66,6 +69,48 @@ public class Document {
     @Column(name = "signed_at")
     private LocalDateTime signedAt;
 
+    // Page geometry captured at upload time (see PageGeometry for the encoding)
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Lob
+    @Column(name = "page_geometry")
+    private String pageGeometry;
+
+    // SHA-256 of the stored file, hex encoded
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
+    // SHA-256 of finalSignedFilePath; legacy signed files get it on first use
+    @Column(name = "signed_checksum", length = 64)
+    private String signedChecksum;
+
+    // Number of signed revisions; finalSignedFilePath points at the latest one
+    @Column(name = "revision_count")
+    private Integer revisionCount = 0;
+
+    // Facts from the post-upload analysis pass, null until it has run (see DocumentAnalysisService)
+    @Column(name = "pdf_version", length = 8)
+    private String pdfVersion;
+
+    @Column(name = "is_encrypted")
+    private Boolean isEncrypted;
+
+    @Column(name = "has_signatures")
+    private Boolean hasSignatures;
+
+    @Column(name = "is_linearized")
+    private Boolean isLinearized;
+
+    @Column(name = "has_text_layer")
+    private Boolean hasTextLayer;
+
+    @Column(name = "analyzed_at")
+    private LocalDateTime analyzedAt;
+
+    @Column(name = "analysis_error")
+    private String analysisError;
+
     // Constructors
 
     public Document(String filename, String filePath, String content, User uploadedBy) {
@@ -210,6 +255,102 @@ public class Document {
         this.signedAt = signedAt;
     }
 
+    public Integer getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(Integer pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public String getPageGeometry() {
+        return pageGeometry;
+    }
+
+    public void setPageGeometry(String pageGeometry) {
+        this.pageGeometry = pageGeometry;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public String getSignedChecksum() {
+        return signedChecksum;
+    }
+
+    public void setSignedChecksum(String signedChecksum) {
+        this.signedChecksum = signedChecksum;
+    }
+
+    public Integer getRevisionCount() {
+        return revisionCount;
+    }
+
+    public void setRevisionCount(Integer revisionCount) {
+        this.revisionCount = revisionCount;
+    }
+
+    public String getPdfVersion() {
+        return pdfVersion;
+    }
+
+    public void setPdfVersion(String pdfVersion) {
+        this.pdfVersion = pdfVersion;
+    }
+
+    public Boolean getIsEncrypted() {
+        return isEncrypted;
+    }
+
+    public void setIsEncrypted(Boolean isEncrypted) {
+        this.isEncrypted = isEncrypted;
+    }
+
+    public Boolean getHasSignatures() {
+        return hasSignatures;
+    }
+
+    public void setHasSignatures(Boolean hasSignatures) {
+        this.hasSignatures = hasSignatures;
+    }
+
+    public Boolean getIsLinearized() {
+        return isLinearized;
+    }
+
+    public void setIsLinearized(Boolean isLinearized) {
+        this.isLinearized = isLinearized;
+    }
+
+    public Boolean getHasTextLayer() {
+        return hasTextLayer;
+    }
+
+    public void setHasTextLayer(Boolean hasTextLayer) {
+        this.hasTextLayer = hasTextLayer;
+    }
+
+    public LocalDateTime getAnalyzedAt() {
+        return analyzedAt;
+    }
+
+    public void setAnalyzedAt(LocalDateTime analyzedAt) {
+        this.analyzedAt = analyzedAt;
+    }
+
+    public String getAnalysisError() {
+        return analysisError;
+    }
+
+    public void setAnalysisError(String analysisError) {
+        this.analysisError = analysisError;
+    }
+
     @PrePersist
     protected void onCreate() {
         if (this.uploadDate == null) {
@@ -0,0 +1,140 @@
+package com.example.DocsSignatureAppBE.Entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One signed revision of a document. Each signer's stamp and signature is appended to the
+ * previous revision as an incremental update, so every revision file still contains all earlier
+ * ones byte for byte; the checksums link each revision to the one it was built on. Every
+ * revision is stored as a complete file, deltas are not stored on their own.
+ */
+@Entity
+@Table(name = "document_revisions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"document_id", "revision_number"}),
+        indexes = @Index(name = "idx_revision_document", columnList = "document_id"))
+public class DocumentRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id", nullable = false)
+    private Document document;
+
+    @Column(name = "revision_number", nullable = false)
+    private Integer revisionNumber;
+
+    @Column(name = "file_path", nullable = false)
+    private String filePath;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    // How much larger this file is than the previous revision, for reporting only
+    @Column(name = "delta_size", nullable = false)
+    private Long deltaSize;
+
+    // SHA-256 of this revision and of the one it was appended to, hex encoded
+    @Column(name = "checksum", nullable = false, length = 64)
+    private String checksum;
+
+    @Column(name = "previous_checksum", length = 64)
+    private String previousChecksum;
+
+    @Column(name = "signed_by")
+    private String signedBy;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public DocumentRevision() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public void setDocument(Document document) {
+        this.document = document;
+    }
+
+    public Integer getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    public void setRevisionNumber(Integer revisionNumber) {
+        this.revisionNumber = revisionNumber;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Long getDeltaSize() {
+        return deltaSize;
+    }
+
+    public void setDeltaSize(Long deltaSize) {
+        this.deltaSize = deltaSize;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public String getPreviousChecksum() {
+        return previousChecksum;
+    }
+
+    public void setPreviousChecksum(String previousChecksum) {
+        this.previousChecksum = previousChecksum;
+    }
+
+    public String getSignedBy() {
+        return signedBy;
+    }
+
+    public void setSignedBy(String signedBy) {
+        this.signedBy = signedBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
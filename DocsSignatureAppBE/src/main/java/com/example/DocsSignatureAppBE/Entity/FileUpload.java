@@ -87,6 +87,17 @@ public class FileUpload {
     @JoinColumn(name = "user_id", nullable = false)
     private User uploadedBy;
 
+    // Resumable uploads: fixed chunk size (the last chunk may be shorter) and number of chunks
+    @Column(name = "chunk_size")
+    private Integer chunkSize;
+
+    @Column(name = "total_chunks")
+    private Integer totalChunks;
+
+    // Document created when the upload was completed
+    @Column(name = "document_id")
+    private Long documentId;
+
     // Constructors
     public FileUpload(String uploadId, String filename, String originalFilename,
                      String filePath, Long fileSize, String mimeType, String fileExtension, User uploadedBy) {
@@ -289,6 +300,30 @@ public class FileUpload {
         this.uploadedBy = uploadedBy;
     }
 
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Integer getTotalChunks() {
+        return totalChunks;
+    }
+
+    public void setTotalChunks(Integer totalChunks) {
+        this.totalChunks = totalChunks;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
     // Lifecycle methods
     @PrePersist
     protected void onCreate() {
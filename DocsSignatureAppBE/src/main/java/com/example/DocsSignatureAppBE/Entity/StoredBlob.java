@@ -0,0 +1,107 @@
+package com.example.DocsSignatureAppBE.Entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One stored file in the content-addressed upload store. Uploads with identical bytes share the
+ * row and the file on disk; the reference count says how many documents and uploads point at it.
+ */
+@Entity
+@Table(name = "stored_blobs")
+public class StoredBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the content, hex encoded
+    @Column(name = "sha256", nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 1;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_referenced_at")
+    private LocalDateTime lastReferencedAt;
+
+    public StoredBlob() {}
+
+    public StoredBlob(String sha256, String storagePath, Long size) {
+        this.sha256 = sha256;
+        this.storagePath = storagePath;
+        this.size = size;
+        this.refCount = 1;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Integer refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getLastReferencedAt() {
+        return lastReferencedAt;
+    }
+
+    public void setLastReferencedAt(LocalDateTime lastReferencedAt) {
+        this.lastReferencedAt = lastReferencedAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        lastReferencedAt = createdAt;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.DocsSignatureAppBE.Entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One received chunk of a resumable upload. Chunks arrive in any order and in parallel; each
+ * gets its own row so concurrent requests never update the same record.
+ */
+@Entity
+@Table(name = "upload_chunks",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"upload_id", "chunk_index"}),
+        indexes = @Index(name = "idx_chunk_upload", columnList = "upload_id"))
+public class UploadChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "upload_id", nullable = false)
+    private FileUpload upload;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "chunk_offset", nullable = false)
+    private Long offset;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    // SHA-256 of the chunk bytes, hex encoded
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    public UploadChunk() {}
+
+    public UploadChunk(FileUpload upload, Integer chunkIndex, Long offset, Long size, String sha256) {
+        this.upload = upload;
+        this.chunkIndex = chunkIndex;
+        this.offset = offset;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public FileUpload getUpload() {
+        return upload;
+    }
+
+    public void setUpload(FileUpload upload) {
+        this.upload = upload;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onReceive() {
+        receivedAt = LocalDateTime.now();
+    }
+}
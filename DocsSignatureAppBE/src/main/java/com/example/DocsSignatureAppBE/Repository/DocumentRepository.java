@@ -1,14 +1,99 @@
 package com.example.DocsSignatureAppBE.Repository;
 
 import com.example.DocsSignatureAppBE.Entity.Document;
+import com.example.DocsSignatureAppBE.Entity.FileStatus;
 import com.example.DocsSignatureAppBE.Entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
      List<Document> findByUploadedBy(User user);
 
+    /**
+     * Documents the analysis pass has not run on yet, e.g. uploaded before it existed
+     */
+    @Query("SELECT d.id FROM Document d WHERE d.analyzedAt IS NULL")
+    List<Long> findUnanalyzedIds();
+
+    /**
+     * Analysis timestamp read from the database, bypassing any copy of the document already loaded in this session
+     */
+    @Query("SELECT d.analyzedAt FROM Document d WHERE d.id = :id")
+    LocalDateTime findAnalyzedAt(@Param("id") Long id);
+
+    /**
+     * Encoded page geometry read from the database, bypassing any copy of the document already loaded in this session
+     */
+    @Query("SELECT d.pageGeometry FROM Document d WHERE d.id = :id")
+    String findPageGeometry(@Param("id") Long id);
+
+    /**
+     * The updates below write only their own columns. Saving a whole loaded Document would write
+     * every column back, and could put nulls over analysis results stored after it was loaded.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.filename = :filename, d.description = :description WHERE d.id = :id")
+    int saveDetails(@Param("id") Long id, @Param("filename") String filename, @Param("description") String description);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.fileStatus = :fileStatus WHERE d.id = :id")
+    int saveFileStatus(@Param("id") Long id, @Param("fileStatus") FileStatus fileStatus);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.isSigned = true, d.fileStatus = :fileStatus WHERE d.id = :id")
+    int saveSignedStatus(@Param("id") Long id, @Param("fileStatus") FileStatus fileStatus);
+
+    /**
+     * Record a new signed revision as the document's current file
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.isSigned = true, d.fileStatus = :fileStatus, d.finalSignedFilePath = :path, " +
+            "d.signedChecksum = :checksum, d.revisionCount = :revisionCount, d.signedAt = :signedAt, d.signedBy = :signedBy " +
+            "WHERE d.id = :id")
+    int saveSigned(@Param("id") Long id, @Param("fileStatus") FileStatus fileStatus, @Param("path") String path,
+                   @Param("checksum") String checksum, @Param("revisionCount") Integer revisionCount,
+                   @Param("signedAt") LocalDateTime signedAt, @Param("signedBy") String signedBy);
+
+    /**
+     * Record the hash of the uploaded file for documents stored before checksums were kept
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.checksum = :checksum WHERE d.id = :id AND d.checksum IS NULL")
+    int saveChecksum(@Param("id") Long id, @Param("checksum") String checksum);
+
+    /**
+     * Record the hash of the signed file, unless a newer revision replaced it in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Document d SET d.signedChecksum = :checksum WHERE d.id = :id AND d.finalSignedFilePath = :path")
+    int saveSignedChecksum(@Param("id") Long id, @Param("path") String path, @Param("checksum") String checksum);
+
+    /**
+     * Store analysis results without touching other columns, so a concurrent status change is not overwritten
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Document d SET d.pageCount = :pageCount, d.pageGeometry = :pageGeometry, d.pdfVersion = :pdfVersion, " +
+            "d.isEncrypted = :encrypted, d.hasSignatures = :hasSignatures, d.isLinearized = :linearized, " +
+            "d.hasTextLayer = :hasTextLayer, d.analyzedAt = :analyzedAt, d.analysisError = :analysisError " +
+            "WHERE d.id = :id")
+    int saveAnalysis(@Param("id") Long id, @Param("pageCount") Integer pageCount, @Param("pageGeometry") String pageGeometry,
+                     @Param("pdfVersion") String pdfVersion, @Param("encrypted") Boolean encrypted,
+                     @Param("hasSignatures") Boolean hasSignatures, @Param("linearized") Boolean linearized,
+                     @Param("hasTextLayer") Boolean hasTextLayer, @Param("analyzedAt") LocalDateTime analyzedAt,
+                     @Param("analysisError") String analysisError);
 }
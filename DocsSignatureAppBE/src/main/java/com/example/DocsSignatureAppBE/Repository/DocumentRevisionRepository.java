@@ -0,0 +1,28 @@
+package com.example.DocsSignatureAppBE.Repository;
+
+import com.example.DocsSignatureAppBE.Entity.Document;
+import com.example.DocsSignatureAppBE.Entity.DocumentRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentRevisionRepository extends JpaRepository<DocumentRevision, Long> {
+
+    /**
+     * Revision chain of a document, oldest first
+     */
+    List<DocumentRevision> findByDocumentOrderByRevisionNumberAsc(Document document);
+
+    /**
+     * Latest revision of a document
+     */
+    Optional<DocumentRevision> findFirstByDocumentOrderByRevisionNumberDesc(Document document);
+
+    /**
+     * Revision of a document stored at the given path
+     */
+    Optional<DocumentRevision> findFirstByDocumentAndFilePath(Document document, String filePath);
+}
@@ -0,0 +1,69 @@
+package com.example.DocsSignatureAppBE.Repository;
+
+import com.example.DocsSignatureAppBE.Entity.FileStatus;
+import com.example.DocsSignatureAppBE.Entity.FileUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileUploadRepository extends JpaRepository<FileUpload, Long> {
+
+    Optional<FileUpload> findByUploadId(String uploadId);
+
+    List<FileUpload> findByChecksum(String checksum);
+
+    /**
+     * Current state of an upload straight from the database. findById would return the copy already
+     * held by the request's persistence context, which misses changes made by concurrent requests.
+     */
+    @Query("SELECT f.status AS status, f.documentId AS documentId, f.filePath AS filePath, f.filename AS filename, " +
+            "f.checksum AS checksum, f.uploadProgress AS uploadProgress, f.errorMessage AS errorMessage, " +
+            "f.lastModifiedTimestamp AS lastModifiedTimestamp FROM FileUpload f WHERE f.id = :id")
+    Optional<UploadState> findState(@Param("id") Long id);
+
+    /**
+     * Drop the upload records of a deleted document
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileUpload f WHERE f.documentId = :documentId")
+    int deleteByDocumentId(@Param("documentId") Long documentId);
+
+    /**
+     * Unfinished chunked uploads that have not been touched since the given time
+     */
+    List<FileUpload> findByStatusAndDocumentIdIsNullAndTotalChunksIsNotNullAndLastModifiedTimestampBefore(FileStatus status, LocalDateTime before);
+
+    /**
+     * Record an accepted chunk: touch the upload so it does not expire, and raise its progress.
+     * Parallel chunk requests can finish out of order, so progress never goes down.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileUpload f SET f.lastModifiedTimestamp = :now, f.uploadProgress = " +
+            "CASE WHEN f.uploadProgress < :progress THEN :progress ELSE f.uploadProgress END " +
+            "WHERE f.uploadId = :uploadId")
+    int recordProgress(@Param("uploadId") String uploadId, @Param("progress") int progress, @Param("now") LocalDateTime now);
+
+    /**
+     * The columns of an upload that change after it is created
+     */
+    interface UploadState {
+        FileStatus getStatus();
+        Long getDocumentId();
+        String getFilePath();
+        String getFilename();
+        String getChecksum();
+        Integer getUploadProgress();
+        String getErrorMessage();
+        LocalDateTime getLastModifiedTimestamp();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.DocsSignatureAppBE.Repository;
+
+import com.example.DocsSignatureAppBE.Entity.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    Optional<StoredBlob> findBySha256(String sha256);
+
+    /**
+     * Count one more reference in a single UPDATE, without loading the row
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1, b.lastReferencedAt = :now WHERE b.sha256 = :sha256")
+    int incrementRefCount(@Param("sha256") String sha256, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1 WHERE b.sha256 = :sha256 AND b.refCount > 1")
+    int decrementRefCount(@Param("sha256") String sha256);
+}
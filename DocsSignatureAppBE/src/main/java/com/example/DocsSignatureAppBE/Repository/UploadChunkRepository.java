@@ -0,0 +1,34 @@
+package com.example.DocsSignatureAppBE.Repository;
+
+import com.example.DocsSignatureAppBE.Entity.FileUpload;
+import com.example.DocsSignatureAppBE.Entity.UploadChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
+
+    List<UploadChunk> findByUploadOrderByChunkIndexAsc(FileUpload upload);
+
+    Optional<UploadChunk> findByUploadAndChunkIndex(FileUpload upload, Integer chunkIndex);
+
+    long countByUpload(FileUpload upload);
+
+    /**
+     * Bytes received so far
+     */
+    @Query("SELECT COALESCE(SUM(c.size), 0) FROM UploadChunk c WHERE c.upload = :upload")
+    long sumSizeByUpload(@Param("upload") FileUpload upload);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UploadChunk c WHERE c.upload = :upload")
+    int deleteByUpload(@Param("upload") FileUpload upload);
+}
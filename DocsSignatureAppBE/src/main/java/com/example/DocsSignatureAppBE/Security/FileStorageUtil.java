@@ -1,39 +0,0 @@
-package com.example.DocsSignatureAppBE.Security;
-
-import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
-@Component
-public class FileStorageUtil {
-
-    private final Path root = Paths.get("uploads");
-
-    public FileStorageUtil() {
-        try {
-            Files.createDirectories(root);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create upload folder", e);
-        }
-    }
-
-    public String storeFile(MultipartFile file) throws IOException {
-        String filename = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        Path destination = root.resolve(filename);
-        Files.copy(file.getInputStream(), destination);
-        return destination.toAbsolutePath().toString();
-    }
-
-    public void deleteFile(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        if (Files.exists(path)) {
-            Files.delete(path);
-        }
-    }
-}
-
@@ -0,0 +1,96 @@
+package com.example.DocsSignatureAppBE.Security;
+
+import org.springframework.stereotype.Component;
+
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sign and verify throughput of each supported algorithm on this machine, measured with
+ * throwaway keys. What CMS signing costs per document is essentially one signature over the
+ * signed attributes, so this is the number to compare when choosing a key type.
+ */
+@Component
+public class SignatureAlgorithmBenchmark {
+
+    // Roughly the size of the DER-encoded signed attributes of one document signature
+    private static final int PAYLOAD_BYTES = 128;
+
+    /**
+     * Run every algorithm for the given number of iterations after an equal warm-up
+     */
+    public Map<String, Object> run(int iterations) throws Exception {
+        if (iterations < 1 || iterations > 10_000) {
+            throw new IllegalArgumentException("Iterations must be between 1 and 10000");
+        }
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        new SecureRandom().nextBytes(payload);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (SigningAlgorithm algorithm : SigningAlgorithm.values()) {
+            results.put(algorithm.name(), measure(algorithm, payload, iterations));
+        }
+        return results;
+    }
+
+    private Map<String, Object> measure(SigningAlgorithm algorithm, byte[] payload, int iterations) throws Exception {
+        KeyPair keyPair = algorithm.generateKeyPair();
+        Signature signer = Signature.getInstance(algorithm.getJcaName(), "BC");
+        Signature verifier = Signature.getInstance(algorithm.getJcaName(), "BC");
+        MessageDigest digest = MessageDigest.getInstance(algorithm.getDigestAlgorithm());
+
+        byte[] signature = null;
+        // Warm-up so the JIT has compiled the hot paths before timing
+        for (int i = 0; i < iterations; i++) {
+            signature = sign(signer, keyPair, digest, payload);
+            verify(verifier, keyPair, digest, payload, signature);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            signature = sign(signer, keyPair, digest, payload);
+        }
+        long signNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (!verify(verifier, keyPair, digest, payload, signature)) {
+                throw new IllegalStateException(algorithm + " produced a signature that does not verify");
+            }
+        }
+        long verifyNanos = System.nanoTime() - start;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jcaName", algorithm.getJcaName());
+        result.put("digest", algorithm.getDigestAlgorithm());
+        result.put("iterations", iterations);
+        result.put("signsPerSecond", perSecond(iterations, signNanos));
+        result.put("verifiesPerSecond", perSecond(iterations, verifyNanos));
+        result.put("signatureBytes", signature.length);
+        return result;
+    }
+
+    private static byte[] sign(Signature signer, KeyPair keyPair, MessageDigest digest, byte[] payload) throws Exception {
+        // Same shape as CMS signing: hash the content, then sign attributes that carry the digest
+        byte[] attributes = digest.digest(payload);
+        signer.initSign(keyPair.getPrivate());
+        signer.update(attributes);
+        return signer.sign();
+    }
+
+    private static boolean verify(Signature verifier, KeyPair keyPair, MessageDigest digest, byte[] payload,
+                                  byte[] signature) throws Exception {
+        byte[] attributes = digest.digest(payload);
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(attributes);
+        return verifier.verify(signature);
+    }
+
+    private static long perSecond(int iterations, long nanos) {
+        return nanos == 0 ? 0 : Math.round(iterations * 1_000_000_000.0 / nanos);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.DocsSignatureAppBE.Security;
+
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.EdECKey;
+import java.security.interfaces.RSAKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.util.Locale;
+
+/**
+ * Signature algorithms the signing key can be used with, each with the digest the CMS
+ * SignerInfo uses for it. The document digest must be computed with the same digest.
+ */
+public enum SigningAlgorithm {
+
+    RSA_SHA256("SHA256withRSA", "SHA-256", 32, null),
+    RSA_PSS_SHA256("SHA256withRSAandMGF1", "SHA-256", 32, null),
+    ECDSA_P256_SHA256("SHA256withECDSA", "SHA-256", 32, "secp256r1"),
+    ECDSA_P384_SHA384("SHA384withECDSA", "SHA-384", 48, "secp384r1"),
+    ED25519("Ed25519", "SHA-512", 64, null);
+
+    private final String jcaName;
+    private final String digestAlgorithm;
+    private final int digestLength;
+    private final String curve;
+
+    SigningAlgorithm(String jcaName, String digestAlgorithm, int digestLength, String curve) {
+        this.jcaName = jcaName;
+        this.digestAlgorithm = digestAlgorithm;
+        this.digestLength = digestLength;
+        this.curve = curve;
+    }
+
+    /** Name for JcaContentSignerBuilder and java.security.Signature */
+    public String getJcaName() { return jcaName; }
+    /** MessageDigest name for the document digest */
+    public String getDigestAlgorithm() { return digestAlgorithm; }
+    public int getDigestLength() { return digestLength; }
+
+    /**
+     * Whether a key of this type and curve can produce signatures with this algorithm
+     */
+    public boolean supports(PrivateKey key) {
+        switch (this) {
+            case RSA_SHA256:
+            case RSA_PSS_SHA256:
+                return key instanceof RSAKey;
+            case ECDSA_P256_SHA256:
+            case ECDSA_P384_SHA384:
+                return key instanceof ECKey && isCurve((ECKey) key, curve);
+            case ED25519:
+                return isEd25519(key);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Default algorithm for a key: PKCS#1 v1.5 for RSA (what existing signatures use),
+     * the matching curve for ECDSA, Ed25519 for Ed25519 keys
+     */
+    public static SigningAlgorithm forKey(PrivateKey key) {
+        for (SigningAlgorithm algorithm : new SigningAlgorithm[]{RSA_SHA256, ECDSA_P256_SHA256, ECDSA_P384_SHA384, ED25519}) {
+            if (algorithm.supports(key)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported signing key type: " + key.getAlgorithm());
+    }
+
+    /**
+     * Resolve the configured algorithm ("auto" or a constant name such as ECDSA_P256_SHA256)
+     * and check that the key can be used with it
+     */
+    public static SigningAlgorithm resolve(String configured, PrivateKey key) {
+        if (configured == null || configured.isBlank() || configured.equalsIgnoreCase("auto")) {
+            return forKey(key);
+        }
+        SigningAlgorithm algorithm;
+        try {
+            algorithm = valueOf(configured.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown signature algorithm '" + configured + "'");
+        }
+        if (!algorithm.supports(key)) {
+            throw new IllegalArgumentException("Signature algorithm " + algorithm + " cannot be used with a "
+                    + key.getAlgorithm() + " key");
+        }
+        return algorithm;
+    }
+
+    /**
+     * Fresh key pair for this algorithm (RSA 2048), used for benchmarking
+     */
+    public KeyPair generateKeyPair() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+        KeyPairGenerator generator;
+        if (curve != null) {
+            generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec(curve));
+        } else if (this == ED25519) {
+            generator = KeyPairGenerator.getInstance("Ed25519");
+        } else {
+            generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+        }
+        return generator.generateKeyPair();
+    }
+
+    /**
+     * Whether the key is on the named curve. The field size alone would also accept other curves of
+     * that size, such as brainpoolP256r1, so the domain parameters are compared in full; keys loaded
+     * from a keystore often carry them explicitly rather than by name.
+     */
+    private static boolean isCurve(ECKey key, String curveName) {
+        ECParameterSpec named;
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec(curveName));
+            named = parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+        ECParameterSpec params = key.getParams();
+        return params.getCurve().equals(named.getCurve())
+                && params.getGenerator().equals(named.getGenerator())
+                && params.getOrder().equals(named.getOrder())
+                && params.getCofactor() == named.getCofactor();
+    }
+
+    private static boolean isEd25519(PrivateKey key) {
+        // The JDK reports "EdDSA" with the curve in the parameters, BouncyCastle reports "Ed25519"
+        if (key instanceof EdECKey) {
+            return "Ed25519".equalsIgnoreCase(((EdECKey) key).getParams().getName());
+        }
+        return "Ed25519".equalsIgnoreCase(key.getAlgorithm());
+    }
+}
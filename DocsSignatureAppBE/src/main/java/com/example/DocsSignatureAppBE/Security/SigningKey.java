@@ -0,0 +1,115 @@
+package com.example.DocsSignatureAppBE.Security;
+
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decrypted signing key loaded from the keystore, together with the BouncyCastle
+ * helpers derived from it. Instances are immutable and shared between threads.
+ */
+public class SigningKey {
+
+    private final String alias;
+    private final PrivateKey privateKey;
+    private final SigningAlgorithm algorithm;
+    private final Certificate[] certificateChain;
+    private final long keystoreLastModified;
+    private final JcaCertStore certStore;
+    private final DigestCalculatorProvider digestCalculatorProvider;
+    private final JcaContentSignerBuilder contentSignerBuilder;
+
+    // ContentSigner wraps a stateful java.security.Signature, so it is reused per thread only
+    private final ThreadLocal<ContentSigner> contentSigners = new ThreadLocal<>();
+    private final AtomicLong signerHits;
+    private final AtomicLong signerMisses;
+
+    private volatile int signatureContainerSize;
+
+    SigningKey(String alias, PrivateKey privateKey, SigningAlgorithm algorithm, Certificate[] certificateChain,
+               long keystoreLastModified, AtomicLong signerHits, AtomicLong signerMisses)
+            throws CertificateEncodingException, OperatorCreationException {
+        this.alias = alias;
+        this.privateKey = privateKey;
+        this.algorithm = algorithm;
+        this.certificateChain = certificateChain;
+        this.keystoreLastModified = keystoreLastModified;
+        this.certStore = new JcaCertStore(Arrays.asList(certificateChain));
+        this.digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().setProvider("BC").build();
+        this.contentSignerBuilder = new JcaContentSignerBuilder(algorithm.getJcaName()).setProvider("BC");
+        this.signerHits = signerHits;
+        this.signerMisses = signerMisses;
+    }
+
+    /**
+     * Get a ContentSigner for the current thread, building it on first use
+     */
+    public ContentSigner contentSigner() throws OperatorCreationException {
+        ContentSigner signer = contentSigners.get();
+        if (signer != null) {
+            signerHits.incrementAndGet();
+            return signer;
+        }
+        signerMisses.incrementAndGet();
+        signer = contentSignerBuilder.build(privateKey);
+        contentSigners.set(signer);
+        return signer;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    /**
+     * Algorithm the content signer uses; its digest is the one to hash the document with
+     */
+    public SigningAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public Certificate[] getCertificateChain() {
+        return certificateChain;
+    }
+
+    public X509Certificate getSigningCertificate() {
+        return (X509Certificate) certificateChain[0];
+    }
+
+    public JcaCertStore getCertStore() {
+        return certStore;
+    }
+
+    public DigestCalculatorProvider getDigestCalculatorProvider() {
+        return digestCalculatorProvider;
+    }
+
+    public long getKeystoreLastModified() {
+        return keystoreLastModified;
+    }
+
+    /**
+     * Encoded CMS size last measured for this key, or 0 if not measured yet.
+     * Used to size the signature placeholder instead of a fixed worst case.
+     */
+    public int getSignatureContainerSize() {
+        return signatureContainerSize;
+    }
+
+    public void setSignatureContainerSize(int signatureContainerSize) {
+        this.signatureContainerSize = signatureContainerSize;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.DocsSignatureAppBE.Security;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads the PKCS12 signing key once and keeps it in memory.
+ * The keystore file's modification time is checked on every lookup so a replaced
+ * keystore is picked up without a restart.
+ */
+@Component
+public class SigningKeyManager {
+
+    @Value("${signature.keystore.path:keystore.p12}")
+    private String keystorePath;
+
+    @Value("${signature.keystore.password:changeit}")
+    private String keystorePassword;
+
+    @Value("${signature.key.alias:mykey}")
+    private String keyAlias;
+
+    // "auto" picks the algorithm from the key type: RSA PKCS#1, ECDSA on the key's curve, or Ed25519
+    @Value("${signature.algorithm:auto}")
+    private String signatureAlgorithm;
+
+    private volatile SigningKey cachedKey;
+
+    private final AtomicLong keyHits = new AtomicLong();
+    private final AtomicLong keyMisses = new AtomicLong();
+    private final AtomicLong signerHits = new AtomicLong();
+    private final AtomicLong signerMisses = new AtomicLong();
+
+    public SigningKeyManager() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    /**
+     * Get the signing key, reloading the keystore only when the file has changed
+     */
+    public SigningKey getSigningKey() throws Exception {
+        Path path = Paths.get(keystorePath);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+        SigningKey key = cachedKey;
+        if (key != null && key.getKeystoreLastModified() == lastModified) {
+            keyHits.incrementAndGet();
+            return key;
+        }
+
+        synchronized (this) {
+            key = cachedKey;
+            if (key != null && key.getKeystoreLastModified() == lastModified) {
+                keyHits.incrementAndGet();
+                return key;
+            }
+            keyMisses.incrementAndGet();
+            key = loadKey(path, lastModified);
+            cachedKey = key;
+            return key;
+        }
+    }
+
+    /**
+     * Drop the cached key so the next lookup reloads the keystore
+     */
+    public void evict() {
+        cachedKey = null;
+    }
+
+    /**
+     * Cache hit and miss counters for the key and content signer caches
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("keyCacheHits", keyHits.get());
+        stats.put("keyCacheMisses", keyMisses.get());
+        stats.put("contentSignerCacheHits", signerHits.get());
+        stats.put("contentSignerCacheMisses", signerMisses.get());
+        SigningKey key = cachedKey;
+        stats.put("loaded", key != null);
+        stats.put("alias", key != null ? key.getAlias() : null);
+        stats.put("algorithm", key != null ? key.getAlgorithm().name() : null);
+        stats.put("keystoreLastModified", key != null ? key.getKeystoreLastModified() : null);
+        return stats;
+    }
+
+    private SigningKey loadKey(Path path, long lastModified) throws Exception {
+        KeyStore keystore = KeyStore.getInstance("PKCS12");
+        try (InputStream is = Files.newInputStream(path)) {
+            keystore.load(is, keystorePassword.toCharArray());
+        }
+
+        PrivateKey privateKey = (PrivateKey) keystore.getKey(keyAlias, keystorePassword.toCharArray());
+        Certificate[] certificateChain = keystore.getCertificateChain(keyAlias);
+        if (privateKey == null || certificateChain == null || certificateChain.length == 0) {
+            throw new IOException("No private key with certificate chain found for alias '" + keyAlias + "' in " + keystorePath);
+        }
+
+        SigningAlgorithm algorithm = SigningAlgorithm.resolve(signatureAlgorithm, privateKey);
+        return new SigningKey(keyAlias, privateKey, algorithm, certificateChain, lastModified, signerHits, signerMisses);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.Entity.Document;
+import com.example.DocsSignatureAppBE.Repository.DocumentRepository;
+import com.example.DocsSignatureAppBE.Storage.BlobStore;
+import com.example.DocsSignatureAppBE.Util.PageGeometry;
+import com.example.DocsSignatureAppBE.Util.PdfUtils;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Post-upload analysis. One parse of the stored file records page count and geometry, PDF version,
+ * encryption, existing signatures, linearization and whether there is a text layer, so later
+ * operations can decide from the database instead of reopening the PDF. Runs on its own worker
+ * pool after the upload has been answered.
+ */
+@Service
+public class DocumentAnalysisService {
+
+    // The linearization dictionary must be the first object, within the first kilobyte
+    private static final int LINEARIZATION_WINDOW = 1024;
+    private static final Pattern LINEARIZED_LENGTH = Pattern.compile("/Linearized\\b.*?/L\\s+(\\d+)", Pattern.DOTALL);
+
+    private final DocumentRepository documentRepository;
+    private final PdfUtils pdfUtils;
+    private final BlobStore blobStore;
+    private final ExecutorService executor;
+
+    // Per-document monitors, so the queued job and an inline caller never parse the same file twice
+    private final Map<Long, Object> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong analyzed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong analysisNanos = new AtomicLong();
+
+    public DocumentAnalysisService(DocumentRepository documentRepository, PdfUtils pdfUtils, BlobStore blobStore,
+                                   @Value("${analysis.workers:2}") int workers) {
+        this.documentRepository = documentRepository;
+        this.pdfUtils = pdfUtils;
+        this.blobStore = blobStore;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "analysis-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a document for analysis. The document must already be committed.
+     */
+    public void submit(Long documentId) {
+        try {
+            executor.execute(() -> analyze(documentId));
+            queued.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            // Shutting down; getPageGeometry and the backfill pick it up later
+        }
+    }
+
+    /**
+     * Queue every document that has not been analyzed yet
+     */
+    public int submitUnanalyzed() {
+        List<Long> ids = documentRepository.findUnanalyzedIds();
+        ids.forEach(this::submit);
+        return ids.size();
+    }
+
+    /**
+     * Analyze a document now, on the calling thread, unless that already happened. A caller that
+     * arrives while another thread is analyzing the same document waits for that result instead of
+     * parsing again. Returns false if the document no longer exists.
+     */
+    public boolean analyze(Long documentId) {
+        Object monitor = inFlight.computeIfAbsent(documentId, id -> new Object());
+        try {
+            synchronized (monitor) {
+                if (documentRepository.findAnalyzedAt(documentId) != null) {
+                    return true;
+                }
+                return analyzeNow(documentId);
+            }
+        } finally {
+            inFlight.remove(documentId, monitor);
+        }
+    }
+
+    private boolean analyzeNow(Long documentId) {
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        Integer pageCount = document.getPageCount();
+        String pageGeometry = document.getPageGeometry();
+        String pdfVersion = null;
+        Boolean encrypted = null;
+        Boolean hasSignatures = null;
+        Boolean linearized = null;
+        Boolean hasTextLayer = null;
+        String error = null;
+        try {
+            Path file = blobStore.fetch(document.getFilePath());
+            linearized = isLinearized(file);
+            try (PDDocument pdf = pdfUtils.load(document.getFilePath())) {
+                List<PageGeometry> pages = PageGeometry.of(pdf);
+                pageCount = pages.size();
+                pageGeometry = PageGeometry.encode(pages);
+                // Header version, or the catalog's /Version when an update raised it
+                pdfVersion = String.valueOf(pdf.getVersion());
+                encrypted = pdf.isEncrypted();
+                hasSignatures = !pdf.getSignatureDictionaries().isEmpty();
+                hasTextLayer = hasTextLayer(pdf);
+            }
+            analyzed.incrementAndGet();
+        } catch (InvalidPasswordException e) {
+            encrypted = true;
+            error = "Password required to open the document";
+            failed.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            // PDFBox throws unchecked exceptions on some malformed files; they are recorded like I/O failures
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            failed.incrementAndGet();
+        } finally {
+            analysisNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        if (error != null && error.length() > 255) {
+            error = error.substring(0, 255);
+        }
+        documentRepository.saveAnalysis(documentId, pageCount, pageGeometry, pdfVersion, encrypted, hasSignatures,
+                linearized, hasTextLayer, LocalDateTime.now(), error);
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("analyzed", analyzed.get());
+        stats.put("failed", failed.get());
+        long done = analyzed.get() + failed.get();
+        stats.put("averageMillis", done == 0 ? 0 : analysisNanos.get() / done / 1_000_000);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * A file is linearized when its first object is a linearization dictionary whose /L still
+     * matches the file length; an incremental update appended later voids it
+     */
+    private static boolean isLinearized(Path file) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file)) {
+            head = in.readNBytes(LINEARIZATION_WINDOW);
+        }
+        Matcher m = LINEARIZED_LENGTH.matcher(new String(head, StandardCharsets.ISO_8859_1));
+        if (!m.find()) {
+            return false;
+        }
+        try {
+            return Long.parseLong(m.group(1)) == Files.size(file);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether any page uses fonts, directly or through form XObjects. Scans carry only images;
+     * an OCR layer or born-digital text needs a font.
+     */
+    private static boolean hasTextLayer(PDDocument pdf) {
+        Set<COSDictionary> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PDPage page : pdf.getPages()) {
+            if (page.getResources() != null && usesFonts(page.getResources().getCOSObject(), visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean usesFonts(COSDictionary resources, Set<COSDictionary> visited) {
+        if (resources == null || !visited.add(resources)) {
+            return false;
+        }
+        COSDictionary fonts = resources.getCOSDictionary(COSName.FONT);
+        if (fonts != null && fonts.size() > 0) {
+            return true;
+        }
+        COSDictionary xObjects = resources.getCOSDictionary(COSName.XOBJECT);
+        if (xObjects != null) {
+            for (COSName name : xObjects.keySet()) {
+                COSBase base = xObjects.getDictionaryObject(name);
+                if (base instanceof COSStream && COSName.FORM.equals(((COSStream) base).getCOSName(COSName.SUBTYPE))
+                        && usesFonts(((COSStream) base).getCOSDictionary(COSName.RESOURCES), visited)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
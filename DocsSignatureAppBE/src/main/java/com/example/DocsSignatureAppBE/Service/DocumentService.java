@@ -2,50 +2,162 @@ package com.example.DocsSignatureAppBE.Service;
 
 import com.example.DocsSignatureAppBE.DTO.DocumentDto;
 import com.example.DocsSignatureAppBE.DTO.DocumentDetailDto;
+import com.example.DocsSignatureAppBE.DTO.DocumentRevisionDto;
 import com.example.DocsSignatureAppBE.Entity.Document;
+import com.example.DocsSignatureAppBE.Entity.DocumentRevision;
+import com.example.DocsSignatureAppBE.Entity.StoredBlob;
 import com.example.DocsSignatureAppBE.Entity.User;
 import com.example.DocsSignatureAppBE.Repository.DocumentRepository;
+import com.example.DocsSignatureAppBE.Repository.DocumentRevisionRepository;
+import com.example.DocsSignatureAppBE.Repository.FileUploadRepository;
 import com.example.DocsSignatureAppBE.Repository.UserRepository;
-import com.example.DocsSignatureAppBE.Security.FileStorageUtil;
 import com.example.DocsSignatureAppBE.Exception.ResourceNotFoundException;
+import com.example.DocsSignatureAppBE.Storage.BlobStore;
+import com.example.DocsSignatureAppBE.Storage.ContentAddressedStore;
+import com.example.DocsSignatureAppBE.Util.MultipartStreamReader;
+import com.example.DocsSignatureAppBE.Util.PageGeometry;
+import com.example.DocsSignatureAppBE.Util.PdfUploadInputStream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class DocumentService {
 
+    private static final Logger log = LoggerFactory.getLogger(DocumentService.class);
+    private static final int MAX_TITLE_BYTES = 1024;
+
+    @Value("${upload.stream.max-size:1073741824}")
+    private long maxStreamSize;
+
     private final DocumentRepository documentRepository;
+    private final DocumentRevisionRepository documentRevisionRepository;
     private final UserRepository userRepository;
-    private final FileStorageUtil fileStorageUtil;
-
-    public DocumentService(DocumentRepository documentRepository, UserRepository userRepository, FileStorageUtil fileStorageUtil) {
+    private final FileUploadRepository fileUploadRepository;
+    private final ContentAddressedStore contentAddressedStore;
+    private final BlobStore blobStore;
+    private final DocumentAnalysisService documentAnalysisService;
+
+    public DocumentService(DocumentRepository documentRepository, DocumentRevisionRepository documentRevisionRepository,
+                           UserRepository userRepository, FileUploadRepository fileUploadRepository,
+                           ContentAddressedStore contentAddressedStore, BlobStore blobStore,
+                           DocumentAnalysisService documentAnalysisService) {
         this.documentRepository = documentRepository;
+        this.documentRevisionRepository = documentRevisionRepository;
         this.userRepository = userRepository;
-        this.fileStorageUtil = fileStorageUtil;
+        this.fileUploadRepository = fileUploadRepository;
+        this.contentAddressedStore = contentAddressedStore;
+        this.blobStore = blobStore;
+        this.documentAnalysisService = documentAnalysisService;
     }
 
     /**
      * Upload document for the current authenticated user
      */
     public DocumentDto uploadDocument(MultipartFile file, String title) throws Exception {
+        // Hashed while streaming; identical uploads share one file
+        StoredBlob blob;
+        try (InputStream in = file.getInputStream()) {
+            blob = contentAddressedStore.store(in);
+        }
+        return createDocument(blob, title, file.getOriginalFilename(),
+                file.getContentType() != null ? file.getContentType() : "application/pdf");
+    }
+
+    /**
+     * Upload from a raw multipart/form-data body, parsed as it arrives. The "file" part is hashed,
+     * size-limited and checked for a PDF header while it is written into the upload store, so the
+     * bytes reach disk once; nothing is buffered by the servlet container first. The "title" field
+     * may come before or after the file and defaults to the file name.
+     */
+    public DocumentDto uploadDocumentStream(InputStream body, String contentType, long contentLength) throws Exception {
+        String boundary = MultipartStreamReader.boundaryOf(contentType);
+        if (boundary == null) {
+            throw new IllegalArgumentException("Expected a multipart/form-data request");
+        }
+        // Refuse early when the declared body cannot fit; the allowance covers boundaries and form fields
+        if (contentLength > maxStreamSize + 64 * 1024) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "File size exceeds maximum allowed size of " + maxStreamSize + " bytes");
+        }
+
+        MultipartStreamReader reader = new MultipartStreamReader(body, boundary);
+        StoredBlob blob = null;
+        String title = null;
+        String originalFilename = null;
+        String mimeType = null;
+        try {
+            MultipartStreamReader.Part part;
+            while ((part = reader.nextPart()) != null) {
+                if ("file".equals(part.getName()) && blob == null) {
+                    originalFilename = part.getFilename();
+                    mimeType = part.getContentType();
+                    if (originalFilename == null || !originalFilename.toLowerCase().endsWith(".pdf")) {
+                        throw new IllegalArgumentException("Only PDF files are allowed");
+                    }
+                    blob = contentAddressedStore.store(new PdfUploadInputStream(part.getInputStream(), maxStreamSize));
+                } else if ("title".equals(part.getName())) {
+                    title = part.readString(MAX_TITLE_BYTES).trim();
+                }
+            }
+        } catch (PdfUploadInputStream.UploadRejectedException e) {
+            releaseQuietly(blob);
+            throw new ResponseStatusException(e.getStatus(), e.getMessage());
+        } catch (Exception e) {
+            releaseQuietly(blob);
+            throw e;
+        }
+
+        if (blob == null) {
+            throw new IllegalArgumentException("Request has no file part");
+        }
+        if (title == null || title.isEmpty()) {
+            title = originalFilename;
+        }
+        return createDocument(blob, title, originalFilename, mimeType != null ? mimeType : "application/pdf");
+    }
+
+    /**
+     * Create a document for the current user from content already in the upload store. The blob
+     * reference is handed over to the document, or released if the document cannot be saved.
+     */
+    public DocumentDto createDocument(StoredBlob blob, String title, String originalFilename, String mimeType) throws Exception {
         User currentUser = getCurrentUser();
 
-        String filePath = fileStorageUtil.storeFile(file);
+        String filePath = blob.getStoragePath();
         Document document = new Document();
         document.setFilename(title);
         document.setFilePath(filePath);
-        document.setOriginalFilename(file.getOriginalFilename());
-        document.setFileSize(file.getSize());
-        document.setMimeType(file.getContentType());
+        document.setOriginalFilename(originalFilename);
+        document.setFileSize(blob.getSize());
+        document.setMimeType(mimeType);
         document.setUploadedBy(currentUser);
         document.setContent("File stored at: " + filePath);
-
-        Document savedDocument = documentRepository.save(document);
+        document.setChecksum(blob.getSha256());
+        Document savedDocument;
+        try {
+            savedDocument = documentRepository.save(document);
+        } catch (Exception e) {
+            contentAddressedStore.release(blob.getSha256(), filePath);
+            throw e;
+        }
+        // Page geometry and the other PDF facts are filled in after the response
+        documentAnalysisService.submit(savedDocument.getId());
         return convertToDto(savedDocument);
     }
 
@@ -123,7 +235,15 @@ public class DocumentService {
             throw new ResourceNotFoundException("You do not have access to delete this document");
         }
 
+        documentRevisionRepository.deleteAll(documentRevisionRepository.findByDocumentOrderByRevisionNumberAsc(document));
+        fileUploadRepository.deleteByDocumentId(documentId);
         documentRepository.delete(document);
+        try {
+            contentAddressedStore.release(document.getChecksum(), document.getFilePath());
+        } catch (IOException e) {
+            // The row is gone; an orphaned file only costs disk space
+            log.warn("Could not release stored file {} of deleted document {}", document.getFilePath(), documentId, e);
+        }
     }
 
     /**
@@ -138,37 +258,220 @@ public class DocumentService {
             throw new ResourceNotFoundException("You do not have access to update this document");
         }
 
+        documentRepository.saveDetails(documentId, title, description);
         document.setFilename(title);
         document.setDescription(description);
-        Document updatedDocument = documentRepository.save(document);
 
-        return convertToDto(updatedDocument);
+        return convertToDto(document);
+    }
+
+    /**
+     * Mark document as signed and record the signed file as its next revision
+     */
+    public void markDocumentAsSigned(Long documentId, String signedFilePath, String signedBy) throws IOException {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
+
+        DocumentRevision previous = documentRevisionRepository.findFirstByDocumentOrderByRevisionNumberDesc(document).orElse(null);
+        long signedSize = Files.size(Paths.get(signedFilePath));
+        long previousSize = previous != null ? previous.getFileSize() : Files.size(blobStore.fetch(document.getFilePath()));
+
+        DocumentRevision revision = new DocumentRevision();
+        revision.setDocument(document);
+        revision.setRevisionNumber(previous != null ? previous.getRevisionNumber() + 1 : 1);
+        revision.setFilePath(signedFilePath);
+        revision.setFileSize(signedSize);
+        // Only the size difference is recorded, the revision itself is stored as a whole file.
+        // The first revision may be a full rewrite of the upload, so its difference is approximate.
+        revision.setDeltaSize(Math.max(0, signedSize - previousSize));
+        revision.setChecksum(computeChecksum(signedFilePath));
+        revision.setPreviousChecksum(previous != null ? previous.getChecksum() : document.getChecksum());
+        revision.setSignedBy(signedBy);
+        documentRevisionRepository.save(revision);
+
+        documentRepository.saveSigned(documentId, com.example.DocsSignatureAppBE.Entity.FileStatus.SIGNED, signedFilePath,
+                revision.getChecksum(), revision.getRevisionNumber(), java.time.LocalDateTime.now(), signedBy);
+    }
+
+    /**
+     * File the next signer's stamp and signature is appended to: the latest signed revision,
+     * or the uploaded file if nobody has signed yet. Either is fetched from the storage backend
+     * when it is not on local disk.
+     */
+    public String getCurrentRevisionPath(Long documentId) throws IOException {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
+
+        String signedPath = document.getFinalSignedFilePath();
+        if (signedPath != null && Files.exists(blobStore.fetch(signedPath))) {
+            return signedPath;
+        }
+        blobStore.fetch(document.getFilePath());
+        return document.getFilePath();
     }
 
     /**
-     * Mark document as signed
+     * Number the next signed revision of the document will get
      */
-    public void markDocumentAsSigned(Long documentId, String signedFilePath) {
+    public int getNextRevisionNumber(Long documentId) {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
 
-        document.setIsSigned(true);
-        document.setFileStatus(com.example.DocsSignatureAppBE.Entity.FileStatus.SIGNED);
-        document.setFinalSignedFilePath(signedFilePath);
-        document.setSignedAt(java.time.LocalDateTime.now());
-        document.setSignedBy("Signer"); // Assuming a simple generic signer string for now
-        documentRepository.save(document);
+        return documentRevisionRepository.findFirstByDocumentOrderByRevisionNumberDesc(document)
+                .map(revision -> revision.getRevisionNumber() + 1)
+                .orElse(1);
+    }
+
+    /**
+     * SHA-256 of the latest signed revision, as recorded when it was written. Signed files from
+     * before revisions were recorded are hashed once and the result is kept on the document.
+     */
+    public String getSignedChecksum(Long documentId) throws IOException {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
+
+        String signedPath = document.getFinalSignedFilePath();
+        if (signedPath == null) {
+            return null;
+        }
+        if (document.getSignedChecksum() != null) {
+            return document.getSignedChecksum();
+        }
+        String checksum = documentRevisionRepository.findFirstByDocumentAndFilePath(document, signedPath)
+                .map(DocumentRevision::getChecksum)
+                .orElse(null);
+        if (checksum == null) {
+            checksum = computeChecksum(signedPath);
+        }
+        documentRepository.saveSignedChecksum(documentId, signedPath, checksum);
+        return checksum;
+    }
+
+    /**
+     * Recorded SHA-256 of one of the document's files: the upload or a signed revision. Signed files
+     * from before revisions were recorded are hashed on demand.
+     */
+    public String getRevisionChecksum(Long documentId, String path) throws IOException {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
+
+        if (path.equals(document.getFilePath())) {
+            return getChecksum(documentId);
+        }
+        if (path.equals(document.getFinalSignedFilePath())) {
+            return getSignedChecksum(documentId);
+        }
+        Optional<DocumentRevision> revision = documentRevisionRepository.findFirstByDocumentAndFilePath(document, path);
+        if (revision.isPresent()) {
+            return revision.get().getChecksum();
+        }
+        return computeChecksum(path);
+    }
+
+    /**
+     * Revision chain of a document owned by the current user, oldest first
+     */
+    public List<DocumentRevisionDto> getRevisions(Long documentId) {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
+
+        User currentUser = getCurrentUser();
+        if (!document.getUploadedBy().getId().equals(currentUser.getId())) {
+            throw new ResourceNotFoundException("You do not have access to this document");
+        }
+
+        return documentRevisionRepository.findByDocumentOrderByRevisionNumberAsc(document).stream()
+                .map(revision -> new DocumentRevisionDto(revision.getRevisionNumber(), revision.getFileSize(),
+                        revision.getDeltaSize(), revision.getChecksum(), revision.getPreviousChecksum(),
+                        revision.getSignedBy(), revision.getCreatedAt()))
+                .collect(Collectors.toList());
     }
 
     /**
      * Mark document as awaiting signatures
      */
     public void markDocumentAsAwaitingSignatures(Long documentId) {
+        updateFileStatus(documentId, com.example.DocsSignatureAppBE.Entity.FileStatus.PROCESSING);
+    }
+
+    /**
+     * Get the page geometry of a document. If the analysis pass has not run yet (still queued, or
+     * the document predates it) it is run now on the calling thread.
+     */
+    public List<PageGeometry> getPageGeometry(Long documentId) {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
 
-        document.setFileStatus(com.example.DocsSignatureAppBE.Entity.FileStatus.PROCESSING);
-        documentRepository.save(document);
+        if (document.getPageGeometry() == null && document.getAnalyzedAt() == null
+                && documentAnalysisService.analyze(documentId)) {
+            // The result may have been stored by the analysis worker, so the loaded entity is stale
+            return PageGeometry.decode(documentRepository.findPageGeometry(documentId));
+        }
+        return PageGeometry.decode(document.getPageGeometry());
+    }
+
+    /**
+     * Get the SHA-256 of the stored file, computing and persisting it for documents
+     * uploaded before checksums were recorded
+     */
+    public String getChecksum(Long documentId) throws IOException {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
+
+        if (document.getChecksum() == null) {
+            String checksum = computeChecksum(document.getFilePath());
+            documentRepository.saveChecksum(documentId, checksum);
+            return checksum;
+        }
+        return document.getChecksum();
+    }
+
+    private String computeChecksum(String filePath) throws IOException {
+        try (InputStream in = Files.newInputStream(blobStore.fetch(filePath))) {
+            return DigestUtils.sha256Hex(in);
+        }
+    }
+
+    /**
+     * Mark document as being processed by a finalize job. Returns the status it had before.
+     */
+    public com.example.DocsSignatureAppBE.Entity.FileStatus markDocumentAsProcessing(Long documentId) {
+        return updateFileStatus(documentId, com.example.DocsSignatureAppBE.Entity.FileStatus.PROCESSING);
+    }
+
+    /**
+     * Put back the status a document had before a finalize job that could not be queued
+     */
+    public void restoreFileStatus(Long documentId, com.example.DocsSignatureAppBE.Entity.FileStatus fileStatus) {
+        updateFileStatus(documentId, fileStatus);
+    }
+
+    /**
+     * Mark document as rejected after a failed finalize
+     */
+    public void markDocumentAsRejected(Long documentId) {
+        updateFileStatus(documentId, com.example.DocsSignatureAppBE.Entity.FileStatus.REJECTED);
+    }
+
+    private com.example.DocsSignatureAppBE.Entity.FileStatus updateFileStatus(Long documentId,
+                                                                         com.example.DocsSignatureAppBE.Entity.FileStatus fileStatus) {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found with ID: " + documentId));
+
+        com.example.DocsSignatureAppBE.Entity.FileStatus previous = document.getFileStatus();
+        documentRepository.saveFileStatus(documentId, fileStatus);
+        return previous;
+    }
+
+    private void releaseQuietly(StoredBlob blob) {
+        if (blob == null) {
+            return;
+        }
+        try {
+            contentAddressedStore.release(blob.getSha256(), blob.getStoragePath());
+        } catch (IOException e) {
+            // An orphaned file only costs disk space
+        }
     }
 
     /**
@@ -186,7 +489,7 @@ public class DocumentService {
      * Convert Document entity to DocumentDto
      */
     private DocumentDto convertToDto(Document document) {
-        return new DocumentDto(
+        DocumentDto dto = new DocumentDto(
                 document.getId(),
                 document.getFilename(),
                 document.getOriginalFilename(),
@@ -196,13 +499,21 @@ public class DocumentService {
                 document.getIsSigned(),
                 document.getFileStatus() != null ? document.getFileStatus().toString() : null
         );
+        dto.setPageCount(document.getPageCount());
+        dto.setPdfVersion(document.getPdfVersion());
+        dto.setIsEncrypted(document.getIsEncrypted());
+        dto.setHasSignatures(document.getHasSignatures());
+        dto.setIsLinearized(document.getIsLinearized());
+        dto.setHasTextLayer(document.getHasTextLayer());
+        dto.setAnalyzedAt(document.getAnalyzedAt());
+        return dto;
     }
 
     /**
      * Convert Document entity to DocumentDetailDto (includes more details)
      */
     private DocumentDetailDto convertToDetailDto(Document document) {
-        return new DocumentDetailDto(
+        DocumentDetailDto dto = new DocumentDetailDto(
                 document.getId(),
                 document.getFilename(),
                 document.getOriginalFilename(),
@@ -217,5 +528,13 @@ public class DocumentService {
                 document.getUploadedBy().getUsername(),
                 document.getFinalSignedFilePath()
         );
+        dto.setPageCount(document.getPageCount());
+        dto.setPdfVersion(document.getPdfVersion());
+        dto.setIsEncrypted(document.getIsEncrypted());
+        dto.setHasSignatures(document.getHasSignatures());
+        dto.setIsLinearized(document.getIsLinearized());
+        dto.setHasTextLayer(document.getHasTextLayer());
+        dto.setAnalyzedAt(document.getAnalyzedAt());
+        return dto;
     }
 }
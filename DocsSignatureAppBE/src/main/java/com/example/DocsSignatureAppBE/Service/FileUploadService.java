@@ -2,19 +2,21 @@ package com.example.DocsSignatureAppBE.Service;
 
 import com.example.DocsSignatureAppBE.DTO.FileUploadResponse;
 import com.example.DocsSignatureAppBE.Entity.Document;
+import com.example.DocsSignatureAppBE.Entity.FileUpload;
+import com.example.DocsSignatureAppBE.Entity.StoredBlob;
 import com.example.DocsSignatureAppBE.Entity.User;
 import com.example.DocsSignatureAppBE.Repository.DocumentRepository;
+import com.example.DocsSignatureAppBE.Repository.FileUploadRepository;
 import com.example.DocsSignatureAppBE.Repository.UserRepository;
 import com.example.DocsSignatureAppBE.Exception.ResourceNotFoundException;
+import com.example.DocsSignatureAppBE.Storage.BlobStore;
+import com.example.DocsSignatureAppBE.Storage.ContentAddressedStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -24,9 +26,10 @@ public class FileUploadService {
 
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
-
-    @Value("${file.upload.dir:./uploads}")
-    private String uploadDir;
+    private final FileUploadRepository fileUploadRepository;
+    private final ContentAddressedStore contentAddressedStore;
+    private final BlobStore blobStore;
+    private final DocumentAnalysisService documentAnalysisService;
 
     @Value("${file.max-size:52428800}")
     private long maxFileSize;
@@ -34,38 +37,51 @@ public class FileUploadService {
     @Value("${file.allowed-types:application/pdf}")
     private String allowedTypes;
 
-    public FileUploadService(DocumentRepository documentRepository, UserRepository userRepository) {
+    public FileUploadService(DocumentRepository documentRepository, UserRepository userRepository,
+                             FileUploadRepository fileUploadRepository, ContentAddressedStore contentAddressedStore,
+                             BlobStore blobStore, DocumentAnalysisService documentAnalysisService) {
         this.documentRepository = documentRepository;
         this.userRepository = userRepository;
+        this.fileUploadRepository = fileUploadRepository;
+        this.contentAddressedStore = contentAddressedStore;
+        this.blobStore = blobStore;
+        this.documentAnalysisService = documentAnalysisService;
     }
 
     public FileUploadResponse uploadFile(MultipartFile file, Long userId) throws IOException {
+        // Clients do not always send a part content type; the extension check still applies
+        String contentType = file.getContentType() != null ? file.getContentType() : "application/pdf";
+
         // Validate file
-        validateFile(file);
+        validateFile(file, contentType);
 
         // Get user
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        // Create upload directory if not exists
-        File uploadFolder = new File(uploadDir);
-        if (!uploadFolder.exists()) {
-            uploadFolder.mkdirs();
+        // Save file to disk under its content hash; a repeated upload only adds a reference
+        StoredBlob blob;
+        try (InputStream in = file.getInputStream()) {
+            blob = contentAddressedStore.store(in);
         }
-
-        // Generate unique filename
-        String uniqueFileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        String filePath = uploadDir + File.separator + uniqueFileName;
-
-        // Save file to disk
-        Files.copy(file.getInputStream(), Paths.get(filePath));
+        String filePath = blob.getStoragePath();
 
         // Create document entity
         Document document = new Document();
-        document.setFilename(uniqueFileName);
+        document.setFilename(file.getOriginalFilename());
         document.setFilePath(filePath);
+        document.setFileSize(blob.getSize());
+        document.setChecksum(blob.getSha256());
         document.setContent( "String content not stored in DB for large files");
         Document savedDocument = documentRepository.save(document);
+        documentAnalysisService.submit(savedDocument.getId());
+
+        // Upload record, named by content hash so downloads resolve to the shared file
+        FileUpload upload = new FileUpload(UUID.randomUUID().toString(), blob.getSha256(), file.getOriginalFilename(),
+                filePath, blob.getSize(), contentType, "pdf", blob.getSha256(), user);
+        upload.setUploadProgress(100);
+        upload.setDocumentId(savedDocument.getId());
+        fileUploadRepository.save(upload);
 
         // Create response
         FileUploadResponse response = new FileUploadResponse();
@@ -86,32 +102,21 @@ public class FileUploadService {
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
     }
 
-    public byte[] downloadFile(String filename) throws IOException {
-        String filePath = uploadDir + File.separator + filename;
-        Path path = Paths.get(filePath);
-
-        if (!Files.exists(path)) {
-            throw new ResourceNotFoundException("File not found");
-        }
-
-        return Files.readAllBytes(path);
-    }
-
     public void deleteDocument(Long documentId, Long userId) throws IOException {
         Document document = getDocumentById(documentId);
 
 
-        // Delete file from disk
-        Path path = Paths.get(document.getFilePath());
-        if (Files.exists(path)) {
-            Files.delete(path);
-        }
-
-        // Delete document from database
+        // Delete document and its upload records from database
+        fileUploadRepository.deleteByDocumentId(documentId);
         documentRepository.delete(document);
+
+        // Delete file from disk once nothing else references the same content
+        if (!contentAddressedStore.release(document.getChecksum(), document.getFilePath())) {
+            blobStore.delete(document.getFilePath());
+        }
     }
 
-    private void validateFile(MultipartFile file) {
+    private void validateFile(MultipartFile file, String contentType) {
         if (file.isEmpty()) {
             throw new RuntimeException("File cannot be empty");
         }
@@ -121,8 +126,8 @@ public class FileUploadService {
         }
 
         // Validate file type
-        if (!allowedTypes.contains(file.getContentType())) {
-            throw new RuntimeException("File type " + file.getContentType() + " is not allowed. Only PDF files are accepted.");
+        if (!allowedTypes.contains(contentType)) {
+            throw new RuntimeException("File type " + contentType + " is not allowed. Only PDF files are accepted.");
         }
 
         // Validate file extension
@@ -0,0 +1,712 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.DTO.BatchFinalizeItemDto;
+import com.example.DocsSignatureAppBE.DTO.BatchFinalizeRequestDto;
+import com.example.DocsSignatureAppBE.DTO.BatchFinalizeResultDto;
+import com.example.DocsSignatureAppBE.DTO.DocumentDetailDto;
+import com.example.DocsSignatureAppBE.DTO.FinalizeJobDto;
+import com.example.DocsSignatureAppBE.DTO.SignaturePositionDto;
+import com.example.DocsSignatureAppBE.Entity.FileStatus;
+import com.example.DocsSignatureAppBE.Exception.ResourceNotFoundException;
+import com.example.DocsSignatureAppBE.Security.SigningAlgorithm;
+import com.example.DocsSignatureAppBE.Security.SigningKey;
+import com.example.DocsSignatureAppBE.Security.SigningKeyManager;
+import com.example.DocsSignatureAppBE.Util.SignatureCoordinateValidator;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the stamp-and-sign pipeline for finalize-signature requests,
+ * either on the calling thread or as a queued job on a bounded worker pool.
+ */
+@Service
+public class FinalizeSignatureService {
+
+    private final PdfSignatureService pdfSignatureService;
+    private final DocumentService documentService;
+    private final SigningKeyManager signingKeyManager;
+    private final SignatureCoordinateValidator coordinateValidator;
+    private final SigningBackend signingBackend;
+    private final ThreadPoolExecutor finalizeExecutor;
+    private final ForkJoinPool batchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final Map<String, FinalizeJob> jobs = new ConcurrentHashMap<>();
+    // Documents with a queued or running finalize job; a second submit for one of them is refused
+    private final Set<Long> documentsInFlight = ConcurrentHashMap.newKeySet();
+    // Signing is serialized per document so each signer appends to the previous signer's revision.
+    // Semaphores rather than locks: a deferred signature is released on the backend's thread.
+    // An entry lives only while some signer holds or waits for it.
+    private final Map<Long, DocumentLock> documentLocks = new ConcurrentHashMap<>();
+
+    @Value("${finalize.jobs.retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    @Value("${finalize.batch.max-size:500}")
+    private int maxBatchSize;
+
+    // "inline" signs on the finalize worker, "deferred" hands the digest to the signing backend
+    @Value("${finalize.signing.mode:inline}")
+    private String signingMode;
+
+    // How long a signer waits for the previous signer of the same document
+    @Value("${finalize.lock.timeout-seconds:120}")
+    private long lockTimeoutSeconds;
+
+    // How long a deferred signature may take before its revision is dropped and the document unlocked
+    @Value("${finalize.signing.timeout-seconds:60}")
+    private long signingTimeoutSeconds;
+
+    public FinalizeSignatureService(PdfSignatureService pdfSignatureService, DocumentService documentService,
+                                    SigningKeyManager signingKeyManager, SignatureCoordinateValidator coordinateValidator,
+                                    SigningBackend signingBackend,
+                                    @Value("${finalize.workers:4}") int workers,
+                                    @Value("${finalize.queue-capacity:100}") int queueCapacity) {
+        this.pdfSignatureService = pdfSignatureService;
+        this.documentService = documentService;
+        this.signingKeyManager = signingKeyManager;
+        this.coordinateValidator = coordinateValidator;
+        this.signingBackend = signingBackend;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.finalizeExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "finalize-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Decode the signature image sent by the frontend.
+     * Handles plain base64 and data URLs, either base64 or percent-encoded text
+     * such as {@code data:image/svg+xml;utf8,<svg ...>}
+     */
+    public byte[] decodeSignatureImage(String imageBase64) {
+        if (imageBase64 == null || imageBase64.isEmpty()) {
+            return null;
+        }
+        int comma = imageBase64.indexOf(',');
+        if (comma < 0) {
+            return Base64.getDecoder().decode(imageBase64.trim());
+        }
+        // The data itself may contain commas (SVG coordinates), the header never does
+        String header = imageBase64.substring(0, comma);
+        String data = imageBase64.substring(comma + 1);
+        if (header.toLowerCase(Locale.ROOT).endsWith(";base64")) {
+            return Base64.getMimeDecoder().decode(data);
+        }
+        return percentDecode(data);
+    }
+
+    /**
+     * Undo URL percent-encoding of data URL text; unlike form decoding, '+' stays a plus sign
+     */
+    private static byte[] percentDecode(String data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length());
+        int start = 0;
+        int percent;
+        while ((percent = data.indexOf('%', start)) >= 0) {
+            out.writeBytes(data.substring(start, percent).getBytes(StandardCharsets.UTF_8));
+            if (percent + 2 >= data.length()) {
+                throw new IllegalArgumentException("Invalid signature data URL: truncated escape");
+            }
+            int hi = Character.digit(data.charAt(percent + 1), 16);
+            int lo = Character.digit(data.charAt(percent + 2), 16);
+            if (hi < 0 || lo < 0) {
+                throw new IllegalArgumentException("Invalid signature data URL: bad escape at position " + percent);
+            }
+            out.write(hi << 4 | lo);
+            start = percent + 3;
+        }
+        out.writeBytes(data.substring(start).getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    /**
+     * Signature bytes for a finalize request: raw SVG markup when given (drawn as vector paths),
+     * otherwise the decoded base64 image, which may itself be an SVG data URL
+     */
+    public byte[] decodeSignature(String imageBase64, String svg) {
+        if (svg != null && !svg.isBlank()) {
+            return svg.getBytes(StandardCharsets.UTF_8);
+        }
+        return decodeSignatureImage(imageBase64);
+    }
+
+    /**
+     * Stamp and sign the document on the calling thread and mark it as signed
+     */
+    public File finalizeDocument(Long documentId, String inputPath, byte[] imageBytes,
+                                 List<SignaturePositionDto> positions) throws Exception {
+        validatePositions(documentId, positions);
+        return signRevision(documentId, inputPath, imageBytes, positions, signingKeyManager.getSigningKey(), currentUsername());
+    }
+
+    /**
+     * Check every position against the document's page geometry before any PDF work is done
+     */
+    public void validatePositions(Long documentId, List<SignaturePositionDto> positions) {
+        coordinateValidator.validatePositions(documentService.getPageGeometry(documentId), positions);
+    }
+
+    /**
+     * Append the signer's stamp and signature to the document's latest revision as an incremental
+     * update and record the result as the next revision. The original path only names the output.
+     */
+    private File signRevision(Long documentId, String originalPath, byte[] imageBytes, List<SignaturePositionDto> positions,
+                              SigningKey signingKey, String signedBy) throws Exception {
+        String signerName = signerName(signedBy);
+        DocumentLock lock = lockDocument(documentId);
+        try {
+            String inputPath = documentService.getCurrentRevisionPath(documentId);
+            String outputPath = pdfSignatureService.revisionOutputPath(documentId, originalPath,
+                    documentService.getNextRevisionNumber(documentId));
+            File signed = pdfSignatureService.stampAndSign(inputPath, outputPath, imageBytes, positions,
+                    signerName, "Approved", "Location", signingKey);
+            documentService.markDocumentAsSigned(documentId, signed.getAbsolutePath(), signerName);
+            return signed;
+        } finally {
+            unlockDocument(documentId, lock);
+        }
+    }
+
+    /**
+     * Wait a bounded time for the document's signing lock, so a stuck signer cannot hold up every
+     * worker that picks up a job for the same document
+     */
+    private DocumentLock lockDocument(Long documentId) throws InterruptedException {
+        // Registering as a user and acquiring are separate steps, so the entry cannot be pruned in between
+        DocumentLock lock = documentLocks.compute(documentId, (id, existing) -> {
+            DocumentLock entry = existing != null ? existing : new DocumentLock();
+            entry.users++;
+            return entry;
+        });
+        boolean acquired = false;
+        try {
+            acquired = lock.semaphore.tryAcquire(lockTimeoutSeconds, TimeUnit.SECONDS);
+        } finally {
+            if (!acquired) {
+                leaveDocumentLock(documentId);
+            }
+        }
+        if (!acquired) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Document " + documentId
+                    + " is still being signed by another request, please retry later");
+        }
+        return lock;
+    }
+
+    private void unlockDocument(Long documentId, DocumentLock lock) {
+        lock.semaphore.release();
+        leaveDocumentLock(documentId);
+    }
+
+    private void leaveDocumentLock(Long documentId) {
+        documentLocks.computeIfPresent(documentId, (id, entry) -> --entry.users == 0 ? null : entry);
+    }
+
+    private static String signerName(String signedBy) {
+        return signedBy == null || signedBy.isEmpty() ? "Signer" : signedBy;
+    }
+
+    /**
+     * Queue the stamp-and-sign work and return immediately with the job handle.
+     * The document moves to PROCESSING now and to SIGNED or REJECTED when the worker finishes.
+     */
+    public FinalizeJobDto submit(Long documentId, String inputPath, byte[] imageBytes,
+                                 List<SignaturePositionDto> positions) {
+        validatePositions(documentId, positions);
+        pruneFinishedJobs();
+
+        if (!documentsInFlight.add(documentId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Document " + documentId + " is already being finalized");
+        }
+        FinalizeJob job = new FinalizeJob(UUID.randomUUID().toString(), documentId, currentUsername());
+        FileStatus previousStatus;
+        try {
+            previousStatus = documentService.markDocumentAsProcessing(documentId);
+        } catch (RuntimeException e) {
+            documentsInFlight.remove(documentId);
+            throw e;
+        }
+        jobs.put(job.jobId, job);
+
+        try {
+            finalizeExecutor.execute(() -> runJob(job, inputPath, imageBytes, positions));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.jobId);
+            try {
+                documentService.restoreFileStatus(documentId, previousStatus);
+            } finally {
+                documentsInFlight.remove(documentId);
+            }
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Finalize queue is full, please retry later");
+        }
+
+        return job.toDto();
+    }
+
+    /**
+     * Resolve every batch entry on the request thread (access checks, image decoding), then claim
+     * each document and move it to PROCESSING as submit() does for a single one. Entries that cannot
+     * be resolved or claimed are kept with their error so they show up in the result stream.
+     */
+    public List<BatchEntry> prepareBatch(BatchFinalizeRequestDto request) {
+        if (request.getDocuments() == null || request.getDocuments().isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one document");
+        }
+        if (request.getDocuments().size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch exceeds maximum size of " + maxBatchSize + " documents");
+        }
+
+        byte[] sharedImage = decodeSignatureImage(request.getSignatureBase64());
+        String signedBy = currentUsername();
+        List<BatchEntry> entries = new ArrayList<>();
+        for (BatchFinalizeItemDto item : request.getDocuments()) {
+            try {
+                DocumentDetailDto doc = documentService.getDocumentById(item.getDocumentId());
+                validatePositions(item.getDocumentId(), item.getPositions());
+                byte[] imageBytes = item.getSignatureBase64() != null
+                        ? decodeSignatureImage(item.getSignatureBase64())
+                        : sharedImage;
+                FileStatus previousStatus = claimDocument(item.getDocumentId());
+                entries.add(new BatchEntry(item.getDocumentId(), doc.getFilePath(), imageBytes, item.getPositions(),
+                        signedBy, previousStatus, null));
+            } catch (RuntimeException e) {
+                entries.add(new BatchEntry(item.getDocumentId(), null, null, null, signedBy, null, e));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Claim a batch document and move it to PROCESSING, returning the status to restore.
+     * A document already being finalized, or listed twice in the batch, is rejected with 409.
+     */
+    private FileStatus claimDocument(Long documentId) {
+        if (!documentsInFlight.add(documentId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Document " + documentId + " is already being finalized");
+        }
+        try {
+            return documentService.markDocumentAsProcessing(documentId);
+        } catch (RuntimeException e) {
+            documentsInFlight.remove(documentId);
+            throw e;
+        }
+    }
+
+    /**
+     * Put claimed documents back the way prepareBatch found them when the batch cannot run
+     */
+    private void releaseBatch(List<BatchEntry> entries) {
+        for (BatchEntry entry : entries) {
+            if (entry.error != null) {
+                continue;
+            }
+            try {
+                documentService.restoreFileStatus(entry.documentId, entry.previousStatus);
+            } catch (Exception ignored) {
+                // Document may have been deleted since it was claimed
+            } finally {
+                documentsInFlight.remove(entry.documentId);
+            }
+        }
+    }
+
+    /**
+     * Stamp and sign all entries in parallel on a CPU-sized fork-join pool with a single
+     * signing key lookup. Results are handed to the listener as each document completes.
+     */
+    public void finalizeBatch(List<BatchEntry> entries, BatchResultListener listener) throws IOException {
+        SigningKey signingKey;
+        try {
+            signingKey = signingKeyManager.getSigningKey();
+        } catch (Exception e) {
+            releaseBatch(entries);
+            throw new IOException("Could not load signing key: " + e.getMessage(), e);
+        }
+
+        // Submit everything before reporting, so a client that goes away cannot leave documents claimed
+        ExecutorCompletionService<BatchFinalizeResultDto> completion = new ExecutorCompletionService<>(batchPool);
+        List<BatchFinalizeResultDto> unresolved = new ArrayList<>();
+        int submitted = 0;
+        for (BatchEntry entry : entries) {
+            if (entry.error != null) {
+                unresolved.add(failedResult(entry.documentId, entry.error, 0L));
+                continue;
+            }
+            completion.submit(() -> signBatchEntry(entry, signingKey));
+            submitted++;
+        }
+        for (BatchFinalizeResultDto result : unresolved) {
+            listener.onResult(result);
+        }
+
+        for (int i = 0; i < submitted; i++) {
+            try {
+                listener.onResult(completion.take().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Batch finalize interrupted", e);
+            } catch (ExecutionException e) {
+                // signBatchEntry never throws, failures are reported as results
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Get the current state of a job owned by the current user
+     */
+    public FinalizeJobDto getJob(String jobId) {
+        return findOwnedJob(jobId).toDto();
+    }
+
+    /**
+     * Subscribe to a job; the emitter receives one "status" event when the job finishes
+     */
+    public SseEmitter subscribe(String jobId) {
+        FinalizeJob job = findOwnedJob(jobId);
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(5));
+
+        synchronized (job) {
+            if (!job.isFinished()) {
+                job.emitters.add(emitter);
+                emitter.onCompletion(() -> job.emitters.remove(emitter));
+                emitter.onTimeout(() -> job.emitters.remove(emitter));
+                return emitter;
+            }
+        }
+
+        sendAndComplete(emitter, job.toDto());
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        finalizeExecutor.shutdown();
+        batchPool.shutdown();
+    }
+
+    private BatchFinalizeResultDto signBatchEntry(BatchEntry entry, SigningKey signingKey) {
+        long start = System.nanoTime();
+        try {
+            File signed = signRevision(entry.documentId, entry.inputPath, entry.imageBytes, entry.positions,
+                    signingKey, entry.signedBy);
+            return new BatchFinalizeResultDto(entry.documentId, "SIGNED", signed.getAbsolutePath(), null, elapsedMillis(start));
+        } catch (Exception e) {
+            try {
+                documentService.markDocumentAsRejected(entry.documentId);
+            } catch (Exception ignored) {
+                // Document may have been deleted while the batch was running
+            }
+            return failedResult(entry.documentId, e, elapsedMillis(start));
+        } finally {
+            documentsInFlight.remove(entry.documentId);
+        }
+    }
+
+    /**
+     * A FAILED result carrying the status ApiExceptionHandler would give the same error
+     */
+    private static BatchFinalizeResultDto failedResult(Long documentId, Exception error, long durationMs) {
+        String message = error.getMessage();
+        HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+        if (error instanceof ResponseStatusException) {
+            ResponseStatusException statusException = (ResponseStatusException) error;
+            message = statusException.getReason();
+            status = HttpStatus.valueOf(statusException.getStatusCode().value());
+        } else if (error instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (error instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+        }
+        BatchFinalizeResultDto result = new BatchFinalizeResultDto(documentId, "FAILED", null, message, durationMs);
+        result.setErrorStatus(status.value());
+        return result;
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void runJob(FinalizeJob job, String inputPath, byte[] imageBytes, List<SignaturePositionDto> positions) {
+        job.status = "RUNNING";
+        if ("deferred".equalsIgnoreCase(signingMode)) {
+            runDeferredJob(job, inputPath, imageBytes, positions);
+            return;
+        }
+        try {
+            File signed = signRevision(job.documentId, inputPath, imageBytes, positions,
+                    signingKeyManager.getSigningKey(), job.requestedBy);
+            finishJob(job, signed, null);
+        } catch (Exception e) {
+            finishJob(job, null, e);
+        }
+    }
+
+    /**
+     * Two-phase variant of a job: the worker stamps the document and writes the revision with an
+     * empty signature placeholder, closes it and goes back to the pool. The backend signs the digest
+     * on its own threads and the CMS is written into the placeholder when it arrives. Other signers
+     * of the same document wait for that, but no thread or PDDocument is held in between.
+     */
+    private void runDeferredJob(FinalizeJob job, String originalPath, byte[] imageBytes, List<SignaturePositionDto> positions) {
+        String signerName = signerName(job.requestedBy);
+        DocumentLock lock;
+        try {
+            lock = lockDocument(job.documentId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finishJob(job, null, e);
+            return;
+        } catch (RuntimeException e) {
+            finishJob(job, null, e);
+            return;
+        }
+
+        CompletableFuture<File> signing;
+        try {
+            String inputPath = documentService.getCurrentRevisionPath(job.documentId);
+            String outputPath = pdfSignatureService.revisionOutputPath(job.documentId, originalPath,
+                    documentService.getNextRevisionNumber(job.documentId));
+            signing = signDeferred(job, inputPath, outputPath, imageBytes, positions, signerName, signingBackend.getContainerSize())
+                    .exceptionallyCompose(error -> {
+                        int retrySize = pdfSignatureService.retryContainerSize(error);
+                        if (retrySize == 0) {
+                            return CompletableFuture.failedFuture(error);
+                        }
+                        // The backend's CMS did not fit the estimate: one retry at the exact size, like inline
+                        // signing. The PDF work goes back to a finalize worker, off the backend's thread.
+                        return CompletableFuture.supplyAsync(() -> signDeferred(job, inputPath, outputPath, imageBytes,
+                                positions, signerName, retrySize), finalizeExecutor).thenCompose(retry -> retry);
+                    });
+        } catch (Exception e) {
+            unlockDocument(job.documentId, lock);
+            finishJob(job, null, e);
+            return;
+        }
+
+        signing.whenComplete((signed, error) -> {
+            Throwable failure = unwrap(error);
+            try {
+                if (failure == null) {
+                    documentService.markDocumentAsSigned(job.documentId, signed.getAbsolutePath(), signerName);
+                }
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                unlockDocument(job.documentId, lock);
+            }
+            finishJob(job, failure == null ? signed : null, failure);
+        });
+    }
+
+    /**
+     * Write the revision with a placeholder of the given size and hand its digest to the backend.
+     * The CMS is written in when it arrives; the revision is dropped if it fails or does not
+     * arrive within the signing timeout.
+     */
+    private CompletableFuture<File> signDeferred(FinalizeJob job, String inputPath, String outputPath, byte[] imageBytes,
+                                                 List<SignaturePositionDto> positions, String signerName, int containerSize) {
+        PdfSignatureService.PreparedSignature prepared;
+        try {
+            SigningAlgorithm algorithm = signingBackend.getAlgorithm();
+            prepared = pdfSignatureService.prepareSignature(inputPath, outputPath, imageBytes, positions,
+                    signerName, "Approved", "Location", algorithm, containerSize);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        job.status = "SIGNING";
+        return signingBackend.sign(prepared.getDigest(), prepared.getAlgorithm())
+                .orTimeout(signingTimeoutSeconds, TimeUnit.SECONDS)
+                .thenApply(cms -> {
+                    try {
+                        return pdfSignatureService.completeSignature(prepared, cms);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                })
+                .whenComplete((signed, error) -> {
+                    if (error != null) {
+                        try {
+                            pdfSignatureService.discardSignature(prepared);
+                        } catch (IOException ignored) {
+                            // Left in the temp area; the signing error is the one to report
+                        }
+                    }
+                });
+    }
+
+    private Throwable unwrap(Throwable error) {
+        Throwable failure = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (failure instanceof TimeoutException) {
+            return new IOException("Signing backend did not return a signature within " + signingTimeoutSeconds + " seconds", failure);
+        }
+        return failure;
+    }
+
+    private void finishJob(FinalizeJob job, File signed, Throwable failure) {
+        if (failure == null) {
+            job.signedFilePath = signed.getAbsolutePath();
+            job.fileStatus = FileStatus.SIGNED;
+            job.status = "SUCCEEDED";
+        } else {
+            job.errorMessage = failure.getMessage();
+            job.fileStatus = FileStatus.REJECTED;
+            job.status = "FAILED";
+            try {
+                documentService.markDocumentAsRejected(job.documentId);
+            } catch (Exception ignored) {
+                // Document may have been deleted while the job was running
+            }
+        }
+        documentsInFlight.remove(job.documentId);
+
+        List<SseEmitter> emitters;
+        synchronized (job) {
+            job.completedAt = LocalDateTime.now();
+            emitters = List.copyOf(job.emitters);
+            job.emitters.clear();
+        }
+        FinalizeJobDto dto = job.toDto();
+        for (SseEmitter emitter : emitters) {
+            sendAndComplete(emitter, dto);
+        }
+    }
+
+    private void sendAndComplete(SseEmitter emitter, FinalizeJobDto dto) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(dto));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private FinalizeJob findOwnedJob(String jobId) {
+        FinalizeJob job = jobs.get(jobId);
+        if (job == null || !job.requestedBy.equals(currentUsername())) {
+            throw new ResourceNotFoundException("Finalize job not found with ID: " + jobId);
+        }
+        return job;
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    /**
+     * Receives batch results in completion order
+     */
+    public interface BatchResultListener {
+        void onResult(BatchFinalizeResultDto result) throws IOException;
+    }
+
+    /**
+     * A batch document resolved on the request thread, or the reason it could not be
+     */
+    public static class BatchEntry {
+        private final Long documentId;
+        private final String inputPath;
+        private final byte[] imageBytes;
+        private final List<SignaturePositionDto> positions;
+        private final String signedBy;
+        private final FileStatus previousStatus;
+        private final RuntimeException error;
+
+        BatchEntry(Long documentId, String inputPath, byte[] imageBytes, List<SignaturePositionDto> positions,
+                   String signedBy, FileStatus previousStatus, RuntimeException error) {
+            this.documentId = documentId;
+            this.inputPath = inputPath;
+            this.imageBytes = imageBytes;
+            this.positions = positions;
+            this.signedBy = signedBy;
+            this.previousStatus = previousStatus;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Signing lock of one document and the number of signers holding or waiting for it.
+     * The count is only changed inside the map's compute calls.
+     */
+    private static class DocumentLock {
+        private final Semaphore semaphore = new Semaphore(1);
+        private int users;
+    }
+
+    /**
+     * In-memory state of a single finalize job
+     */
+    private static class FinalizeJob {
+        private final String jobId;
+        private final Long documentId;
+        private final String requestedBy;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        private volatile String status = "QUEUED";
+        private volatile FileStatus fileStatus = FileStatus.PROCESSING;
+        private volatile String signedFilePath;
+        private volatile String errorMessage;
+        private volatile LocalDateTime completedAt;
+
+        FinalizeJob(String jobId, Long documentId, String requestedBy) {
+            this.jobId = jobId;
+            this.documentId = documentId;
+            this.requestedBy = requestedBy;
+        }
+
+        boolean isFinished() {
+            return completedAt != null;
+        }
+
+        FinalizeJobDto toDto() {
+            return new FinalizeJobDto(jobId, documentId, status, fileStatus.toString(), signedFilePath,
+                    errorMessage, createdAt, completedAt);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.Security.SigningAlgorithm;
+import com.example.DocsSignatureAppBE.Security.SigningKey;
+import com.example.DocsSignatureAppBE.Security.SigningKeyManager;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Software signing backend using the keystore key on a small thread pool of its own. Stands in for
+ * an HSM or remote signer, so deferred signing works and can be tested without one.
+ */
+@Component
+public class LocalSigningBackend implements SigningBackend {
+
+    private final SigningKeyManager signingKeyManager;
+    private final PdfSignatureService pdfSignatureService;
+    private final MerkleBatchSigner merkleBatchSigner;
+    private final ExecutorService executor;
+
+    public LocalSigningBackend(SigningKeyManager signingKeyManager, PdfSignatureService pdfSignatureService,
+                               MerkleBatchSigner merkleBatchSigner,
+                               @Value("${signing.backend.workers:2}") int workers) {
+        this.signingKeyManager = signingKeyManager;
+        this.pdfSignatureService = pdfSignatureService;
+        this.merkleBatchSigner = merkleBatchSigner;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "signing-backend-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public SigningAlgorithm getAlgorithm() throws Exception {
+        return signingKeyManager.getSigningKey().getAlgorithm();
+    }
+
+    @Override
+    public int getContainerSize() throws Exception {
+        return pdfSignatureService.containerSizeFor(signingKeyManager.getSigningKey());
+    }
+
+    @Override
+    public CompletableFuture<byte[]> sign(byte[] digest, SigningAlgorithm algorithm) {
+        if (merkleBatchSigner.isEnabled()) {
+            // The digest joins the open batch without holding a backend thread while the window is open
+            try {
+                return merkleBatchSigner.submit(signingKeyFor(algorithm), digest);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(new SignatureInterfaceImpl(signingKeyFor(algorithm)).signDigest(digest));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private SigningKey signingKeyFor(SigningAlgorithm algorithm) throws Exception {
+        SigningKey signingKey = signingKeyManager.getSigningKey();
+        if (signingKey.getAlgorithm() != algorithm) {
+            // The digest was computed for the old key's algorithm
+            throw new IllegalStateException("Signing key changed from " + algorithm + " to "
+                    + signingKey.getAlgorithm() + " while the document was being prepared");
+        }
+        return signingKey;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
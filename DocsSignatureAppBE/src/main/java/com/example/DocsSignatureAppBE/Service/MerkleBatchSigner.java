@@ -0,0 +1,201 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.Security.SigningKey;
+import com.example.DocsSignatureAppBE.Util.MerkleTree;
+import jakarta.annotation.PreDestroy;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.SignerInformationStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in batch signing: document digests arriving within a short window become the leaves of a
+ * Merkle tree and only the root is signed, so N documents cost one private-key operation.
+ * Every document gets the same signed attributes (messageDigest = root) plus its own inclusion
+ * proof as an unsigned attribute. Generic PDF readers report such signatures as not matching the
+ * document; {@link SignatureVerificationService} checks them through the proof.
+ */
+@Component
+public class MerkleBatchSigner {
+
+    @Value("${signing.merkle.enabled:false}")
+    private boolean enabled;
+
+    @Value("${signing.merkle.window-millis:50}")
+    private long windowMillis;
+
+    @Value("${signing.merkle.max-leaves:256}")
+    private int maxLeaves;
+
+    @Value("${signing.merkle.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    // One thread both closes windows and signs roots; a root signature is a single RSA operation
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "merkle-signer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private Batch open;
+
+    private final AtomicLong batchesSigned = new AtomicLong();
+    private final AtomicLong documentsSigned = new AtomicLong();
+    private final AtomicLong batchFailures = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Extra bytes the inclusion proof adds to the CMS container at the configured batch size
+     */
+    public int proofReserveBytes() {
+        int depth = 32 - Integer.numberOfLeadingZeros(Math.max(1, maxLeaves - 1));
+        // Attribute OID and wrappers, two integers, then one 34-byte octet string per tree level
+        return 64 + depth * 34;
+    }
+
+    /**
+     * Join the current batch with this document digest and block until the batch root is signed.
+     * Returns the encoded CMS carrying this document's inclusion proof.
+     */
+    byte[] sign(SigningKey signingKey, byte[] digest) throws IOException {
+        CompletableFuture<byte[]> result = submit(signingKey, digest);
+        try {
+            return result.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for batch signature", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Batch signing failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Batch signature not ready after " + timeoutSeconds + " seconds", e);
+        }
+    }
+
+    /**
+     * Join the current batch with this document digest without waiting. The future completes with
+     * the encoded CMS once the window closes and the root is signed; callers apply their own timeout.
+     */
+    CompletableFuture<byte[]> submit(SigningKey signingKey, byte[] digest) {
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        Batch sealed = null;
+        synchronized (lock) {
+            if (open != null && open.signingKey != signingKey) {
+                // Key was reloaded mid-window; the old batch is signed with the key it was started with
+                sealed = seal(open);
+            }
+            if (open == null) {
+                Batch batch = new Batch(signingKey);
+                open = batch;
+                scheduler.schedule(() -> closeWindow(batch), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            open.digests.add(digest);
+            open.results.add(result);
+            if (open.digests.size() >= maxLeaves) {
+                Batch full = seal(open);
+                scheduler.execute(() -> signBatch(full));
+            }
+        }
+        if (sealed != null) {
+            Batch previous = sealed;
+            scheduler.execute(() -> signBatch(previous));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long batches = batchesSigned.get();
+        long documents = documentsSigned.get();
+        stats.put("enabled", enabled);
+        stats.put("batchesSigned", batches);
+        stats.put("documentsSigned", documents);
+        stats.put("batchFailures", batchFailures.get());
+        stats.put("largestBatch", largestBatch.get());
+        stats.put("averageBatchSize", batches == 0 ? 0.0 : (double) documents / batches);
+        stats.put("privateKeyOperationsSaved", documents - batches);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private Batch seal(Batch batch) {
+        batch.sealed = true;
+        if (open == batch) {
+            open = null;
+        }
+        return batch;
+    }
+
+    private void closeWindow(Batch batch) {
+        synchronized (lock) {
+            if (batch.sealed) {
+                // Already handed off when it filled up or the key changed
+                return;
+            }
+            seal(batch);
+        }
+        signBatch(batch);
+    }
+
+    private void signBatch(Batch batch) {
+        try {
+            MerkleTree tree = new MerkleTree(batch.digests);
+            CMSSignedData rootSignature = new CMSSignedData(new SignatureInterfaceImpl(batch.signingKey).signDigest(tree.getRoot()));
+            SignerInformation signer = rootSignature.getSignerInfos().getSigners().iterator().next();
+
+            for (int i = 0; i < tree.size(); i++) {
+                SignerInformation withProof = SignerInformation.replaceUnsignedAttributes(signer,
+                        new AttributeTable(tree.proof(i).toAttribute()));
+                byte[] cms = CMSSignedData.replaceSigners(rootSignature, new SignerInformationStore(withProof)).getEncoded();
+                batch.results.get(i).complete(cms);
+            }
+
+            batchesSigned.incrementAndGet();
+            documentsSigned.addAndGet(tree.size());
+            largestBatch.accumulateAndGet(tree.size(), Math::max);
+        } catch (Exception e) {
+            batchFailures.incrementAndGet();
+            for (CompletableFuture<byte[]> result : batch.results) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Digests collected in one window, with the futures of the threads waiting on them
+     */
+    private static class Batch {
+        private final SigningKey signingKey;
+        private final List<byte[]> digests = new ArrayList<>();
+        private final List<CompletableFuture<byte[]>> results = new ArrayList<>();
+        private boolean sealed;
+
+        Batch(SigningKey signingKey) {
+            this.signingKey = signingKey;
+        }
+    }
+}
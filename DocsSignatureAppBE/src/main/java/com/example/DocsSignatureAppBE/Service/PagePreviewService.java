@@ -0,0 +1,359 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.DTO.PagePreviewDto;
+import com.example.DocsSignatureAppBE.Util.PageGeometry;
+import com.example.DocsSignatureAppBE.Util.PdfUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Renders PDF pages to PNG on the server so the frontend does not need the whole file to show a page.
+ * Rendered pages and thumbnails are kept in an on-disk LRU cache keyed by document checksum,
+ * page and DPI, so re-uploads of the same file and repeat views never render twice.
+ */
+@Service
+public class PagePreviewService {
+
+    private static final String PAGE_PREFIX = "page-";
+    private static final String THUMBNAIL_PREFIX = "thumb-";
+    private static final int MIN_DPI = 18;
+
+    private final DocumentService documentService;
+    private final PdfUtils pdfUtils;
+    private final Path cacheDir;
+    private final long maxCacheBytes;
+    private final int maxDpi;
+    private final int thumbnailDpi;
+    private final int workers;
+    private final ExecutorService renderExecutor;
+
+    // Access-ordered index of cached files and their sizes; the eldest entry is evicted first
+    private final LinkedHashMap<Path, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long cacheBytes;
+
+    // Renders in progress, so concurrent requests for the same page wait instead of rendering twice
+    private final Map<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public PagePreviewService(DocumentService documentService, PdfUtils pdfUtils,
+                              @Value("${preview.cache.dir:./preview-cache}") String cacheDir,
+                              @Value("${preview.cache.max-bytes:536870912}") long maxCacheBytes,
+                              @Value("${preview.max-dpi:300}") int maxDpi,
+                              @Value("${preview.thumbnail-dpi:36}") int thumbnailDpi,
+                              @Value("${preview.workers:0}") int workers) {
+        this.documentService = documentService;
+        this.pdfUtils = pdfUtils;
+        this.cacheDir = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.maxCacheBytes = maxCacheBytes;
+        this.maxDpi = maxDpi;
+        this.thumbnailDpi = thumbnailDpi;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.renderExecutor = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "preview-render-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Rebuild the LRU index from files left by a previous run, oldest first
+     */
+    @PostConstruct
+    public void loadIndex() throws IOException {
+        Files.createDirectories(cacheDir);
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(cacheDir)) {
+            files = walk.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(".png"))
+                    .collect(Collectors.toList());
+        }
+        files.sort(Comparator.comparingLong(this::lastModified));
+        for (Path file : files) {
+            record(file, Files.size(file));
+        }
+    }
+
+    /**
+     * Render one page at the requested DPI, or return the cached rendering
+     */
+    public Path renderPage(Long documentId, String filePath, int pageNumber, int dpi) throws IOException {
+        if (dpi < MIN_DPI || dpi > maxDpi) {
+            throw new IllegalArgumentException("DPI must be between " + MIN_DPI + " and " + maxDpi);
+        }
+        checkPageNumber(documentId, pageNumber);
+
+        Path target = entryPath(documentService.getChecksum(documentId), PAGE_PREFIX, pageNumber, dpi);
+        return getOrRender(target, () -> {
+            try (PDDocument document = pdfUtils.load(filePath)) {
+                renderTo(new PDFRenderer(document), pageNumber - 1, dpi, target);
+            }
+        });
+    }
+
+    /**
+     * Render the thumbnail of one page, or return the cached one
+     */
+    public Path renderThumbnail(Long documentId, String filePath, int pageNumber) throws IOException {
+        checkPageNumber(documentId, pageNumber);
+
+        Path target = entryPath(documentService.getChecksum(documentId), THUMBNAIL_PREFIX, pageNumber, thumbnailDpi);
+        return getOrRender(target, () -> {
+            try (PDDocument document = pdfUtils.load(filePath)) {
+                renderTo(new PDFRenderer(document), pageNumber - 1, thumbnailDpi, target);
+            }
+        });
+    }
+
+    /**
+     * Make sure thumbnails exist for every page. Missing pages are split across the render
+     * workers and each worker loads its own PDDocument, since a document must not be shared
+     * between rendering threads.
+     */
+    public List<PagePreviewDto> renderThumbnails(Long documentId, String filePath) throws IOException {
+        List<PageGeometry> pages = documentService.getPageGeometry(documentId);
+        String checksum = documentService.getChecksum(documentId);
+
+        List<Integer> missing = new ArrayList<>();
+        for (int pageNumber = 1; pageNumber <= pages.size(); pageNumber++) {
+            if (lookup(entryPath(checksum, THUMBNAIL_PREFIX, pageNumber, thumbnailDpi)) == null) {
+                missing.add(pageNumber);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            int slices = Math.min(workers, missing.size());
+            List<Callable<Void>> tasks = new ArrayList<>(slices);
+            for (int slice = 0; slice < slices; slice++) {
+                List<Integer> slicePages = new ArrayList<>();
+                // Interleave pages so every worker gets a similar mix of early and late pages
+                for (int i = slice; i < missing.size(); i += slices) {
+                    slicePages.add(missing.get(i));
+                }
+                tasks.add(() -> {
+                    try (PDDocument document = pdfUtils.load(filePath)) {
+                        PDFRenderer renderer = new PDFRenderer(document);
+                        for (int pageNumber : slicePages) {
+                            Path target = entryPath(checksum, THUMBNAIL_PREFIX, pageNumber, thumbnailDpi);
+                            getOrRender(target, () -> renderTo(renderer, pageNumber - 1, thumbnailDpi, target));
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            try {
+                for (Future<Void> future : renderExecutor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Thumbnail rendering interrupted", e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        List<PagePreviewDto> thumbnails = new ArrayList<>(pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            thumbnails.add(toDto(documentId, i + 1, pages.get(i), thumbnailDpi));
+        }
+        return thumbnails;
+    }
+
+    /**
+     * Cache size and entry count
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (index) {
+            stats.put("entries", index.size());
+            stats.put("bytes", cacheBytes);
+        }
+        stats.put("maxBytes", maxCacheBytes);
+        stats.put("rendersInFlight", inFlight.size());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdown();
+    }
+
+    private PagePreviewDto toDto(Long documentId, int pageNumber, PageGeometry page, int dpi) {
+        // Same pixel size PDFRenderer produces for the CropBox at this scale
+        float scale = dpi / 72f;
+        int width = (int) Math.max(Math.floor(page.getDisplayWidth() * scale), 1);
+        int height = (int) Math.max(Math.floor(page.getDisplayHeight() * scale), 1);
+        String url = "/api/documents/" + documentId + "/pages/" + pageNumber + "/thumbnail";
+        return new PagePreviewDto(pageNumber, dpi, width, height, url);
+    }
+
+    private void checkPageNumber(Long documentId, int pageNumber) {
+        int pageCount = documentService.getPageGeometry(documentId).size();
+        if (pageNumber < 1 || (pageCount > 0 && pageNumber > pageCount)) {
+            throw new IllegalArgumentException("Page " + pageNumber + " does not exist. Document has " + pageCount + " pages");
+        }
+    }
+
+    private Path entryPath(String checksum, String prefix, int pageNumber, int dpi) {
+        return cacheDir.resolve(checksum.substring(0, 2)).resolve(checksum)
+                .resolve(prefix + pageNumber + "-" + dpi + ".png");
+    }
+
+    private Path getOrRender(Path target, Renderer renderer) throws IOException {
+        Path cached = lookup(target);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Path> render = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(target, render);
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Page rendering interrupted", e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        try {
+            // Another request may have finished this page between the lookup and claiming it
+            if (lookup(target) == null) {
+                renderer.render();
+            }
+            render.complete(target);
+            return target;
+        } catch (IOException | RuntimeException e) {
+            render.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(target, render);
+        }
+    }
+
+    private void renderTo(PDFRenderer renderer, int pageIndex, int dpi, Path target) throws IOException {
+        BufferedImage image = renderer.renderImageWithDPI(pageIndex, dpi, ImageType.RGB);
+
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "render-", ".tmp");
+        try {
+            if (!ImageIO.write(image, "png", tmp.toFile())) {
+                throw new IOException("No PNG writer available");
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        record(target, Files.size(target));
+    }
+
+    private Path lookup(Path target) {
+        synchronized (index) {
+            if (index.get(target) == null) {
+                return null;
+            }
+        }
+        if (!Files.isRegularFile(target)) {
+            forget(target);
+            return null;
+        }
+        try {
+            // Keeps LRU order roughly intact across restarts
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+        }
+        return target;
+    }
+
+    private void record(Path file, long size) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (index) {
+            Long previous = index.put(file, size);
+            cacheBytes += size - (previous != null ? previous : 0L);
+
+            Iterator<Map.Entry<Path, Long>> it = index.entrySet().iterator();
+            while (cacheBytes > maxCacheBytes && it.hasNext()) {
+                Map.Entry<Path, Long> eldest = it.next();
+                if (eldest.getKey().equals(file)) {
+                    continue;
+                }
+                cacheBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (Path path : evicted) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // A file that cannot be deleted now is picked up again by the next startup scan
+            }
+        }
+    }
+
+    private void forget(Path file) {
+        synchronized (index) {
+            Long size = index.remove(file);
+            if (size != null) {
+                cacheBytes -= size;
+            }
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new IOException("Page rendering failed", cause);
+    }
+
+    @FunctionalInterface
+    private interface Renderer {
+        void render() throws IOException;
+    }
+}
@@ -1,99 +1,102 @@
 package com.example.DocsSignatureAppBE.Service;
 
+import com.example.DocsSignatureAppBE.DTO.SignaturePositionDto;
+import com.example.DocsSignatureAppBE.Security.SigningAlgorithm;
+import com.example.DocsSignatureAppBE.Security.SigningKey;
+import com.example.DocsSignatureAppBE.Security.SigningKeyManager;
+import com.example.DocsSignatureAppBE.Storage.BlobStore;
+import com.example.DocsSignatureAppBE.Util.PageGeometry;
+import com.example.DocsSignatureAppBE.Util.PdfCoordinateTransformer;
+import com.example.DocsSignatureAppBE.Util.PdfOutputOptimizer;
 import com.example.DocsSignatureAppBE.Util.PdfUtils;
-import org.apache.pdfbox.Loader;
+import com.example.DocsSignatureAppBE.Util.SvgSignature;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.ExternalSigningSupport;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
-import org.bouncycastle.cms.CMSProcessableByteArray;
-import org.bouncycastle.cms.CMSSignedData;
-import org.bouncycastle.cms.CMSSignedDataGenerator;
-import org.bouncycastle.cms.CMSTypedData;
-import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.apache.pdfbox.util.Hex;
+import org.apache.pdfbox.util.Matrix;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.DigestCalculatorProvider;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.security.KeyStore;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
-import java.security.PrivateKey;
 import java.security.Security;
-import java.security.cert.Certificate;
-import java.security.cert.X509Certificate;
-import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class PdfSignatureService {
 
     private final PdfUtils pdfUtils;
-
-    @Value("${signature.keystore.path:keystore.p12}")
-    private String keystorePath;
-
-    @Value("${signature.keystore.password:changeit}")
-    private String keystorePassword;
-
-    @Value("${signature.key.alias:mykey}")
-    private String keyAlias;
+    private final SigningKeyManager signingKeyManager;
+    private final PdfCoordinateTransformer coordinateTransformer;
+    private final SignatureImageCache signatureImageCache;
+    private final PdfOutputOptimizer outputOptimizer;
+    private final MerkleBatchSigner merkleBatchSigner;
+    private final BlobStore blobStore;
 
     @Value("${signature.output.dir:./signed-uploads}")
     private String outputDir;
 
-    public PdfSignatureService(PdfUtils pdfUtils) {
+    // Headroom on top of the measured CMS size (signing time, ECDSA length jitter)
+    @Value("${signature.container.slack-bytes:256}")
+    private int containerSlackBytes;
+
+    // Space kept for an RFC 3161 timestamp token when one is embedded as an unsigned attribute
+    @Value("${signature.container.timestamp-reserve-bytes:0}")
+    private int timestampReserveBytes;
+
+    public PdfSignatureService(PdfUtils pdfUtils, SigningKeyManager signingKeyManager,
+                               PdfCoordinateTransformer coordinateTransformer,
+                               SignatureImageCache signatureImageCache, PdfOutputOptimizer outputOptimizer,
+                               MerkleBatchSigner merkleBatchSigner, BlobStore blobStore) {
         this.pdfUtils = pdfUtils;
+        this.signingKeyManager = signingKeyManager;
+        this.coordinateTransformer = coordinateTransformer;
+        this.signatureImageCache = signatureImageCache;
+        this.outputOptimizer = outputOptimizer;
+        this.merkleBatchSigner = merkleBatchSigner;
+        this.blobStore = blobStore;
         Security.addProvider(new BouncyCastleProvider());
     }
 
     /**
      * Embed multiple images at percentage coordinates on the pages and save as a new PDF
      */
-    public File embedImages(String inputPdfPath, String imagePath, java.util.List<com.example.DocsSignatureAppBE.DTO.SignaturePositionDto> positions) throws IOException {
-        if (imagePath == null || imagePath.isEmpty() || !new File(imagePath).exists() || positions == null || positions.isEmpty()) {
+    public File embedImages(String inputPdfPath, String imagePath, List<SignaturePositionDto> positions) throws IOException {
+        if (imagePath == null || imagePath.isEmpty() || !Files.exists(blobStore.fetch(imagePath)) || positions == null || positions.isEmpty()) {
             return new File(inputPdfPath);
         }
 
         PDDocument document = pdfUtils.load(inputPdfPath);
         try {
-            PDImageXObject pdImage = PDImageXObject.createFromFile(imagePath, document);
+            Stamp stamp = createStamp(document, Files.readAllBytes(blobStore.fetch(imagePath)), positions);
 
-            for (com.example.DocsSignatureAppBE.DTO.SignaturePositionDto pos : positions) {
-                int pageIndex = Math.max(0, pos.getPageNumber() - 1);
-                // Ensure page index is valid
-                if (pageIndex >= document.getNumberOfPages()) continue;
-
-                PDPage page = document.getPage(pageIndex);
-                PDRectangle media = page.getMediaBox();
-
-                float x = (pos.getXPercent() / 100f) * media.getWidth();
-                // PDFBox origin is Bottom-Left, but Frontend origin is Top-Left. Invert Y.
-                float y = media.getHeight() - ((pos.getYPercent() / 100f) * media.getHeight()) - pos.getHeight();
-
-                try (PDPageContentStream contentStream = new PDPageContentStream(document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
-                    contentStream.drawImage(pdImage, x, y, pos.getWidth(), pos.getHeight());
-                }
-            }
+            stampPositions(document, stamp, positions);
 
-            pdfUtils.ensureDirectory(outputDir);
-            String outPath = Paths.get(outputDir, "stamped_" + Paths.get(inputPdfPath).getFileName()).toString();
-            document.save(outPath);
-            return new File(outPath);
+            return saveStamped(document, inputPdfPath);
         } finally {
             document.close();
         }
@@ -103,34 +106,201 @@ public class PdfSignatureService {
      * Embed an image at percentage coordinates on the page and save as a new PDF
      */
     public File embedImage(String inputPdfPath, String imagePath, int pageNumber, float xPercent, float yPercent, float widthPx, float heightPx) throws IOException {
-        if (imagePath == null || imagePath.isEmpty() || !new File(imagePath).exists()) {
+        if (imagePath == null || imagePath.isEmpty() || !Files.exists(blobStore.fetch(imagePath))) {
             // Skip stamping if image doesn't exist; just return the original file to be signed
             return new File(inputPdfPath);
         }
 
         PDDocument document = pdfUtils.load(inputPdfPath);
         try {
-            int pageIndex = Math.max(0, pageNumber - 1);
-            PDPage page = document.getPage(pageIndex);
+            SignaturePositionDto pos = new SignaturePositionDto();
+            pos.setPageNumber(pageNumber);
+            pos.setXPercent(xPercent);
+            pos.setYPercent(yPercent);
+            pos.setWidth(widthPx);
+            pos.setHeight(heightPx);
+            List<SignaturePositionDto> positions = List.of(pos);
 
-            PDImageXObject pdImage = PDImageXObject.createFromFile(imagePath, document);
-            PDRectangle media = page.getMediaBox();
+            Stamp stamp = createStamp(document, Files.readAllBytes(blobStore.fetch(imagePath)), positions);
+            stampPositions(document, stamp, positions);
 
-            float x = (xPercent / 100f) * media.getWidth();
-            // PDFBox origin is Bottom-Left, but Frontend origin is Top-Left. Invert Y.
-            float y = media.getHeight() - ((yPercent / 100f) * media.getHeight()) - heightPx;
+            return saveStamped(document, inputPdfPath);
+        } finally {
+            document.close();
+        }
+    }
 
-            try (PDPageContentStream contentStream = new PDPageContentStream(document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
-                contentStream.drawImage(pdImage, x, y, widthPx, heightPx);
+    /**
+     * Stamp the signature image at every position and apply the CMS signature in a single
+     * PDDocument session, writing exactly one signed output file.
+     */
+    public File stampAndSign(String inputPdfPath, byte[] imageBytes, List<SignaturePositionDto> positions,
+                             String signerName, String reason, String location) throws Exception {
+        return stampAndSign(inputPdfPath, imageBytes, positions, signerName, reason, location, signingKeyManager.getSigningKey());
+    }
+
+    /**
+     * Same as {@link #stampAndSign(String, byte[], List, String, String, String)} with an already
+     * resolved signing key, so batch callers can use one key for every document.
+     */
+    public File stampAndSign(String inputPdfPath, byte[] imageBytes, List<SignaturePositionDto> positions,
+                             String signerName, String reason, String location, SigningKey signingKey) throws Exception {
+        String signedPath = blobStore.locate(outputDir, "signed_" + Paths.get(inputPdfPath).getFileName()).toString();
+        return stampAndSign(inputPdfPath, signedPath, imageBytes, positions, signerName, reason, location, signingKey);
+    }
+
+    /**
+     * Stamp and sign on top of the given input, which may already carry signatures, and write
+     * the result to the given output path. The input file itself is never modified.
+     */
+    public File stampAndSign(String inputPdfPath, String outputPdfPath, byte[] imageBytes, List<SignaturePositionDto> positions,
+                             String signerName, String reason, String location, SigningKey signingKey) throws Exception {
+        try {
+            return stampAndSign(inputPdfPath, outputPdfPath, imageBytes, positions, signerName, reason, location,
+                    signingKey, containerSizeFor(signingKey));
+        } catch (Exception e) {
+            int requiredSize = requiredContainerSize(e);
+            if (requiredSize == 0) {
+                throw e;
             }
+            // The estimate was off (e.g. a larger chain after a key reload): one retry at the exact size
+            signingKey.setSignatureContainerSize(requiredSize);
+            return stampAndSign(inputPdfPath, outputPdfPath, imageBytes, positions, signerName, reason, location,
+                    signingKey, requiredSize + timestampReserveBytes);
+        }
+    }
+
+    /**
+     * Output path for the given signed revision of a document. Uploads are stored by content hash,
+     * so the document ID keeps revisions of documents with identical originals apart.
+     */
+    public String revisionOutputPath(Long documentId, String originalPdfPath, int revisionNumber) throws IOException {
+        String name = Paths.get(originalPdfPath).getFileName().toString();
+        // Content-addressed originals have no extension; signed files keep .pdf
+        if (!name.toLowerCase().endsWith(".pdf")) {
+            name += ".pdf";
+        }
+        return blobStore.locate(outputDir, "signed_" + documentId + "_r" + revisionNumber + "_" + name).toString();
+    }
 
-            pdfUtils.ensureDirectory(outputDir);
-            String outPath = Paths.get(outputDir, "stamped_" + Paths.get(inputPdfPath).getFileName()).toString();
-            document.save(outPath);
-            return new File(outPath);
+    private File stampAndSign(String inputPdfPath, String outputPdfPath, byte[] imageBytes, List<SignaturePositionDto> positions,
+                              String signerName, String reason, String location, SigningKey signingKey,
+                              int containerSize) throws Exception {
+        try (StampedRevision revision = stamp(inputPdfPath, imageBytes, positions)) {
+            Path pending = Files.createTempFile(blobStore.tempDir(outputDir), "revision_", ".pdf");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(pending))) {
+                    addSignature(revision.document, signerName, reason, location, containerSize,
+                            new SignatureInterfaceImpl(signingKey, containerSize,
+                                    merkleBatchSigner.isEnabled() ? merkleBatchSigner : null));
+                    revision.document.saveIncremental(out);
+                }
+                blobStore.moveIn(pending, Paths.get(outputPdfPath));
+            } finally {
+                Files.deleteIfExists(pending);
+            }
+            return new File(outputPdfPath);
+        }
+    }
+
+    /**
+     * Phase one of deferred signing: stamp, reserve the signature placeholder and write the new
+     * revision with the placeholder still zero-filled. The document is closed before this returns;
+     * only the digest of the signed byte range has to wait for the signing backend.
+     */
+    public PreparedSignature prepareSignature(String inputPdfPath, String outputPdfPath, byte[] imageBytes,
+                                              List<SignaturePositionDto> positions, String signerName, String reason,
+                                              String location, SigningAlgorithm algorithm, int containerSize) throws Exception {
+        try (StampedRevision revision = stamp(inputPdfPath, imageBytes, positions)) {
+            Path pending = Files.createTempFile(blobStore.tempDir(outputDir), "deferred_", ".pdf");
+            try {
+                PDSignature signature;
+                byte[] digest;
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(pending))) {
+                    signature = addSignature(revision.document, signerName, reason, location, containerSize, null);
+                    ExternalSigningSupport external = revision.document.saveIncrementalForExternalSigning(out);
+                    digest = digest(external.getContent(), algorithm);
+                    // An empty CMS writes the revision out with the placeholder left as zeros
+                    external.setSignature(new byte[0]);
+                }
+                int[] byteRange = signature.getByteRange();
+                return new PreparedSignature(pending, Paths.get(outputPdfPath), digest, algorithm,
+                        byteRange[1], byteRange[2] - byteRange[1]);
+            } catch (Exception e) {
+                Files.deleteIfExists(pending);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Phase two of deferred signing: write the CMS into the placeholder of a prepared revision,
+     * in place, and move the revision to its output path
+     */
+    public File completeSignature(PreparedSignature prepared, byte[] cms) throws IOException {
+        try {
+            byte[] hex = Hex.getBytes(cms);
+            // The placeholder is "<" + hex digits + ">"
+            int capacity = prepared.contentsLength - 2;
+            if (hex.length > capacity) {
+                throw new SignatureInterfaceImpl.ContainerTooSmallException(capacity / 2, cms.length);
+            }
+            try (FileChannel channel = FileChannel.open(prepared.pendingPath, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(hex), prepared.contentsOffset + 1);
+                channel.force(false);
+            }
+            blobStore.moveIn(prepared.pendingPath, prepared.outputPath);
+            return prepared.outputPath.toFile();
         } finally {
+            Files.deleteIfExists(prepared.pendingPath);
+        }
+    }
+
+    /**
+     * Drop a prepared revision whose signature will not arrive
+     */
+    public void discardSignature(PreparedSignature prepared) throws IOException {
+        Files.deleteIfExists(prepared.pendingPath);
+    }
+
+    /**
+     * Load the input and draw the signature at every position. When nothing is signed yet and
+     * output optimization is on, the stamped document is rewritten once and reloaded, so the
+     * signature goes on top of that compact revision.
+     */
+    private StampedRevision stamp(String inputPdfPath, byte[] imageBytes, List<SignaturePositionDto> positions) throws IOException {
+        PDDocument document = pdfUtils.load(inputPdfPath);
+        File optimized = null;
+        try {
+            if (imageBytes != null && imageBytes.length > 0 && positions != null && !positions.isEmpty()) {
+                Stamp stamp = createStamp(document, imageBytes, positions);
+                stampPositions(document, stamp, positions);
+            }
+
+            if (outputOptimizer.isEnabled() && outputOptimizer.canRewrite(document)) {
+                optimized = Files.createTempFile(blobStore.tempDir(outputDir), "optimized_", ".pdf").toFile();
+                outputOptimizer.optimizeAndSave(document, optimized, new File(inputPdfPath).length());
+                document.close();
+                document = pdfUtils.load(optimized.getPath());
+            }
+            return new StampedRevision(document, optimized);
+        } catch (IOException | RuntimeException e) {
             document.close();
+            if (optimized != null) {
+                Files.deleteIfExists(optimized.toPath());
+            }
+            throw e;
+        }
+    }
+
+    private static byte[] digest(InputStream content, SigningAlgorithm algorithm) throws Exception {
+        MessageDigest md = MessageDigest.getInstance(algorithm.getDigestAlgorithm());
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            md.update(buffer, 0, read);
         }
+        return md.digest();
     }
 
     /**
@@ -138,44 +308,217 @@ public class PdfSignatureService {
      * This is a simplified approach and uses PDFBox's internal signing flow.
      */
     public File signPdf(String inputPdfPath, String signerName, String reason, String location) throws Exception {
-        // Load keystore
-        KeyStore keystore = KeyStore.getInstance("PKCS12");
-        try (var is = Files.newInputStream(Paths.get(keystorePath))) {
-            keystore.load(is, keystorePassword.toCharArray());
+        // Same as stamping with nothing to stamp, including the container sizing and retry
+        return stampAndSign(inputPdfPath, null, null, signerName, reason, location, signingKeyManager.getSigningKey());
+    }
+
+    /**
+     * Bytes to reserve for the CMS container: the size measured with a dry-run signature for
+     * this key (certificate chain and signed attributes included), plus slack and timestamp room,
+     * and room for the inclusion proof when signatures are Merkle-batched
+     */
+    int containerSizeFor(SigningKey signingKey) throws Exception {
+        int measured = signingKey.getSignatureContainerSize();
+        if (measured == 0) {
+            measured = new SignatureInterfaceImpl(signingKey).signDigest(new byte[signingKey.getAlgorithm().getDigestLength()]).length;
+            signingKey.setSignatureContainerSize(measured);
         }
+        int proofReserve = merkleBatchSigner.isEnabled() ? merkleBatchSigner.proofReserveBytes() : 0;
+        return measured + containerSlackBytes + timestampReserveBytes + proofReserve;
+    }
 
-        PrivateKey privateKey = (PrivateKey) keystore.getKey(keyAlias, keystorePassword.toCharArray());
-        Certificate[] certificateChain = keystore.getCertificateChain(keyAlias);
+    /**
+     * Placeholder size for a second deferred attempt when the CMS did not fit the first one,
+     * or 0 when the failure was something else
+     */
+    int retryContainerSize(Throwable e) {
+        int requiredSize = requiredContainerSize(e);
+        return requiredSize == 0 ? 0 : requiredSize + timestampReserveBytes;
+    }
 
-        // For simplicity we will use PDFBox's external signing flow to create a signed PDF
-        // Create signature appearance is skipped - this will produce a cryptographic signature without visible appearance
+    private static int requiredContainerSize(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SignatureInterfaceImpl.ContainerTooSmallException) {
+                return ((SignatureInterfaceImpl.ContainerTooSmallException) t).getRequiredSize();
+            }
+        }
+        return 0;
+    }
 
-        PDDocument document = Loader.loadPDF(new File(inputPdfPath));
-        try {
-            // Create PDSignature and set fields
-            PDSignature signature = new PDSignature();
-            signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
-            signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
-            signature.setName(signerName);
-            signature.setLocation(location);
-            signature.setReason(reason);
-            signature.setSignDate(Calendar.getInstance());
-
-            SignatureInterfaceImpl signing = new SignatureInterfaceImpl(privateKey, certificateChain);
-
-            pdfUtils.ensureDirectory(outputDir);
-            String signedPath = Paths.get(outputDir, "signed_" + Paths.get(inputPdfPath).getFileName()).toString();
-            try (FileOutputStream fos = new FileOutputStream(signedPath)) {
-                SignatureOptions options = new SignatureOptions();
-                options.setPreferredSignatureSize(32768);
-                document.addSignature(signature, signing, options);
-                document.saveIncremental(fos);
+    /**
+     * Save a stamped, still unsigned document to the output area
+     */
+    private File saveStamped(PDDocument document, String inputPdfPath) throws IOException {
+        Path outPath = blobStore.locate(outputDir, "stamped_" + Paths.get(inputPdfPath).getFileName());
+        Files.createDirectories(outPath.getParent());
+        saveFull(document, outPath.toString(), inputPdfPath);
+        blobStore.persist(outPath);
+        return outPath.toFile();
+    }
+
+    /**
+     * Full (non-incremental) save with object streams and an xref stream, plus resource
+     * deduplication when output optimization is enabled
+     */
+    private void saveFull(PDDocument document, String outPath, String inputPdfPath) throws IOException {
+        if (outputOptimizer.isEnabled()) {
+            outputOptimizer.optimizeAndSave(document, new File(outPath), new File(inputPdfPath).length());
+        } else {
+            document.save(new File(outPath), outputOptimizer.compressParameters());
+        }
+    }
+
+    /**
+     * Turn the signature bytes into an XObject for this document: SVG becomes a vector form
+     * (path operators only, no pixels), anything else a lossless image from the decode cache,
+     * trimmed and downsampled for the largest placement box.
+     */
+    private Stamp createStamp(PDDocument document, byte[] signatureBytes, List<SignaturePositionDto> positions) throws IOException {
+        if (SvgSignature.isSvg(signatureBytes)) {
+            return new Stamp(SvgSignature.parse(signatureBytes).toFormXObject(document), null);
+        }
+
+        float maxWidth = 0;
+        float maxHeight = 0;
+        for (SignaturePositionDto pos : positions) {
+            maxWidth = Math.max(maxWidth, pos.getWidth());
+            maxHeight = Math.max(maxHeight, pos.getHeight());
+        }
+        SignatureImageCache.EncodedSignatureImage image = signatureImageCache.get(signatureBytes, maxWidth, maxHeight);
+        return new Stamp(image.toXObject(document), image.getCropTransform());
+    }
+
+    /**
+     * Draw the stamp at each percentage position, one content stream per page.
+     * Touched pages and their resources are flagged so that an incremental save picks up
+     * the new content streams alongside the signature.
+     */
+    private void stampPositions(PDDocument document, Stamp stamp, List<SignaturePositionDto> positions) throws IOException {
+        for (Map.Entry<Integer, List<SignaturePositionDto>> entry : coordinateTransformer.groupByPage(positions).entrySet()) {
+            int pageIndex = entry.getKey();
+            // Ensure page index is valid
+            if (pageIndex >= document.getNumberOfPages()) continue;
+
+            PDPage page = document.getPage(pageIndex);
+            List<Matrix> placements = coordinateTransformer.toUserSpace(PageGeometry.of(page), entry.getValue());
+
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, page, PDPageContentStream.AppendMode.APPEND, true, true)) {
+                for (Matrix placement : placements) {
+                    if (stamp.unitTransform != null) {
+                        placement = stamp.unitTransform.multiply(placement);
+                    }
+                    if (stamp.xObject instanceof PDFormXObject) {
+                        // The form already maps its content onto the unit square, like an image does
+                        contentStream.saveGraphicsState();
+                        contentStream.transform(placement);
+                        contentStream.drawForm((PDFormXObject) stamp.xObject);
+                        contentStream.restoreGraphicsState();
+                    } else {
+                        contentStream.drawImage((PDImageXObject) stamp.xObject, placement);
+                    }
+                }
             }
 
-            return new File(signedPath);
-        } finally {
-            document.close();
+            page.getCOSObject().setNeedToBeUpdated(true);
+            COSDictionary resources = page.getResources().getCOSObject();
+            resources.setNeedToBeUpdated(true);
+            COSDictionary xObjects = resources.getCOSDictionary(COSName.XOBJECT);
+            if (xObjects != null) {
+                xObjects.setNeedToBeUpdated(true);
+            }
+        }
+    }
+
+    /**
+     * Add the signature dictionary with a placeholder of the given size. Without a signing
+     * interface the document is left for external signing.
+     */
+    private PDSignature addSignature(PDDocument document, String signerName, String reason, String location,
+                                     int containerSize, SignatureInterface signing) throws IOException {
+        // Create PDSignature and set fields
+        PDSignature signature = new PDSignature();
+        signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
+        signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
+        signature.setName(signerName);
+        signature.setLocation(location);
+        signature.setReason(reason);
+        signature.setSignDate(Calendar.getInstance());
+
+        SignatureOptions options = new SignatureOptions();
+        options.setPreferredSignatureSize(containerSize);
+        if (signing != null) {
+            document.addSignature(signature, signing, options);
+        } else {
+            document.addSignature(signature, options);
+        }
+        return signature;
+    }
+
+    /**
+     * XObject to draw for a signature, plus the transform from the placement's unit square to
+     * the area the XObject covers (null when it covers the whole square)
+     */
+    private static class Stamp {
+        private final PDXObject xObject;
+        private final Matrix unitTransform;
+
+        Stamp(PDXObject xObject, Matrix unitTransform) {
+            this.xObject = xObject;
+            this.unitTransform = unitTransform;
         }
     }
-}
 
+    /**
+     * Stamped document ready for an incremental save on top of the file it was loaded from.
+     * The save writes a complete new file: the base revision is copied through verbatim and the
+     * increment appended, so earlier signatures stay valid but each revision is stored in full.
+     */
+    private static class StampedRevision implements Closeable {
+        private final PDDocument document;
+        // Rewritten copy of the input when the optimizer ran, deleted on close
+        private final File temporary;
+
+        StampedRevision(PDDocument document, File temporary) {
+            this.document = document;
+            this.temporary = temporary;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                document.close();
+            } finally {
+                if (temporary != null) {
+                    Files.deleteIfExists(temporary.toPath());
+                }
+            }
+        }
+    }
+
+    /**
+     * A revision written with an empty signature placeholder, waiting for its CMS
+     */
+    public static class PreparedSignature {
+        private final Path pendingPath;
+        private final Path outputPath;
+        private final byte[] digest;
+        private final SigningAlgorithm algorithm;
+        // File offset of the "<" opening the /Contents placeholder, and its length including "<>"
+        private final long contentsOffset;
+        private final int contentsLength;
+
+        PreparedSignature(Path pendingPath, Path outputPath, byte[] digest, SigningAlgorithm algorithm,
+                          long contentsOffset, int contentsLength) {
+            this.pendingPath = pendingPath;
+            this.outputPath = outputPath;
+            this.digest = digest;
+            this.algorithm = algorithm;
+            this.contentsOffset = contentsOffset;
+            this.contentsLength = contentsLength;
+        }
+
+        /** Digest of the signed byte range, computed with the algorithm's digest */
+        public byte[] getDigest() { return digest.clone(); }
+        public SigningAlgorithm getAlgorithm() { return algorithm; }
+    }
+}
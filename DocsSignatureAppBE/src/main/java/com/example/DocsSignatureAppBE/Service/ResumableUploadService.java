@@ -0,0 +1,500 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.DTO.DocumentDto;
+import com.example.DocsSignatureAppBE.DTO.UploadChunkDto;
+import com.example.DocsSignatureAppBE.DTO.UploadSessionDto;
+import com.example.DocsSignatureAppBE.DTO.UploadSessionRequestDto;
+import com.example.DocsSignatureAppBE.Entity.FileStatus;
+import com.example.DocsSignatureAppBE.Entity.FileUpload;
+import com.example.DocsSignatureAppBE.Entity.StoredBlob;
+import com.example.DocsSignatureAppBE.Entity.UploadChunk;
+import com.example.DocsSignatureAppBE.Entity.User;
+import com.example.DocsSignatureAppBE.Exception.ResourceNotFoundException;
+import com.example.DocsSignatureAppBE.Repository.FileUploadRepository;
+import com.example.DocsSignatureAppBE.Repository.UploadChunkRepository;
+import com.example.DocsSignatureAppBE.Repository.UserRepository;
+import com.example.DocsSignatureAppBE.Storage.ContentAddressedStore;
+import com.example.DocsSignatureAppBE.Util.PdfUploadInputStream;
+import org.apache.commons.codec.binary.Hex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resumable uploads for large documents. The client opens a session, sends fixed-size chunks in any
+ * order (in parallel if it likes), asks which chunks are missing after a dropped connection, and
+ * completes the upload. Chunks are written at their own offset in a single part file, so completing
+ * does not copy anything: the part file is hashed once and moved into the content-addressed store.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileUploadRepository fileUploadRepository;
+    private final UploadChunkRepository uploadChunkRepository;
+    private final UserRepository userRepository;
+    private final ContentAddressedStore contentAddressedStore;
+    private final DocumentService documentService;
+
+    @Value("${upload.resumable.dir:./uploads/partial}")
+    private String partialDir;
+
+    @Value("${upload.resumable.max-size:1073741824}")
+    private long maxFileSize;
+
+    @Value("${upload.resumable.chunk-size:8388608}")
+    private int defaultChunkSize;
+
+    @Value("${upload.resumable.min-chunk-size:262144}")
+    private int minChunkSize;
+
+    @Value("${upload.resumable.max-chunk-size:67108864}")
+    private int maxChunkSize;
+
+    @Value("${upload.resumable.expiry-hours:24}")
+    private long expiryHours;
+
+    // Chunks of one upload are written in parallel under the read lock; completing, aborting and
+    // expiring take the write lock, so the part file never moves while a chunk is being written
+    private final Map<String, ReentrantReadWriteLock> uploadLocks = new ConcurrentHashMap<>();
+
+    private final AtomicLong sessionsCreated = new AtomicLong();
+    private final AtomicLong sessionsCompleted = new AtomicLong();
+    private final AtomicLong sessionsExpired = new AtomicLong();
+    private final AtomicLong chunksReceived = new AtomicLong();
+    private final AtomicLong chunksRejected = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    public ResumableUploadService(FileUploadRepository fileUploadRepository, UploadChunkRepository uploadChunkRepository,
+                                  UserRepository userRepository, ContentAddressedStore contentAddressedStore,
+                                  DocumentService documentService) {
+        this.fileUploadRepository = fileUploadRepository;
+        this.uploadChunkRepository = uploadChunkRepository;
+        this.userRepository = userRepository;
+        this.contentAddressedStore = contentAddressedStore;
+        this.documentService = documentService;
+    }
+
+    /**
+     * Open an upload session. The chunk size is fixed for the session, so chunk N always starts
+     * at N * chunkSize and a retried chunk overwrites exactly the bytes it sent before.
+     */
+    public UploadSessionDto createSession(UploadSessionRequestDto request) throws IOException {
+        String filename = request.getFilename();
+        if (filename == null || !filename.toLowerCase().endsWith(".pdf")) {
+            throw new IllegalArgumentException("Only PDF files are allowed");
+        }
+        Long fileSize = request.getFileSize();
+        if (fileSize == null || fileSize <= 0) {
+            throw new IllegalArgumentException("File size must be positive");
+        }
+        if (fileSize > maxFileSize) {
+            throw new IllegalArgumentException("File size exceeds maximum allowed size of " + maxFileSize + " bytes");
+        }
+
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSize;
+        chunkSize = Math.max(minChunkSize, Math.min(maxChunkSize, chunkSize));
+        long totalChunks = (fileSize + chunkSize - 1) / chunkSize;
+
+        String uploadId = UUID.randomUUID().toString();
+        Path part = partPath(uploadId);
+        Files.createDirectories(part.getParent());
+        Files.createFile(part);
+
+        FileUpload upload = new FileUpload(uploadId, uploadId + ".part", filename, part.toString(),
+                fileSize, "application/pdf", "pdf", getCurrentUser());
+        upload.setDescription(request.getTitle() != null && !request.getTitle().isBlank() ? request.getTitle() : filename);
+        upload.setChunkSize(chunkSize);
+        upload.setTotalChunks((int) totalChunks);
+        fileUploadRepository.save(upload);
+        sessionsCreated.incrementAndGet();
+
+        return toDto(upload, List.of());
+    }
+
+    /**
+     * Store one chunk. The body is hashed while it is spooled to a temporary file and only copied to
+     * its offset in the part file once its length and the expected SHA-256 (if sent) check out, so a
+     * bad retry of an accepted chunk never overwrites the good bytes already there.
+     */
+    public UploadChunkDto putChunk(String uploadId, int index, InputStream body, String expectedSha256) throws IOException {
+        FileUpload owned = getOwnedUpload(uploadId);
+        ReentrantReadWriteLock lock = lockFor(uploadId);
+        // A waiting complete() is let through rather than starved by more chunks
+        if (lock.hasQueuedThreads() || !lock.readLock().tryLock()) {
+            releaseLock(uploadId, lock, owned);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is being completed");
+        }
+        FileUpload upload = owned;
+        try {
+            // Re-read under the lock: a complete() that just finished has moved the part file
+            upload = refreshState(owned);
+            requireOpen(upload);
+            if (index < 0 || index >= upload.getTotalChunks()) {
+                throw new IllegalArgumentException("Chunk index must be between 0 and " + (upload.getTotalChunks() - 1));
+            }
+            return writeChunk(upload, index, body, expectedSha256);
+        } finally {
+            lock.readLock().unlock();
+            releaseLock(uploadId, lock, upload);
+        }
+    }
+
+    private UploadChunkDto writeChunk(FileUpload upload, int index, InputStream body, String expectedSha256) throws IOException {
+
+        long offset = (long) index * upload.getChunkSize();
+        long expectedSize = Math.min(upload.getChunkSize(), upload.getFileSize() - offset);
+
+        Path part = Paths.get(upload.getFilePath());
+        Path spool = Files.createTempFile(part.getParent(), upload.getUploadId() + "_" + index + "_", ".tmp");
+        MessageDigest digest = sha256();
+        long written = 0;
+        String sha256;
+        try {
+            try (FileChannel channel = FileChannel.open(spool, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = body.read(buffer)) != -1) {
+                    if (written + n > expectedSize) {
+                        chunksRejected.incrementAndGet();
+                        throw new IllegalArgumentException("Chunk " + index + " must be " + expectedSize + " bytes");
+                    }
+                    digest.update(buffer, 0, n);
+                    ByteBuffer src = ByteBuffer.wrap(buffer, 0, n);
+                    while (src.hasRemaining()) {
+                        channel.write(src);
+                    }
+                    written += n;
+                }
+            }
+            if (written != expectedSize) {
+                chunksRejected.incrementAndGet();
+                throw new IllegalArgumentException("Chunk " + index + " must be " + expectedSize + " bytes, got " + written);
+            }
+            sha256 = Hex.encodeHexString(digest.digest());
+            if (expectedSha256 != null && !expectedSha256.isBlank() && !expectedSha256.trim().equalsIgnoreCase(sha256)) {
+                chunksRejected.incrementAndGet();
+                throw new IllegalArgumentException("Checksum mismatch for chunk " + index);
+            }
+
+            try (FileChannel source = FileChannel.open(spool, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                long copied = 0;
+                while (copied < written) {
+                    long n = target.transferFrom(source, offset + copied, written - copied);
+                    if (n <= 0) {
+                        throw new IOException("Short copy of chunk " + index + " into the part file");
+                    }
+                    copied += n;
+                }
+                // Only count the chunk once its bytes are on disk, so a resumed upload never skips lost data
+                target.force(false);
+            }
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+
+        recordChunk(upload, index, offset, written, sha256);
+        chunksReceived.incrementAndGet();
+        bytesReceived.addAndGet(written);
+
+        long received = uploadChunkRepository.sumSizeByUpload(upload);
+        fileUploadRepository.recordProgress(upload.getUploadId(), (int) (received * 100 / upload.getFileSize()), LocalDateTime.now());
+
+        return new UploadChunkDto(index, offset, written, sha256);
+    }
+
+    /**
+     * Session state with the chunks received so far and the ones still missing
+     */
+    public UploadSessionDto getSession(String uploadId) {
+        FileUpload upload = getOwnedUpload(uploadId);
+        return toDto(upload, uploadChunkRepository.findByUploadOrderByChunkIndexAsc(upload));
+    }
+
+    /**
+     * Finish an upload once every chunk is in: check the PDF header, move the part file into the
+     * content-addressed store and create the document. Completing again returns the same result.
+     */
+    public UploadSessionDto complete(String uploadId, String expectedSha256) throws Exception {
+        FileUpload owned = getOwnedUpload(uploadId);
+        ReentrantReadWriteLock lock = lockFor(uploadId);
+        FileUpload upload = owned;
+        lock.writeLock().lock();
+        try {
+            upload = refreshState(owned);
+            if (upload.getDocumentId() != null) {
+                return toDto(upload, List.of());
+            }
+            requireOpen(upload);
+
+            long received = uploadChunkRepository.countByUpload(upload);
+            if (received < upload.getTotalChunks()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        (upload.getTotalChunks() - received) + " chunks are still missing");
+            }
+
+            Path part = Paths.get(upload.getFilePath());
+            if (Files.size(part) != upload.getFileSize() || !hasPdfHeader(part)) {
+                reject(upload, "Uploaded file is not a valid PDF");
+                Files.deleteIfExists(part);
+                throw new IllegalArgumentException("Uploaded file is not a valid PDF");
+            }
+
+            StoredBlob blob = contentAddressedStore.storeFile(part);
+            if (expectedSha256 != null && !expectedSha256.isBlank()
+                    && !expectedSha256.trim().equalsIgnoreCase(blob.getSha256())) {
+                contentAddressedStore.release(blob.getSha256(), blob.getStoragePath());
+                reject(upload, "Checksum mismatch for assembled file");
+                throw new IllegalArgumentException("Checksum mismatch for assembled file");
+            }
+
+            DocumentDto document = documentService.createDocument(blob, upload.getDescription(),
+                    upload.getOriginalFilename(), upload.getMimeType());
+
+            upload.setFilename(blob.getSha256());
+            upload.setFilePath(blob.getStoragePath());
+            upload.setChecksum(blob.getSha256());
+            upload.setUploadProgress(100);
+            upload.setDocumentId(document.getId());
+            fileUploadRepository.save(upload);
+            uploadChunkRepository.deleteByUpload(upload);
+            sessionsCompleted.incrementAndGet();
+
+            return toDto(upload, List.of());
+        } finally {
+            lock.writeLock().unlock();
+            releaseLock(uploadId, lock, upload);
+        }
+    }
+
+    /**
+     * Cancel an unfinished upload and drop what was received
+     */
+    public void abort(String uploadId) throws IOException {
+        FileUpload owned = getOwnedUpload(uploadId);
+        ReentrantReadWriteLock lock = lockFor(uploadId);
+        FileUpload upload = owned;
+        lock.writeLock().lock();
+        try {
+            upload = refreshState(owned);
+            if (upload.getDocumentId() != null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload has already been completed");
+            }
+            discard(upload, FileStatus.CANCELLED, null);
+        } finally {
+            lock.writeLock().unlock();
+            releaseLock(uploadId, lock, upload);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessionsCreated", sessionsCreated.get());
+        stats.put("sessionsCompleted", sessionsCompleted.get());
+        stats.put("sessionsExpired", sessionsExpired.get());
+        stats.put("chunksReceived", chunksReceived.get());
+        stats.put("chunksRejected", chunksRejected.get());
+        stats.put("bytesReceived", bytesReceived.get());
+        stats.put("defaultChunkSize", defaultChunkSize);
+        stats.put("maxFileSize", maxFileSize);
+        return stats;
+    }
+
+    /**
+     * Cancel sessions nobody has sent a chunk to within the expiry window and free their part files
+     */
+    @Scheduled(initialDelayString = "${upload.resumable.sweep-interval-ms:900000}",
+            fixedDelayString = "${upload.resumable.sweep-interval-ms:900000}")
+    public void expireStaleSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(expiryHours);
+        for (FileUpload stale : fileUploadRepository
+                .findByStatusAndDocumentIdIsNullAndTotalChunksIsNotNullAndLastModifiedTimestampBefore(FileStatus.PENDING, cutoff)) {
+            ReentrantReadWriteLock lock = lockFor(stale.getUploadId());
+            // Busy means a chunk or complete() is running right now, so it is not stale
+            if (!lock.writeLock().tryLock()) {
+                continue;
+            }
+            FileUpload upload = stale;
+            try {
+                upload = refreshState(stale);
+                if (upload.getStatus() == FileStatus.PENDING && upload.getDocumentId() == null
+                        && upload.getLastModifiedTimestamp().isBefore(cutoff)) {
+                    discard(upload, FileStatus.CANCELLED, "Upload expired");
+                    sessionsExpired.incrementAndGet();
+                }
+            } catch (IOException | ResourceNotFoundException e) {
+                // Left for the next sweep
+            } finally {
+                lock.writeLock().unlock();
+                releaseLock(stale.getUploadId(), lock, upload);
+            }
+        }
+    }
+
+    private ReentrantReadWriteLock lockFor(String uploadId) {
+        return uploadLocks.computeIfAbsent(uploadId, k -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * Forget the lock once the session is over. Anyone still holding it re-reads the session under
+     * the lock and finds it closed, so a fresh lock for the same id never guards a live part file.
+     */
+    private void releaseLock(String uploadId, ReentrantReadWriteLock lock, FileUpload upload) {
+        if (upload.getDocumentId() != null || upload.getStatus() != FileStatus.PENDING) {
+            uploadLocks.remove(uploadId, lock);
+        }
+    }
+
+    private void discard(FileUpload upload, FileStatus status, String errorMessage) throws IOException {
+        Files.deleteIfExists(partPath(upload.getUploadId()));
+        uploadChunkRepository.deleteByUpload(upload);
+        upload.setStatus(status);
+        upload.setErrorMessage(errorMessage);
+        upload.setLastModifiedTimestamp(LocalDateTime.now());
+        fileUploadRepository.save(upload);
+    }
+
+    private void reject(FileUpload upload, String errorMessage) {
+        uploadChunkRepository.deleteByUpload(upload);
+        upload.setStatus(FileStatus.REJECTED);
+        upload.setErrorMessage(errorMessage);
+        upload.setLastModifiedTimestamp(LocalDateTime.now());
+        fileUploadRepository.save(upload);
+    }
+
+    private void recordChunk(FileUpload upload, int index, long offset, long size, String sha256) {
+        UploadChunk chunk = uploadChunkRepository.findByUploadAndChunkIndex(upload, index)
+                .orElseGet(() -> new UploadChunk(upload, index, offset, size, sha256));
+        chunk.setSize(size);
+        chunk.setSha256(sha256);
+        try {
+            uploadChunkRepository.save(chunk);
+        } catch (DataIntegrityViolationException e) {
+            // The same chunk was retried in parallel; both wrote the same range, one row is enough
+        }
+    }
+
+    /**
+     * Bring the mutable columns of the entity up to date with the database, since the copy loaded by
+     * getOwnedUpload can predate a complete() or abort() that ran on another request
+     */
+    private FileUpload refreshState(FileUpload upload) {
+        FileUploadRepository.UploadState state = fileUploadRepository.findState(upload.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+        upload.setStatus(state.getStatus());
+        upload.setDocumentId(state.getDocumentId());
+        upload.setFilePath(state.getFilePath());
+        upload.setFilename(state.getFilename());
+        upload.setChecksum(state.getChecksum());
+        upload.setUploadProgress(state.getUploadProgress());
+        upload.setErrorMessage(state.getErrorMessage());
+        upload.setLastModifiedTimestamp(state.getLastModifiedTimestamp());
+        return upload;
+    }
+
+    private void requireOpen(FileUpload upload) {
+        if (upload.getTotalChunks() == null) {
+            throw new IllegalArgumentException("Not a resumable upload");
+        }
+        if (upload.getStatus() != FileStatus.PENDING || upload.getDocumentId() != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is no longer accepting chunks");
+        }
+    }
+
+    private boolean hasPdfHeader(Path file) throws IOException {
+        byte[] head = new byte[PdfUploadInputStream.HEADER_WINDOW];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        return PdfUploadInputStream.hasPdfHeader(head, read);
+    }
+
+    private Path partPath(String uploadId) {
+        return Paths.get(partialDir).toAbsolutePath().normalize().resolve(uploadId + ".part");
+    }
+
+    private FileUpload getOwnedUpload(String uploadId) {
+        FileUpload upload = fileUploadRepository.findByUploadId(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+        if (!upload.getUploadedBy().getId().equals(getCurrentUser().getId())) {
+            throw new ResourceNotFoundException("Upload not found");
+        }
+        return upload;
+    }
+
+    private UploadSessionDto toDto(FileUpload upload, List<UploadChunk> chunks) {
+        UploadSessionDto dto = new UploadSessionDto();
+        dto.setUploadId(upload.getUploadId());
+        dto.setFilename(upload.getOriginalFilename());
+        dto.setFileSize(upload.getFileSize());
+        dto.setChunkSize(upload.getChunkSize() != null ? upload.getChunkSize() : 0);
+        dto.setTotalChunks(upload.getTotalChunks() != null ? upload.getTotalChunks() : 0);
+        dto.setUploadProgress(upload.getUploadProgress() != null ? upload.getUploadProgress() : 0);
+        dto.setStatus(upload.getStatus().name());
+        dto.setDocumentId(upload.getDocumentId());
+        dto.setChecksum(upload.getChecksum());
+        dto.setErrorMessage(upload.getErrorMessage());
+
+        List<UploadChunkDto> received = new ArrayList<>();
+        boolean[] present = new boolean[dto.getTotalChunks()];
+        for (UploadChunk chunk : chunks) {
+            received.add(new UploadChunkDto(chunk.getChunkIndex(), chunk.getOffset(), chunk.getSize(), chunk.getSha256()));
+            if (chunk.getChunkIndex() < present.length) {
+                present[chunk.getChunkIndex()] = true;
+            }
+        }
+        List<Integer> missing = new ArrayList<>();
+        if (upload.getDocumentId() == null && upload.getStatus() == FileStatus.PENDING) {
+            for (int i = 0; i < present.length; i++) {
+                if (!present[i]) {
+                    missing.add(i);
+                }
+            }
+        }
+        dto.setReceivedChunks(received);
+        dto.setMissingChunks(missing);
+        return dto;
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("Current user not found"));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
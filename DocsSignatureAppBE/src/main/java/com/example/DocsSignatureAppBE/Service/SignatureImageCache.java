@@ -0,0 +1,242 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.Util.SignatureImageNormalizer;
+import com.example.DocsSignatureAppBE.Util.SignatureImageNormalizer.NormalizedImage;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.util.Matrix;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Size-bounded LRU cache of normalized signature images, keyed by the SHA-256 of the encoded image
+ * and the pixel size needed for the placement. Entries hold Flate-compressed samples and alpha,
+ * so turning a cached image into a lossless XObject for another document is a plain copy with
+ * no PNG decode and no recompression.
+ */
+@Component
+public class SignatureImageCache {
+
+    private final long maxBytes;
+    private final SignatureImageNormalizer normalizer;
+    private final LinkedHashMap<String, EncodedSignatureImage> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public SignatureImageCache(@Value("${signature.image-cache.max-bytes:33554432}") long maxBytes,
+                               SignatureImageNormalizer normalizer) {
+        this.maxBytes = maxBytes;
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * Get the encoded form of an image (PNG, JPEG, ...) for a placement box of the given size in
+     * points, normalizing (trim, downscale, palette-reduce) only on a cache miss
+     */
+    public EncodedSignatureImage get(byte[] imageBytes, float boxWidthPt, float boxHeightPt) throws IOException {
+        String key = DigestUtils.sha256Hex(imageBytes) + ":" + normalizer.pixelsFor(boxWidthPt) + "x" + normalizer.pixelsFor(boxHeightPt);
+
+        synchronized (this) {
+            EncodedSignatureImage cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        misses.incrementAndGet();
+        EncodedSignatureImage encoded = EncodedSignatureImage.encode(normalizer.normalizeForPlacement(imageBytes, boxWidthPt, boxHeightPt));
+
+        synchronized (this) {
+            if (encoded.sizeInBytes() <= maxBytes && !entries.containsKey(key)) {
+                entries.put(key, encoded);
+                currentBytes += encoded.sizeInBytes();
+                evictIfNeeded();
+            }
+        }
+        return encoded;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("bytes", currentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<EncodedSignatureImage> it = entries.values().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= it.next().sizeInBytes();
+            it.remove();
+        }
+    }
+
+    /**
+     * Signature image stored as Flate-compressed samples plus an optional soft mask.
+     * Single-ink signatures are a 1x1 ink-coloured image with a 1- or 4-bit soft mask at full
+     * size (the mask may differ in size from its parent image); other images keep 8-bit
+     * samples, gray when every pixel is neutral.
+     */
+    public static class EncodedSignatureImage {
+        private final int sampleWidth;
+        private final int sampleHeight;
+        private final boolean gray;
+        private final byte[] samples;
+        private final int width;
+        private final int height;
+        private final int alphaBits;
+        private final byte[] alpha;
+        private final Matrix cropTransform;
+
+        private EncodedSignatureImage(int sampleWidth, int sampleHeight, boolean gray, byte[] samples,
+                                      int width, int height, int alphaBits, byte[] alpha, Matrix cropTransform) {
+            this.sampleWidth = sampleWidth;
+            this.sampleHeight = sampleHeight;
+            this.gray = gray;
+            this.samples = samples;
+            this.width = width;
+            this.height = height;
+            this.alphaBits = alphaBits;
+            this.alpha = alpha;
+            this.cropTransform = cropTransform;
+        }
+
+        static EncodedSignatureImage encode(NormalizedImage normalized) throws IOException {
+            BufferedImage image = normalized.getImage();
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+
+            // Trimmed area inside the unit square the placement matrix maps onto (PDF y axis points up)
+            Matrix cropTransform = new Matrix(normalized.getCropWidth(), 0, 0, normalized.getCropHeight(),
+                    normalized.getCropX(), 1f - normalized.getCropY() - normalized.getCropHeight());
+
+            Color ink = normalized.getInk();
+            if (ink != null) {
+                boolean gray = ink.getRed() == ink.getGreen() && ink.getGreen() == ink.getBlue();
+                byte[] samples = gray
+                        ? new byte[]{(byte) ink.getRed()}
+                        : new byte[]{(byte) ink.getRed(), (byte) ink.getGreen(), (byte) ink.getBlue()};
+                int bits = normalized.getAlphaBits();
+                byte[] alpha = packAlpha(argb, width, height, bits);
+                return new EncodedSignatureImage(1, 1, gray, deflate(samples), width, height, bits, deflate(alpha), cropTransform);
+            }
+
+            boolean gray = true;
+            boolean opaque = true;
+            for (int pixel : argb) {
+                int r = (pixel >> 16) & 0xff;
+                int g = (pixel >> 8) & 0xff;
+                int b = pixel & 0xff;
+                if (r != g || g != b) {
+                    gray = false;
+                }
+                if ((pixel >>> 24) != 0xff) {
+                    opaque = false;
+                }
+            }
+
+            byte[] samples = new byte[argb.length * (gray ? 1 : 3)];
+            int s = 0;
+            for (int pixel : argb) {
+                if (gray) {
+                    samples[s++] = (byte) (pixel & 0xff);
+                } else {
+                    samples[s++] = (byte) ((pixel >> 16) & 0xff);
+                    samples[s++] = (byte) ((pixel >> 8) & 0xff);
+                    samples[s++] = (byte) (pixel & 0xff);
+                }
+            }
+            byte[] alpha = opaque ? null : deflate(packAlpha(argb, width, height, 8));
+
+            return new EncodedSignatureImage(width, height, gray, deflate(samples), width, height, 8, alpha, cropTransform);
+        }
+
+        /**
+         * Create a lossless image XObject in the target document from the cached streams
+         */
+        public PDImageXObject toXObject(PDDocument document) throws IOException {
+            PDColorSpace colorSpace = gray ? PDDeviceGray.INSTANCE : PDDeviceRGB.INSTANCE;
+            PDImageXObject image = new PDImageXObject(document, new ByteArrayInputStream(samples),
+                    COSName.FLATE_DECODE, sampleWidth, sampleHeight, 8, colorSpace);
+            if (alpha != null) {
+                PDImageXObject mask = new PDImageXObject(document, new ByteArrayInputStream(alpha),
+                        COSName.FLATE_DECODE, width, height, alphaBits, PDDeviceGray.INSTANCE);
+                image.getCOSObject().setItem(COSName.SMASK, mask);
+            }
+            return image;
+        }
+
+        /**
+         * Maps the unit square onto the trimmed area, to be applied before the placement matrix
+         * so the stamp lands exactly where the ink was in the original image
+         */
+        public Matrix getCropTransform() {
+            return cropTransform.clone();
+        }
+
+        long sizeInBytes() {
+            return samples.length + (alpha != null ? alpha.length : 0);
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Pack alpha values MSB-first at the given depth, each row starting on a byte boundary
+         */
+        private static byte[] packAlpha(int[] argb, int width, int height, int bits) {
+            int rowBytes = (width * bits + 7) / 8;
+            byte[] packed = new byte[rowBytes * height];
+            for (int y = 0; y < height; y++) {
+                int rowStart = y * rowBytes;
+                for (int x = 0; x < width; x++) {
+                    int value = SignatureImageNormalizer.quantizeAlpha(argb[y * width + x] >>> 24, bits);
+                    int bitOffset = x * bits;
+                    int shift = 8 - bits - (bitOffset & 7);
+                    packed[rowStart + (bitOffset >> 3)] |= (byte) (value << shift);
+                }
+            }
+            return packed;
+        }
+
+        private static byte[] deflate(byte[] data) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            try (DeflaterOutputStream dos = new DeflaterOutputStream(out, deflater)) {
+                dos.write(data);
+            } finally {
+                deflater.end();
+            }
+            return out.toByteArray();
+        }
+    }
+}
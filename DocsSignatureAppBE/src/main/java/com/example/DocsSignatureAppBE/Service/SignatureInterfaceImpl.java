@@ -1,56 +1,110 @@
 package com.example.DocsSignatureAppBE.Service;
 
+import com.example.DocsSignatureAppBE.Security.SigningKey;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
-import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.cms.CMSAbsentContent;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
-import org.bouncycastle.cms.CMSTypedData;
+import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
 import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
 import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.DigestCalculatorProvider;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
-import java.security.PrivateKey;
-import java.security.cert.Certificate;
-import java.security.cert.X509Certificate;
-import java.util.Arrays;
 
 // Minimal SignatureInterface implementation using BouncyCastle
 public class SignatureInterfaceImpl implements SignatureInterface {
-    final PrivateKey privateKey;
-    final Certificate[] certificateChain;
+    private static final int BUFFER_SIZE = 8192;
 
-    SignatureInterfaceImpl(PrivateKey privateKey, Certificate[] certificateChain) {
-        this.privateKey = privateKey;
-        this.certificateChain = certificateChain;
+    final SigningKey signingKey;
+    // Bytes reserved for /Contents in the document, 0 when the CMS is not written into a placeholder
+    private final int reservedSize;
+    // Set when the document digest should join a Merkle batch instead of being signed on its own
+    private final MerkleBatchSigner batchSigner;
+
+    SignatureInterfaceImpl(SigningKey signingKey) {
+        this(signingKey, 0, null);
+    }
+
+    SignatureInterfaceImpl(SigningKey signingKey, int reservedSize) {
+        this(signingKey, reservedSize, null);
+    }
+
+    SignatureInterfaceImpl(SigningKey signingKey, int reservedSize, MerkleBatchSigner batchSigner) {
+        this.signingKey = signingKey;
+        this.reservedSize = reservedSize;
+        this.batchSigner = batchSigner;
     }
 
+    /**
+     * Hash the signed byte range in fixed-size chunks and build a detached CMS from the digest,
+     * so memory use does not grow with the size of the document. The digest is the one the key's
+     * signature algorithm pairs with (SHA-384 for P-384, SHA-512 for Ed25519).
+     */
     @Override
     public byte[] sign(InputStream content) throws IOException {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA256");
-            byte[] buffer = content.readAllBytes();
-            byte[] hash = md.digest(buffer);
-
-            // Build CMS signed data using BouncyCastle (simplified)
-            CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
-            ContentSigner sha1Signer = new JcaContentSignerBuilder("SHA256withRSA").setProvider("BC").build(privateKey);
-            DigestCalculatorProvider digProv = new JcaDigestCalculatorProviderBuilder().setProvider("BC").build();
-            JcaCertStore certs = new JcaCertStore(Arrays.asList(certificateChain));
-            gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(digProv).build(sha1Signer, (X509Certificate)certificateChain[0]));
-            gen.addCertificates(certs);
-
-            CMSTypedData msg = new CMSProcessableByteArray(buffer);
-            CMSSignedData signed = gen.generate(msg, false);
-            return signed.getEncoded();
+            MessageDigest md = MessageDigest.getInstance(signingKey.getAlgorithm().getDigestAlgorithm());
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                md.update(buffer, 0, read);
+            }
+            byte[] cms = batchSigner != null ? batchSigner.sign(signingKey, md.digest()) : signDigest(md.digest());
+            if (reservedSize > 0 && cms.length > reservedSize) {
+                throw new ContainerTooSmallException(reservedSize, cms.length);
+            }
+            return cms;
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
             throw new IOException(e);
         }
     }
 
+    /**
+     * Build a detached CMS whose signed attributes carry the precomputed content digest.
+     * No content is attached, the messageDigest attribute is what the signature covers.
+     */
+    byte[] signDigest(byte[] digest) throws Exception {
+        ASN1EncodableVector signedAttributes = new ASN1EncodableVector();
+        signedAttributes.add(new Attribute(CMSAttributes.messageDigest, new DERSet(new DEROctetString(digest))));
+
+        // Key material, digest provider and cert store come pre-built from the key cache
+        CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
+        ContentSigner contentSigner = signingKey.contentSigner();
+        gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(signingKey.getDigestCalculatorProvider())
+                .setSignedAttributeGenerator(new DefaultSignedAttributeTableGenerator(new AttributeTable(signedAttributes)))
+                .build(contentSigner, signingKey.getSigningCertificate()));
+        gen.addCertificates(signingKey.getCertStore());
+
+        CMSSignedData signed = gen.generate(new CMSAbsentContent(), false);
+        return signed.getEncoded();
+    }
+
+    /**
+     * The CMS does not fit the placeholder reserved in the document. Carries the exact size
+     * needed so the caller can retry once without guessing.
+     */
+    static class ContainerTooSmallException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int requiredSize;
+
+        ContainerTooSmallException(int reservedSize, int requiredSize) {
+            super("Signature container needs " + requiredSize + " bytes but only " + reservedSize + " were reserved");
+            this.requiredSize = requiredSize;
+        }
+
+        int getRequiredSize() {
+            return requiredSize;
+        }
+    }
 }
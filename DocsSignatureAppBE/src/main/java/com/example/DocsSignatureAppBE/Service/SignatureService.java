@@ -9,6 +9,7 @@ import com.example.DocsSignatureAppBE.Repository.DocumentRepository;
 import com.example.DocsSignatureAppBE.Repository.SignatureRepository;
 import com.example.DocsSignatureAppBE.Repository.UserRepository;
 import com.example.DocsSignatureAppBE.Exception.ResourceNotFoundException;
+import com.example.DocsSignatureAppBE.Util.PageGeometry;
 import com.example.DocsSignatureAppBE.Util.SignatureCoordinateValidator;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,15 +28,17 @@ public class SignatureService {
     private final UserRepository userRepository;
     private final SignatureCoordinateValidator coordinateValidator;
     private final SignatureStorageService storageService;
+    private final DocumentService documentService;
 
     public SignatureService(SignatureRepository signatureRepository, DocumentRepository documentRepository,
                            UserRepository userRepository, SignatureCoordinateValidator coordinateValidator,
-                           SignatureStorageService storageService) {
+                           SignatureStorageService storageService, DocumentService documentService) {
         this.signatureRepository = signatureRepository;
         this.documentRepository = documentRepository;
         this.userRepository = userRepository;
         this.coordinateValidator = coordinateValidator;
         this.storageService = storageService;
+        this.documentService = documentService;
     }
 
     /**
@@ -234,11 +237,19 @@ public class SignatureService {
      * Validate signature placement coordinates
      */
     public SignatureValidationResponse validateSignaturePlacement(SignaturePlacementRequest request) {
+        List<PageGeometry> pages = null;
+        if (request.getSignatureId() != null) {
+            pages = signatureRepository.findById(request.getSignatureId())
+                    .map(sig -> getAccessiblePageGeometry(sig.getDocument()))
+                    .orElse(null);
+        }
+
         SignatureValidationResponse response = coordinateValidator.validateCoordinates(
                 request.getXCoordinate(),
                 request.getYCoordinate(),
                 request.getPageNumber(),
-                request.getSignatureData()
+                request.getSignatureData(),
+                pages
         );
 
         // Additional validation for signature dimensions if provided
@@ -262,7 +273,22 @@ public class SignatureService {
      */
     public SignatureValidationResponse validateCoordinatesOnly(Float xCoordinate, Float yCoordinate,
                                                                Integer pageNumber, String signatureData) {
-        return coordinateValidator.validateCoordinates(xCoordinate, yCoordinate, pageNumber, signatureData);
+        return validateCoordinatesOnly(xCoordinate, yCoordinate, pageNumber, signatureData, null);
+    }
+
+    /**
+     * Validate coordinates only, checking the page number against the document's real page count
+     */
+    public SignatureValidationResponse validateCoordinatesOnly(Float xCoordinate, Float yCoordinate,
+                                                               Integer pageNumber, String signatureData,
+                                                               Long documentId) {
+        List<PageGeometry> pages = null;
+        if (documentId != null) {
+            Document document = documentRepository.findById(documentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
+            pages = getAccessiblePageGeometry(document);
+        }
+        return coordinateValidator.validateCoordinates(xCoordinate, yCoordinate, pageNumber, signatureData, pages);
     }
 
     /**
@@ -289,7 +315,8 @@ public class SignatureService {
 
         // Validate new coordinates
         SignatureValidationResponse validation = coordinateValidator.validateCoordinates(
-                xCoordinate, yCoordinate, pageNumber, ""
+                xCoordinate, yCoordinate, pageNumber, "",
+                getAccessiblePageGeometry(signature.getDocument())
         );
 
         if (!validation.getXValid() || !validation.getYValid() || !validation.getPageValid()) {
@@ -400,14 +427,26 @@ public class SignatureService {
      * Update document signature status based on signature completion
      */
     private void updateDocumentSignatureStatus(Long documentId) {
-        Document document = documentRepository.findById(documentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
+        if (!documentRepository.existsById(documentId)) {
+            throw new ResourceNotFoundException("Document not found");
+        }
 
         if (areAllSignaturesComplete(documentId)) {
-            document.setIsSigned(true);
-            document.setFileStatus(FileStatus.SIGNED);
-            documentRepository.save(document);
+            documentRepository.saveSignedStatus(documentId, FileStatus.SIGNED);
+        }
+    }
+
+    /**
+     * Page geometry of a document the current user owns or has to sign. Anyone else gets a 404,
+     * so ids of other users' documents reveal nothing and never trigger a parse.
+     */
+    private List<PageGeometry> getAccessiblePageGeometry(Document document) {
+        User currentUser = getCurrentUser();
+        if (!document.getUploadedBy().getId().equals(currentUser.getId())
+                && signatureRepository.findByDocumentAndSigner(document, currentUser).isEmpty()) {
+            throw new ResourceNotFoundException("Document not found");
         }
+        return documentService.getPageGeometry(document.getId());
     }
 
     /**
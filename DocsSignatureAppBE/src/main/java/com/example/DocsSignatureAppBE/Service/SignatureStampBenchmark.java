@@ -0,0 +1,196 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.Util.SignatureImageNormalizer;
+import com.example.DocsSignatureAppBE.Util.SvgSignature;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.util.Matrix;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Cost of stamping the same signature as SVG (vector form XObject) and as a raster image, measured
+ * in process like {@link com.example.DocsSignatureAppBE.Security.SignatureAlgorithmBenchmark}.
+ * One synthetic pen stroke is written both as the SVG the signature pad sends and as the 2x canvas
+ * PNG it would otherwise export; each iteration stamps a one-page document at a few placements and
+ * saves it. Raster runs once through a warm image cache, as finalize does for a repeat signer, and
+ * once decoding every time, as for a first signature. Private caches keep the production stats clean.
+ */
+@Component
+public class SignatureStampBenchmark {
+
+    private static final float VIEW_WIDTH = 600;
+    private static final float VIEW_HEIGHT = 200;
+    // Canvas exports are usually taken at a device pixel ratio of 2
+    private static final int RASTER_SCALE = 2;
+    private static final int STROKES = 40;
+    private static final float BOX_WIDTH = 180;
+    private static final float BOX_HEIGHT = 60;
+    private static final int PLACEMENTS = 3;
+
+    private final SignatureImageNormalizer normalizer;
+
+    public SignatureStampBenchmark(SignatureImageNormalizer normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * Run every variant for the given number of iterations after an equal warm-up
+     */
+    public Map<String, Object> run(int iterations) throws IOException {
+        if (iterations < 1 || iterations > 1_000) {
+            throw new IllegalArgumentException("Iterations must be between 1 and 1000");
+        }
+        float[][] curves = curves();
+        byte[] svg = svg(curves);
+        byte[] png = png(curves);
+        long blankBytes = stamp(null).length;
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("svg", measure(iterations, svg.length, blankBytes,
+                document -> SvgSignature.parse(svg).toFormXObject(document)));
+
+        SignatureImageCache warm = new SignatureImageCache(Long.MAX_VALUE, normalizer);
+        results.put("rasterCached", measure(iterations, png.length, blankBytes,
+                document -> warm.get(png, BOX_WIDTH, BOX_HEIGHT)));
+
+        // Nothing fits in a zero-byte cache, so every call decodes and normalizes the PNG again
+        SignatureImageCache cold = new SignatureImageCache(0, normalizer);
+        results.put("rasterUncached", measure(iterations, png.length, blankBytes,
+                document -> cold.get(png, BOX_WIDTH, BOX_HEIGHT)));
+        return results;
+    }
+
+    private Map<String, Object> measure(int iterations, int inputBytes, long blankBytes, StampFactory factory) throws IOException {
+        byte[] output = null;
+        // Warm-up so the JIT has compiled the hot paths before timing
+        for (int i = 0; i < iterations; i++) {
+            output = stamp(factory);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            output = stamp(factory);
+        }
+        long nanos = System.nanoTime() - start;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("iterations", iterations);
+        result.put("documentsPerSecond", nanos == 0 ? 0 : Math.round(iterations * 1_000_000_000.0 / nanos));
+        result.put("microsPerDocument", nanos / iterations / 1_000);
+        result.put("inputBytes", inputBytes);
+        // What the stamp adds to the saved file, over the same page without it
+        result.put("addedBytes", output.length - blankBytes);
+        return result;
+    }
+
+    /**
+     * Stamp a fresh one-page document and save it; a null factory saves the page unstamped
+     */
+    private static byte[] stamp(StampFactory factory) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            if (factory != null) {
+                Object stamp = factory.create(document);
+                try (PDPageContentStream cs = new PDPageContentStream(document, page)) {
+                    for (int i = 0; i < PLACEMENTS; i++) {
+                        Matrix placement = new Matrix(BOX_WIDTH, 0, 0, BOX_HEIGHT, 60 + i * 20, 80 + i * 220);
+                        if (stamp instanceof PDFormXObject) {
+                            cs.saveGraphicsState();
+                            cs.transform(placement);
+                            cs.drawForm((PDFormXObject) stamp);
+                            cs.restoreGraphicsState();
+                        } else {
+                            SignatureImageCache.EncodedSignatureImage image = (SignatureImageCache.EncodedSignatureImage) stamp;
+                            cs.drawImage(image.toXObject(document), image.getCropTransform().multiply(placement));
+                        }
+                    }
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * A fixed scribble of connected cubic curves across the pad, the same on every run
+     */
+    private static float[][] curves() {
+        Random random = new Random(42);
+        float[][] curves = new float[STROKES][];
+        float x = 30;
+        float y = VIEW_HEIGHT / 2;
+        float step = (VIEW_WIDTH - 60) / STROKES;
+        for (int i = 0; i < STROKES; i++) {
+            float endX = x + step;
+            float endY = 40 + random.nextFloat() * (VIEW_HEIGHT - 80);
+            curves[i] = new float[]{x, y,
+                    x + step / 3, 20 + random.nextFloat() * (VIEW_HEIGHT - 40),
+                    x + 2 * step / 3, 20 + random.nextFloat() * (VIEW_HEIGHT - 40),
+                    endX, endY};
+            x = endX;
+            y = endY;
+        }
+        return curves;
+    }
+
+    private static byte[] svg(float[][] curves) {
+        StringBuilder d = new StringBuilder();
+        d.append(String.format(Locale.ROOT, "M%.2f %.2f", curves[0][0], curves[0][1]));
+        for (float[] c : curves) {
+            d.append(String.format(Locale.ROOT, " C%.2f %.2f %.2f %.2f %.2f %.2f", c[2], c[3], c[4], c[5], c[6], c[7]));
+        }
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 " + (int) VIEW_WIDTH + " " + (int) VIEW_HEIGHT + "\">"
+                + "<path d=\"" + d + "\" fill=\"none\" stroke=\"#1a237e\" stroke-width=\"3\" stroke-linecap=\"round\"/></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] png(float[][] curves) throws IOException {
+        BufferedImage image = new BufferedImage((int) VIEW_WIDTH * RASTER_SCALE, (int) VIEW_HEIGHT * RASTER_SCALE,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.scale(RASTER_SCALE, RASTER_SCALE);
+            g.setColor(new Color(0x1a237e));
+            g.setStroke(new BasicStroke(3, BasicStroke.CAP_ROUND, BasicStroke.JOIN_MITER));
+            Path2D.Float path = new Path2D.Float();
+            path.moveTo(curves[0][0], curves[0][1]);
+            for (float[] c : curves) {
+                path.curveTo(c[2], c[3], c[4], c[5], c[6], c[7]);
+            }
+            g.draw(path);
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Builds the XObject to draw: a form for SVG, an encoded image for raster
+     */
+    private interface StampFactory {
+        Object create(PDDocument document) throws IOException;
+    }
+}
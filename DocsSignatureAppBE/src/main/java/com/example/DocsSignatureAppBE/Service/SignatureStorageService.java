@@ -1,11 +1,15 @@
 package com.example.DocsSignatureAppBE.Service;
 
+import com.example.DocsSignatureAppBE.Storage.BlobStore;
+import com.example.DocsSignatureAppBE.Util.SignatureImageNormalizer;
+import com.example.DocsSignatureAppBE.Util.SvgSignature;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Base64;
 import java.util.UUID;
 
@@ -22,19 +26,20 @@ public class SignatureStorageService {
     @Value("${signature.max-size:5242880}") // 5MB default
     private long maxSignatureSize;
 
+    private final SignatureImageNormalizer imageNormalizer;
+    private final BlobStore blobStore;
+
+    public SignatureStorageService(SignatureImageNormalizer imageNormalizer, BlobStore blobStore) {
+        this.imageNormalizer = imageNormalizer;
+        this.blobStore = blobStore;
+    }
+
     /**
      * Store signature image from base64 data
      */
     public String storeSignatureImage(String base64SignatureData, Long signatureId) throws IOException {
-        // Create signature storage directory if not exists
-        Path storageDirectoryPath = Paths.get(signatureStorageDir);
-        if (!Files.exists(storageDirectoryPath)) {
-            Files.createDirectories(storageDirectoryPath);
-        }
-
         // Generate unique filename
         String filename = "signature_" + signatureId + "_" + UUID.randomUUID() + ".png";
-        Path signatureFilePath = storageDirectoryPath.resolve(filename);
 
         // Decode base64 and validate size
         byte[] signatureBytes = decodeBase64SignatureData(base64SignatureData);
@@ -43,10 +48,9 @@ public class SignatureStorageService {
             throw new IOException("Signature image exceeds maximum size of " + maxSignatureSize + " bytes");
         }
 
-        // Write file to disk
-        Files.write(signatureFilePath, signatureBytes);
-
-        return signatureFilePath.toString();
+        // Trim margins, cap resolution and palette-reduce before writing to disk
+        byte[] normalized = imageNormalizer.normalizeForStorage(signatureBytes);
+        return blobStore.put(signatureStorageDir, filename, new ByteArrayInputStream(normalized)).toString();
     }
 
     /**
@@ -57,7 +61,7 @@ public class SignatureStorageService {
             return null;
         }
 
-        Path imagePath = Paths.get(signatureImagePath);
+        Path imagePath = blobStore.fetch(signatureImagePath);
         if (!Files.exists(imagePath)) {
             throw new IOException("Signature image not found at: " + signatureImagePath);
         }
@@ -74,10 +78,7 @@ public class SignatureStorageService {
             return;
         }
 
-        Path imagePath = Paths.get(signatureImagePath);
-        if (Files.exists(imagePath)) {
-            Files.delete(imagePath);
-        }
+        blobStore.delete(signatureImagePath);
     }
 
     /**
@@ -132,25 +133,21 @@ public class SignatureStorageService {
      * Store signature as SVG (vector format)
      */
     public String storeSignatureSVG(String svgData, Long signatureId) throws IOException {
-        Path storageDirectoryPath = Paths.get(signatureStorageDir);
-        if (!Files.exists(storageDirectoryPath)) {
-            Files.createDirectories(storageDirectoryPath);
-        }
+        // Reject markup the vector stamping path cannot draw before it is stored
+        SvgSignature.parse(svgData);
 
         String filename = "signature_" + signatureId + "_" + UUID.randomUUID() + ".svg";
-        Path signatureFilePath = storageDirectoryPath.resolve(filename);
 
         // Write SVG data directly
-        Files.write(signatureFilePath, svgData.getBytes());
-
-        return signatureFilePath.toString();
+        return blobStore.put(signatureStorageDir, filename,
+                new ByteArrayInputStream(svgData.getBytes(StandardCharsets.UTF_8))).toString();
     }
 
     /**
      * Get file path for signature
      */
     public String getSignaturePath(Long signatureId) {
-        return Paths.get(signatureStorageDir, "signature_" + signatureId + ".png").toString();
+        return blobStore.locate(signatureStorageDir, "signature_" + signatureId + ".png").toString();
     }
 }
 
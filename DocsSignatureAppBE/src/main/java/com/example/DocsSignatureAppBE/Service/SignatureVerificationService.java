@@ -0,0 +1,536 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.DTO.DocumentVerificationDto;
+import com.example.DocsSignatureAppBE.DTO.SignatureVerificationDto;
+import com.example.DocsSignatureAppBE.Security.SigningKeyManager;
+import com.example.DocsSignatureAppBE.Util.MerkleTree;
+import com.example.DocsSignatureAppBE.Util.PdfUtils;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.asn1.cms.Time;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.DefaultCMSSignatureAlgorithmNameGenerator;
+import org.bouncycastle.cms.SignerId;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.cert.CertPathBuilder;
+import java.security.cert.CertStore;
+import java.security.cert.Certificate;
+import java.security.cert.CollectionCertStoreParameters;
+import java.security.cert.PKIXBuilderParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509CertSelector;
+import java.security.cert.X509Certificate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifies every signature in a PDF: the signed byte range against the CMS messageDigest (or, for
+ * Merkle batch signatures, the signed root through the inclusion proof), the CMS signature itself,
+ * and the signer's certificate chain at signing time. Signatures of one document and separate
+ * documents are checked in parallel.
+ *
+ * Results are cached at two levels: whole files by their SHA-256 as recorded at upload or signing,
+ * and single signatures by the digest of the revision they sign plus the CMS. A repeated request
+ * does not read the file at all, and a new revision only costs the crypto for its newest signature.
+ */
+@Service
+public class SignatureVerificationService {
+
+    private final PdfUtils pdfUtils;
+    private final SigningKeyManager signingKeyManager;
+    private final DocumentService documentService;
+    private final ExecutorService executor;
+    private final int maxCacheEntries;
+
+    private final LinkedHashMap<String, DocumentVerificationDto> documentCache = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, SignatureVerificationDto> signatureCache = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile Set<TrustAnchor> trustAnchors;
+
+    private final AtomicLong documentHits = new AtomicLong();
+    private final AtomicLong documentMisses = new AtomicLong();
+    private final AtomicLong signatureHits = new AtomicLong();
+    private final AtomicLong signatureMisses = new AtomicLong();
+
+    // Trust anchors for chain validation; without a trust store the root of the signing key's chain is trusted
+    @Value("${verification.trust-store.path:}")
+    private String trustStorePath;
+
+    @Value("${verification.trust-store.password:changeit}")
+    private String trustStorePassword;
+
+    @Value("${verification.batch.max-size:100}")
+    private int maxBatchSize;
+
+    public SignatureVerificationService(PdfUtils pdfUtils, SigningKeyManager signingKeyManager, DocumentService documentService,
+                                        @Value("${verification.workers:0}") int workers,
+                                        @Value("${verification.cache.max-entries:1000}") int maxCacheEntries) {
+        this.pdfUtils = pdfUtils;
+        this.signingKeyManager = signingKeyManager;
+        this.documentService = documentService;
+        this.maxCacheEntries = maxCacheEntries;
+
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "verify-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Verify all signatures of the latest revision of a document owned by the current user
+     */
+    public DocumentVerificationDto verifyDocument(Long documentId) throws IOException {
+        // Access check before the file is touched
+        documentService.getDocumentById(documentId);
+        String path = documentService.getCurrentRevisionPath(documentId);
+        return join(verifyAsync(documentId, path, documentService.getRevisionChecksum(documentId, path)));
+    }
+
+    /**
+     * Verify the latest revisions of several documents at once, in request order; documents and
+     * their signatures all share the worker pool
+     */
+    public List<DocumentVerificationDto> verifyDocuments(List<Long> documentIds) throws IOException {
+        if (documentIds == null || documentIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one document ID is required");
+        }
+        if (documentIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Cannot verify more than " + maxBatchSize + " documents at once");
+        }
+
+        List<CompletableFuture<DocumentVerificationDto>> futures = new ArrayList<>();
+        for (Long documentId : documentIds) {
+            documentService.getDocumentById(documentId);
+            String path = documentService.getCurrentRevisionPath(documentId);
+            futures.add(verifyAsync(documentId, path, documentService.getRevisionChecksum(documentId, path)));
+        }
+        List<DocumentVerificationDto> results = new ArrayList<>();
+        for (CompletableFuture<DocumentVerificationDto> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documentCacheEntries", documentCache.size());
+        stats.put("documentCacheHits", documentHits.get());
+        stats.put("documentCacheMisses", documentMisses.get());
+        stats.put("signatureCacheEntries", signatureCache.size());
+        stats.put("signatureCacheHits", signatureHits.get());
+        stats.put("signatureCacheMisses", signatureMisses.get());
+        stats.put("maxCacheEntries", maxCacheEntries);
+        return stats;
+    }
+
+    /**
+     * Drop cached results and trust anchors, e.g. after the trust store was replaced
+     */
+    public synchronized void clearCache() {
+        documentCache.clear();
+        signatureCache.clear();
+        trustAnchors = null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Answer from the cache by the recorded checksum, otherwise parse on a worker and fan out one
+     * task per signature. Nothing in the pool blocks on another task, so documents and signatures
+     * can share it without starving.
+     */
+    private CompletableFuture<DocumentVerificationDto> verifyAsync(Long documentId, String pdfPath, String sha256) {
+        DocumentVerificationDto cached = cachedDocument(sha256);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(
+                    new DocumentVerificationDto(documentId, sha256, true, cached.getMessage(), cached.getSignatures()));
+        }
+
+        Path path = Paths.get(pdfPath);
+        return CompletableFuture.supplyAsync(() -> {
+            List<SignatureContent> signatures;
+            try {
+                signatures = extractSignatures(path);
+            } catch (IOException e) {
+                return CompletableFuture.completedFuture(
+                        new DocumentVerificationDto(documentId, sha256, false, "Could not read PDF: " + e.getMessage(), List.of()));
+            }
+
+            List<CompletableFuture<SignatureVerificationDto>> checks = new ArrayList<>();
+            for (SignatureContent signature : signatures) {
+                checks.add(CompletableFuture.supplyAsync(() -> verifySignature(path, signature), executor));
+            }
+            return CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+                List<SignatureVerificationDto> results = new ArrayList<>();
+                for (CompletableFuture<SignatureVerificationDto> check : checks) {
+                    results.add(check.join());
+                }
+                DocumentVerificationDto result = new DocumentVerificationDto(documentId, sha256, false, null,
+                        Collections.unmodifiableList(results));
+                cacheDocument(sha256, result);
+                return result;
+            });
+        }, executor).thenCompose(verification -> verification);
+    }
+
+    private List<SignatureContent> extractSignatures(Path path) throws IOException {
+        List<SignatureContent> signatures = new ArrayList<>();
+        try (PDDocument document = pdfUtils.load(path.toString())) {
+            for (PDSignature signature : document.getSignatureDictionaries()) {
+                signatures.add(new SignatureContent(0, signature.getName(), signature.getSubFilter(),
+                        signature.getSignDate() != null ? signature.getSignDate().getTime() : null,
+                        signature.getByteRange(), signature.getContents()));
+            }
+        }
+        // Revision order: a signature covering a shorter prefix was applied earlier
+        signatures.sort((a, b) -> Long.compare(a.signedLength(), b.signedLength()));
+        for (int i = 0; i < signatures.size(); i++) {
+            signatures.get(i).revision = i + 1;
+        }
+        return signatures;
+    }
+
+    private SignatureVerificationDto verifySignature(Path path, SignatureContent content) {
+        SignatureVerificationDto result = new SignatureVerificationDto();
+        result.setRevision(content.revision);
+        result.setSignatureName(content.name);
+        result.setSubFilter(content.subFilter);
+        try {
+            long fileLength = Files.size(path);
+            int[] byteRange = content.byteRange;
+            if (byteRange == null || byteRange.length != 4 || byteRange[0] != 0
+                    || byteRange[2] < byteRange[1] || (long) byteRange[2] + byteRange[3] > fileLength) {
+                result.setMessage("Invalid /ByteRange");
+                return result;
+            }
+            result.setCoversWholeDocument((long) byteRange[2] + byteRange[3] == fileLength);
+
+            CMSSignedData cms = new CMSSignedData(content.contents);
+            SignerInformation signer = cms.getSignerInfos().getSigners().iterator().next();
+            byte[] documentDigest = digestByteRange(path, byteRange, signer.getDigestAlgOID());
+
+            String cacheKey = Hex.encodeHexString(documentDigest) + ":" + DigestUtils.sha256Hex(content.contents);
+            SignatureVerificationDto cached = cachedSignature(cacheKey);
+            if (cached != null) {
+                return withRevision(cached, content.revision, result.isCoversWholeDocument());
+            }
+
+            verifyCms(cms, signer, documentDigest, content, result);
+            cacheSignature(cacheKey, result);
+        } catch (Exception e) {
+            result.setMessage("Could not verify signature: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private void verifyCms(CMSSignedData cms, SignerInformation signer, byte[] documentDigest,
+                           SignatureContent content, SignatureVerificationDto result) throws Exception {
+        result.setDigestAlgorithm(new DefaultAlgorithmNameFinder().getAlgorithmName(signer.getDigestAlgorithmID()));
+        result.setSignatureAlgorithm(new DefaultCMSSignatureAlgorithmNameGenerator().getSignatureName(
+                signer.getDigestAlgorithmID(), signer.toASN1Structure().getDigestEncryptionAlgorithm()));
+
+        X509Certificate certificate = signerCertificate(cms, signer);
+        result.setSigner(certificate.getSubjectX500Principal().getName());
+        result.setIssuer(certificate.getIssuerX500Principal().getName());
+
+        Date signingTime = signingTime(signer.getSignedAttributes(), content.signDate);
+        if (signingTime != null) {
+            result.setSignedAt(LocalDateTime.ofInstant(signingTime.toInstant(), ZoneId.systemDefault()));
+        }
+
+        Attribute messageDigest = signer.getSignedAttributes() != null
+                ? signer.getSignedAttributes().get(CMSAttributes.messageDigest) : null;
+        if (messageDigest == null) {
+            result.setMessage("Signature has no messageDigest attribute");
+            return;
+        }
+        byte[] signedDigest = ASN1OctetString.getInstance(messageDigest.getAttrValues().getObjectAt(0)).getOctets();
+
+        // Batch signatures sign a Merkle root; the document digest has to lead to it through the proof
+        MerkleTree.InclusionProof proof = MerkleTree.InclusionProof.fromAttributes(signer.getUnsignedAttributes());
+        byte[] expected = documentDigest;
+        if (proof != null) {
+            result.setBatched(true);
+            result.setBatchLeafIndex(proof.getLeafIndex());
+            result.setBatchSize(proof.getTreeSize());
+            result.setBatchRoot(Hex.encodeHexString(signedDigest));
+            expected = proof.rootFor(documentDigest);
+        }
+        result.setDigestValid(expected != null && MessageDigest.isEqual(expected, signedDigest));
+
+        // Check the signature over the signed attributes against the digest they claim, so a digest
+        // mismatch and a bad signature are reported separately
+        CMSSignedData withDigest = new CMSSignedData(
+                Collections.singletonMap(signer.getDigestAlgorithmID().getAlgorithm(), signedDigest), content.contents);
+        SignerInformation detached = withDigest.getSignerInfos().get(signer.getSID());
+        try {
+            result.setSignatureValid(detached.verify(new JcaSimpleSignerInfoVerifierBuilder()
+                    .setProvider(BouncyCastleProvider.PROVIDER_NAME).build(certificate)));
+        } catch (Exception e) {
+            result.setSignatureValid(false);
+        }
+
+        String chainError = validateChain(cms, certificate, signingTime);
+        result.setChainValid(chainError == null);
+
+        if (!result.isDigestValid()) {
+            result.setMessage(proof != null
+                    ? "Document digest and inclusion proof do not reproduce the signed root"
+                    : "Document was modified after signing");
+        } else if (!result.isSignatureValid()) {
+            result.setMessage("Signature does not verify with the signer certificate");
+        } else if (chainError != null) {
+            result.setMessage(chainError);
+        }
+    }
+
+    /**
+     * Build a PKIX path from the signer certificate to a trust anchor, using the certificates
+     * embedded in the CMS, as of the signing time. Returns null if the chain is valid.
+     */
+    private String validateChain(CMSSignedData cms, X509Certificate certificate, Date signingTime) {
+        try {
+            Set<TrustAnchor> anchors = trustAnchors();
+            if (anchors.isEmpty()) {
+                return "No trust anchors available";
+            }
+            for (TrustAnchor anchor : anchors) {
+                if (certificate.equals(anchor.getTrustedCert())) {
+                    if (signingTime != null) {
+                        certificate.checkValidity(signingTime);
+                    }
+                    return null;
+                }
+            }
+
+            List<X509Certificate> embedded = new ArrayList<>();
+            JcaX509CertificateConverter converter = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME);
+            for (X509CertificateHolder holder : cms.getCertificates().getMatches(null)) {
+                embedded.add(converter.getCertificate(holder));
+            }
+
+            X509CertSelector target = new X509CertSelector();
+            target.setCertificate(certificate);
+            PKIXBuilderParameters parameters = new PKIXBuilderParameters(anchors, target);
+            parameters.addCertStore(CertStore.getInstance("Collection", new CollectionCertStoreParameters(embedded)));
+            // Revocation needs network access to CRLs/OCSP and would make cached results time-dependent
+            parameters.setRevocationEnabled(false);
+            if (signingTime != null) {
+                parameters.setDate(signingTime);
+            }
+            CertPathBuilder.getInstance("PKIX", BouncyCastleProvider.PROVIDER_NAME).build(parameters);
+            return null;
+        } catch (Exception e) {
+            return "Certificate chain is not trusted: " + e.getMessage();
+        }
+    }
+
+    private Set<TrustAnchor> trustAnchors() throws Exception {
+        Set<TrustAnchor> anchors = trustAnchors;
+        if (anchors != null) {
+            return anchors;
+        }
+        anchors = new HashSet<>();
+        if (trustStorePath != null && !trustStorePath.isBlank()) {
+            KeyStore trustStore = KeyStore.getInstance("PKCS12");
+            try (InputStream in = Files.newInputStream(Paths.get(trustStorePath))) {
+                trustStore.load(in, trustStorePassword.toCharArray());
+            }
+            for (String alias : Collections.list(trustStore.aliases())) {
+                Certificate certificate = trustStore.getCertificate(alias);
+                if (certificate instanceof X509Certificate) {
+                    anchors.add(new TrustAnchor((X509Certificate) certificate, null));
+                }
+            }
+        } else {
+            Certificate[] chain = signingKeyManager.getSigningKey().getCertificateChain();
+            anchors.add(new TrustAnchor((X509Certificate) chain[chain.length - 1], null));
+        }
+        trustAnchors = anchors;
+        return anchors;
+    }
+
+    private static X509Certificate signerCertificate(CMSSignedData cms, SignerInformation signer) throws Exception {
+        // SignerId is a raw Selector, so it is matched by hand rather than passed to the typed Store
+        SignerId signerId = signer.getSID();
+        for (X509CertificateHolder certificate : cms.getCertificates().getMatches(null)) {
+            if (signerId.match(certificate)) {
+                return new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME).getCertificate(certificate);
+            }
+        }
+        throw new IOException("Signer certificate is not embedded in the signature");
+    }
+
+    private static Date signingTime(AttributeTable signedAttributes, Date fallback) {
+        if (signedAttributes != null) {
+            Attribute attribute = signedAttributes.get(CMSAttributes.signingTime);
+            if (attribute != null && attribute.getAttrValues().size() == 1) {
+                return Time.getInstance(attribute.getAttrValues().getObjectAt(0)).getDate();
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Digest of the signed byte range with the signer's digest algorithm, read straight from the file
+     */
+    private static byte[] digestByteRange(Path path, int[] byteRange, String digestAlgorithmOid) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance(digestAlgorithmOid, BouncyCastleProvider.PROVIDER_NAME);
+        ByteBuffer buffer = ByteBuffer.allocate(65536);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < byteRange.length; i += 2) {
+                long position = byteRange[i];
+                long remaining = byteRange[i + 1];
+                while (remaining > 0) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException("/ByteRange extends past the end of the file");
+                    }
+                    buffer.flip();
+                    digest.update(buffer);
+                    position += read;
+                    remaining -= read;
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Cached signature results are shared, so the per-document fields are set on a copy
+     */
+    private static SignatureVerificationDto withRevision(SignatureVerificationDto cached, int revision, boolean coversWholeDocument) {
+        SignatureVerificationDto copy = new SignatureVerificationDto();
+        copy.setRevision(revision);
+        copy.setSignatureName(cached.getSignatureName());
+        copy.setSignedAt(cached.getSignedAt());
+        copy.setSubFilter(cached.getSubFilter());
+        copy.setDigestAlgorithm(cached.getDigestAlgorithm());
+        copy.setSignatureAlgorithm(cached.getSignatureAlgorithm());
+        copy.setSigner(cached.getSigner());
+        copy.setIssuer(cached.getIssuer());
+        copy.setCoversWholeDocument(coversWholeDocument);
+        copy.setBatched(cached.isBatched());
+        copy.setBatchLeafIndex(cached.getBatchLeafIndex());
+        copy.setBatchSize(cached.getBatchSize());
+        copy.setBatchRoot(cached.getBatchRoot());
+        copy.setDigestValid(cached.isDigestValid());
+        copy.setSignatureValid(cached.isSignatureValid());
+        copy.setChainValid(cached.isChainValid());
+        copy.setMessage(cached.getMessage());
+        return copy;
+    }
+
+    private synchronized DocumentVerificationDto cachedDocument(String sha256) {
+        DocumentVerificationDto cached = documentCache.get(sha256);
+        (cached != null ? documentHits : documentMisses).incrementAndGet();
+        return cached;
+    }
+
+    private synchronized void cacheDocument(String sha256, DocumentVerificationDto result) {
+        documentCache.put(sha256, result);
+        evict(documentCache);
+    }
+
+    private synchronized SignatureVerificationDto cachedSignature(String key) {
+        SignatureVerificationDto cached = signatureCache.get(key);
+        (cached != null ? signatureHits : signatureMisses).incrementAndGet();
+        return cached;
+    }
+
+    private synchronized void cacheSignature(String key, SignatureVerificationDto result) {
+        signatureCache.put(key, result);
+        evict(signatureCache);
+    }
+
+    private void evict(LinkedHashMap<String, ?> cache) {
+        var iterator = cache.entrySet().iterator();
+        while (cache.size() > maxCacheEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Verification failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Raw material of one signature, read while the document was open
+     */
+    private static class SignatureContent {
+        private int revision;
+        private final String name;
+        private final String subFilter;
+        private final Date signDate;
+        private final int[] byteRange;
+        private final byte[] contents;
+
+        SignatureContent(int revision, String name, String subFilter, Date signDate, int[] byteRange, byte[] contents) {
+            this.revision = revision;
+            this.name = name;
+            this.subFilter = subFilter;
+            this.signDate = signDate;
+            this.byteRange = byteRange;
+            this.contents = contents;
+        }
+
+        long signedLength() {
+            return byteRange != null && byteRange.length == 4 ? (long) byteRange[2] + byteRange[3] : Long.MAX_VALUE;
+        }
+    }
+}
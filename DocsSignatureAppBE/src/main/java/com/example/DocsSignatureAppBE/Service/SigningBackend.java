@@ -0,0 +1,28 @@
+package com.example.DocsSignatureAppBE.Service;
+
+import com.example.DocsSignatureAppBE.Security.SigningAlgorithm;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Produces the CMS for a prepared document digest in deferred signing. Implementations may sign
+ * in-process, on an HSM or through a remote service; callers hold neither a thread nor an open
+ * document while the future is pending.
+ */
+public interface SigningBackend {
+
+    /**
+     * Algorithm the next signature will use; the document digest is computed with its digest
+     */
+    SigningAlgorithm getAlgorithm() throws Exception;
+
+    /**
+     * Bytes to reserve in the document for the CMS this backend produces
+     */
+    int getContainerSize() throws Exception;
+
+    /**
+     * Sign the document digest, completing with the encoded detached CMS
+     */
+    CompletableFuture<byte[]> sign(byte[] digest, SigningAlgorithm algorithm);
+}
@@ -0,0 +1,53 @@
+package com.example.DocsSignatureAppBE.Storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Where uploads, signature images and signed outputs are kept. Every file group ("area") has a
+ * root directory, and files sit two hash-prefix levels below it ({@code <area>/ab/cd/<name>}), so
+ * no single directory grows past a few thousand entries.
+ *
+ * Callers keep working with local paths: PDFBox, file channels and downloads all need a file.
+ * Backends that hold the data elsewhere use the local layout as a working copy and bring files
+ * back on {@link #fetch(String)}.
+ */
+public interface BlobStore {
+
+    /**
+     * Sharded location of a file in an area. Nothing is created or fetched.
+     */
+    Path locate(String area, String name);
+
+    /**
+     * Directory for partial files on the same filesystem as the area, so moves into place are atomic
+     */
+    Path tempDir(String area) throws IOException;
+
+    /**
+     * Stream content into the area under the given name
+     */
+    Path put(String area, String name, InputStream content) throws IOException;
+
+    /**
+     * Move a finished file to a location returned by {@link #locate(String, String)} and store it
+     */
+    Path moveIn(Path source, Path target) throws IOException;
+
+    /**
+     * Store a file that was written directly to its located path
+     */
+    void persist(Path file) throws IOException;
+
+    /**
+     * Local file for a stored path, fetched from the backend when it is not present. A path the
+     * backend does not know is returned as is, so callers can keep their existence checks.
+     */
+    Path fetch(String path) throws IOException;
+
+    void delete(String path) throws IOException;
+
+    Map<String, Object> getStats();
+}
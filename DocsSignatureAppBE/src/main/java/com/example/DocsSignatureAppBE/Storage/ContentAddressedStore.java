@@ -0,0 +1,170 @@
+package com.example.DocsSignatureAppBE.Storage;
+
+import com.example.DocsSignatureAppBE.Entity.StoredBlob;
+import com.example.DocsSignatureAppBE.Repository.StoredBlobRepository;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Upload store keyed by content. The SHA-256 is computed while the upload is streamed to a
+ * temporary file, which is then moved into the {@link BlobStore} at {@code <root>/ab/cd/<sha256>}. Storing bytes that are
+ * already present only counts another reference; the file is removed when the last one is released.
+ */
+@Component
+public class ContentAddressedStore {
+
+    // Lock stripes, so uploads of the same content serialize without a global lock
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final BlobStore blobStore;
+    private final String root;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final AtomicLong blobsStored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesDeduplicated = new AtomicLong();
+    private final AtomicLong blobsDeleted = new AtomicLong();
+
+    public ContentAddressedStore(StoredBlobRepository storedBlobRepository, BlobStore blobStore,
+                                 @Value("${storage.blob.dir:./uploads/blobs}") String blobDir) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.blobStore = blobStore;
+        this.root = Paths.get(blobDir).toAbsolutePath().toString();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Stream the content to disk while hashing it, then either keep it under its hash or, if the
+     * same bytes are already stored, drop the copy and count a reference to the existing blob
+     */
+    public StoredBlob store(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(blobStore.tempDir(root), "upload_", ".tmp");
+        try {
+            long size;
+            try (DigestInputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return commit(temp, Hex.encodeHexString(digest.digest()), size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Hash a complete file, such as an assembled chunked upload, and move it into the store
+     * without copying. The file is consumed: moved into place, or deleted when the same content
+     * is already stored.
+     */
+    public StoredBlob storeFile(Path file) throws IOException {
+        try {
+            String sha256;
+            try (InputStream in = Files.newInputStream(file)) {
+                sha256 = DigestUtils.sha256Hex(in);
+            }
+            return commit(file, sha256, Files.size(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Count another reference to a stored blob, e.g. when a document is copied
+     */
+    public void retain(String sha256) {
+        synchronized (lockFor(sha256)) {
+            if (storedBlobRepository.incrementRefCount(sha256, LocalDateTime.now()) == 0) {
+                throw new IllegalArgumentException("No stored content with hash " + sha256);
+            }
+        }
+    }
+
+    /**
+     * Drop one reference to the blob at the given path. Files that did not come from this store,
+     * such as uploads made before it existed, are left alone and false is returned.
+     */
+    public boolean release(String sha256, String path) throws IOException {
+        if (sha256 == null || path == null) {
+            return false;
+        }
+        synchronized (lockFor(sha256)) {
+            Optional<StoredBlob> blob = storedBlobRepository.findBySha256(sha256);
+            if (blob.isEmpty() || !blob.get().getStoragePath().equals(path)) {
+                return false;
+            }
+            if (storedBlobRepository.decrementRefCount(sha256) == 0) {
+                storedBlobRepository.delete(blob.get());
+                blobStore.delete(path);
+                blobsDeleted.incrementAndGet();
+            }
+            return true;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("blobs", storedBlobRepository.count());
+        stats.put("blobsStored", blobsStored.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("bytesDeduplicated", bytesDeduplicated.get());
+        stats.put("blobsDeleted", blobsDeleted.get());
+        stats.put("backend", blobStore.getStats());
+        return stats;
+    }
+
+    private StoredBlob commit(Path temp, String sha256, long size) throws IOException {
+        synchronized (lockFor(sha256)) {
+            Optional<StoredBlob> existing = storedBlobRepository.findBySha256(sha256);
+            if (existing.isPresent() && Files.exists(blobStore.fetch(existing.get().getStoragePath()))) {
+                storedBlobRepository.incrementRefCount(sha256, LocalDateTime.now());
+                deduplicated.incrementAndGet();
+                bytesDeduplicated.addAndGet(size);
+                return storedBlobRepository.findBySha256(sha256).orElseThrow();
+            }
+
+            Path target = blobStore.moveIn(temp, blobStore.locate(root, sha256));
+            blobsStored.incrementAndGet();
+
+            // A row whose file went missing is repaired in place and keeps its references
+            StoredBlob blob = existing.orElseGet(() -> new StoredBlob(sha256, target.toString(), size));
+            if (existing.isPresent()) {
+                blob.setStoragePath(target.toString());
+                blob.setRefCount(blob.getRefCount() + 1);
+                blob.setLastReferencedAt(LocalDateTime.now());
+            }
+            return storedBlobRepository.save(blob);
+        }
+    }
+
+    private Object lockFor(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.DocsSignatureAppBE.Storage;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Sharded layout on the local filesystem. Files live at {@code <area>/ab/cd/<name>}, where
+ * ab and cd are the first hex digits of the SHA-256 of the name, or of the name itself when it
+ * already is a SHA-256.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    protected final AtomicLong filesStored = new AtomicLong();
+    protected final AtomicLong bytesStored = new AtomicLong();
+    protected final AtomicLong filesDeleted = new AtomicLong();
+
+    @Override
+    public Path locate(String area, String name) {
+        String hash = SHA256_HEX.matcher(name).matches() ? name : DigestUtils.sha256Hex(name);
+        return Paths.get(area).resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(name);
+    }
+
+    @Override
+    public Path tempDir(String area) throws IOException {
+        Path dir = Paths.get(area).resolve(".incoming");
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    @Override
+    public Path put(String area, String name, InputStream content) throws IOException {
+        Path temp = Files.createTempFile(tempDir(area), "put_", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            return moveIn(temp, locate(area, name));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Path moveIn(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        persist(target);
+        return target;
+    }
+
+    @Override
+    public void persist(Path file) throws IOException {
+        filesStored.incrementAndGet();
+        bytesStored.addAndGet(Files.size(file));
+    }
+
+    @Override
+    public Path fetch(String path) throws IOException {
+        return Paths.get(path);
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        if (Files.deleteIfExists(Paths.get(path))) {
+            filesDeleted.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", "local");
+        stats.put("filesStored", filesStored.get());
+        stats.put("bytesStored", bytesStored.get());
+        stats.put("filesDeleted", filesDeleted.get());
+        return stats;
+    }
+
+    /**
+     * Area-relative key of a path in the sharded layout ({@code <area name>/ab/cd/<name>}), or null
+     * for files outside it, such as uploads stored flat before sharding
+     */
+    protected String keyOf(Path path) {
+        Path shardDir = path.getParent();
+        Path areaRoot = shardDir != null && shardDir.getParent() != null ? shardDir.getParent().getParent() : null;
+        if (areaRoot == null || !locate(areaRoot.toString(), path.getFileName().toString()).equals(path)) {
+            return null;
+        }
+        Path area = areaRoot.toAbsolutePath().normalize().getFileName();
+        return (area != null ? area + "/" : "") + areaRoot.relativize(path).toString().replace('\\', '/');
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.DocsSignatureAppBE.Storage;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * S3-compatible backend. The bucket holds every stored file under the same sharded key the local
+ * layout uses; the local directories are a write-through cache that is refilled on demand, so a
+ * fresh node or a pruned disk still finds every document. A periodic sweep keeps the cache under
+ * {@code storage.s3.cache.max-bytes} by evicting the least recently used files that are idle and
+ * confirmed in the bucket. Point {@code storage.s3.endpoint} at a MinIO or LocalStack instance to
+ * run against a local stand-in; docker-compose.yml starts one.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+public class S3BlobStore extends LocalBlobStore {
+
+    private final S3Client s3;
+    private final String bucket;
+
+    @Value("${storage.s3.cache.max-bytes:10737418240}")
+    private long cacheMaxBytes;
+
+    // Files handed out this recently may still be opened by their caller and are never evicted
+    @Value("${storage.s3.cache.min-idle-minutes:60}")
+    private long cacheMinIdleMinutes;
+
+    // Area roots to sweep, the configured ones plus any seen since, and when each cached file was last handed out
+    private final Set<Path> areaRoots = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Long> lastAccess = new ConcurrentHashMap<>();
+
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong downloads = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong evictedBytes = new AtomicLong();
+
+    public S3BlobStore(@Value("${storage.s3.bucket}") String bucket,
+                       @Value("${storage.s3.region:us-east-1}") String region,
+                       @Value("${storage.s3.endpoint:}") String endpoint,
+                       @Value("${storage.s3.access-key:}") String accessKey,
+                       @Value("${storage.s3.secret-key:}") String secretKey,
+                       @Value("${storage.s3.path-style:true}") boolean pathStyle,
+                       @Value("${storage.blob.dir:./uploads/blobs}") String blobDir,
+                       @Value("${signature.storage.dir:./signature-uploads}") String signatureDir,
+                       @Value("${signature.output.dir:./signed-uploads}") String outputDir) {
+        this.bucket = bucket;
+        // Files cached before a restart are only found by walking the areas they live in
+        for (String area : List.of(blobDir, signatureDir, outputDir)) {
+            areaRoots.add(Paths.get(area).toAbsolutePath().normalize());
+        }
+
+        // Explicit keys for a local stand-in, the default AWS chain (env, profile, instance role) otherwise
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .forcePathStyle(pathStyle);
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        this.s3 = builder.build();
+    }
+
+    @Override
+    public void persist(Path file) throws IOException {
+        String key = keyOf(file);
+        if (key == null) {
+            throw new IOException("Not a stored path: " + file);
+        }
+        try {
+            s3.putObject(PutObjectRequest.builder().bucket(bucket).key(key).build(), RequestBody.fromFile(file));
+        } catch (SdkException e) {
+            throw new IOException("Upload of " + key + " failed: " + e.getMessage(), e);
+        }
+        uploads.incrementAndGet();
+        touch(file);
+        super.persist(file);
+    }
+
+    @Override
+    public Path fetch(String path) throws IOException {
+        Path local = Paths.get(path);
+        String key = keyOf(local);
+        if (key == null) {
+            return local;
+        }
+        touch(local);
+        if (Files.exists(local)) {
+            return local;
+        }
+
+        // Download next to the target and move into place, so concurrent readers never see a partial file
+        Files.createDirectories(local.getParent());
+        Path temp = Files.createTempFile(local.getParent(), "fetch_", ".tmp");
+        try {
+            // The SDK refuses to overwrite, it only needs the unique name
+            Files.delete(temp);
+            s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build(), ResponseTransformer.toFile(temp));
+            Files.move(temp, local, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            downloads.incrementAndGet();
+        } catch (NoSuchKeyException e) {
+            misses.incrementAndGet();
+        } catch (SdkException e) {
+            throw new IOException("Download of " + key + " failed: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return local;
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        super.delete(path);
+        lastAccess.remove(Paths.get(path).toAbsolutePath().normalize());
+        String key = keyOf(Paths.get(path));
+        if (key == null) {
+            return;
+        }
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (SdkException e) {
+            throw new IOException("Delete of " + key + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = super.getStats();
+        stats.put("backend", "s3");
+        stats.put("bucket", bucket);
+        stats.put("uploads", uploads.get());
+        stats.put("downloads", downloads.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("evictedBytes", evictedBytes.get());
+        stats.put("cacheMaxBytes", cacheMaxBytes);
+        return stats;
+    }
+
+    /**
+     * Trim the local working copy to the configured size, least recently used first. Only files
+     * idle for the minimum time and present in the bucket are removed; fetch brings them back.
+     */
+    @Scheduled(initialDelayString = "${storage.s3.cache.sweep-interval-ms:600000}",
+            fixedDelayString = "${storage.s3.cache.sweep-interval-ms:600000}")
+    public void evictWorkingCopy() {
+        List<CachedFile> files = new ArrayList<>();
+        long total = 0;
+        for (Path root : areaRoots) {
+            try (Stream<Path> walk = Files.walk(root, 3)) {
+                for (Path file : (Iterable<Path>) walk::iterator) {
+                    String key = Files.isRegularFile(file) ? keyOf(file) : null;
+                    if (key == null) {
+                        continue;
+                    }
+                    Path normalized = file.toAbsolutePath().normalize();
+                    Long accessed = lastAccess.get(normalized);
+                    long lastUsed = Math.max(accessed != null ? accessed : 0, Files.getLastModifiedTime(file).toMillis());
+                    long size = Files.size(file);
+                    files.add(new CachedFile(file, normalized, key, size, lastUsed));
+                    total += size;
+                }
+            } catch (IOException e) {
+                // A file vanished while walking; the next sweep sees a settled tree
+            }
+        }
+        if (total <= cacheMaxBytes) {
+            return;
+        }
+
+        long idleBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(cacheMinIdleMinutes);
+        files.sort(Comparator.comparingLong(file -> file.lastUsed));
+        for (CachedFile file : files) {
+            if (total <= cacheMaxBytes || file.lastUsed > idleBefore) {
+                break;
+            }
+            try {
+                // Never drop the only copy, e.g. a file whose upload failed during an outage
+                s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(file.key).build());
+                Files.deleteIfExists(file.path);
+                lastAccess.remove(file.normalized);
+                total -= file.size;
+                evictions.incrementAndGet();
+                evictedBytes.addAndGet(file.size);
+            } catch (SdkException | IOException e) {
+                // Not confirmed in the bucket or not removable right now; kept
+            }
+        }
+    }
+
+    private void touch(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        lastAccess.put(normalized, System.currentTimeMillis());
+        // <area>/ab/cd/<name>
+        Path areaRoot = normalized.getParent().getParent().getParent();
+        areaRoots.add(areaRoot);
+    }
+
+    private static class CachedFile {
+        final Path path;
+        final Path normalized;
+        final String key;
+        final long size;
+        final long lastUsed;
+
+        CachedFile(Path path, Path normalized, String key, long size, long lastUsed) {
+            this.path = path;
+            this.normalized = normalized;
+            this.key = key;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        s3.close();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a stored file to the response with a strong ETag from its content hash, answers
+ * If-None-Match with 304 and serves a single byte range (206) for viewers that load PDFs
+ * incrementally. The body goes out through the connector's sendfile when Tomcat offers it,
+ * otherwise through {@link FileChannel#transferTo}, never through a heap copy of the file.
+ */
+@Component
+public class FileDownloadWriter {
+
+    // Servlet request attributes of Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Value("${download.sendfile.enabled:true}")
+    private boolean sendfileEnabled;
+
+    // Below this size a plain channel transfer is cheaper than handing the file to the poller
+    @Value("${download.sendfile.min-bytes:49152}")
+    private long sendfileMinBytes;
+
+    private final AtomicLong fullResponses = new AtomicLong();
+    private final AtomicLong rangeResponses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong sendfileResponses = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * Send the file, or the requested range of it
+     *
+     * @param sha256 hex SHA-256 of the file content, used as the strong ETag; null sends no
+     *               ETag, so conditional requests always get the full file
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, Path file, String sha256,
+                      String contentType, String downloadName) throws IOException {
+        String etag = sha256 != null ? "\"" + sha256 + "\"" : null;
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Content never changes under a given hash, but access is per user: revalidate, don't share
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+
+        if (etag != null && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            notModified.incrementAndGet();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = file.toFile().length();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        // A stale If-Range means the client's partial copy is outdated: send everything
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.trim().equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                partial = true;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        (partial ? rangeResponses : fullResponses).incrementAndGet();
+
+        long count = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(count);
+        if (downloadName != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(downloadName, StandardCharsets.UTF_8).build().toString());
+        }
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (sendfileEnabled && count >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the region from the kernel page cache once the handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            sendfileResponses.incrementAndGet();
+            bytesSent.addAndGet(count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new IOException("File shrank while it was being sent");
+                }
+                position += sent;
+                remaining -= sent;
+                bytesSent.addAndGet(sent);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fullResponses", fullResponses.get());
+        stats.put("rangeResponses", rangeResponses.get());
+        stats.put("notModified", notModified.get());
+        stats.put("sendfileResponses", sendfileResponses.get());
+        stats.put("bytesSent", bytesSent.get());
+        return stats;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // Weak comparison, as RFC 9110 requires for If-None-Match
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse a Range header against the file length. Returns {start, end} (inclusive) for one
+     * satisfiable range, an empty array when the header should be ignored and the whole file sent
+     * (other units, several ranges, malformed syntax), or null when no range can be satisfied.
+     */
+    static long[] parseRange(String header, long length) {
+        String value = header.trim();
+        if (!value.startsWith("bytes=")) {
+            return new long[0];
+        }
+        String spec = value.substring("bytes=".length()).trim();
+        // Viewers ask for one range at a time; a multipart/byteranges reply is not worth it
+        if (spec.contains(",")) {
+            return new long[0];
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                long requestedEnd = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || requestedEnd < start) {
+                    return new long[0];
+                }
+                if (start >= length) {
+                    return null;
+                }
+                end = Math.min(requestedEnd, length - 1);
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.AttributeTable;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SHA-256 Merkle tree over document digests, hashed as in RFC 6962 (0x00 prefix for leaves,
+ * 0x01 for inner nodes) so a leaf can never be passed off as an inner node.
+ */
+public class MerkleTree {
+
+    private final byte[] root;
+    private final List<List<byte[]>> proofs;
+
+    /**
+     * Build the tree and every leaf's inclusion path in one pass
+     */
+    public MerkleTree(List<byte[]> leaves) {
+        if (leaves.isEmpty()) {
+            throw new IllegalArgumentException("Merkle tree needs at least one leaf");
+        }
+        this.proofs = new ArrayList<>(leaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            proofs.add(new ArrayList<>());
+        }
+        this.root = build(leaves, 0, leaves.size());
+    }
+
+    public byte[] getRoot() {
+        return root.clone();
+    }
+
+    public int size() {
+        return proofs.size();
+    }
+
+    /**
+     * Inclusion proof for the leaf at the given index
+     */
+    public InclusionProof proof(int index) {
+        return new InclusionProof(index, proofs.size(), proofs.get(index));
+    }
+
+    public static byte[] leafHash(byte[] leaf) {
+        MessageDigest digest = sha256();
+        digest.update((byte) 0x00);
+        digest.update(leaf);
+        return digest.digest();
+    }
+
+    public static byte[] nodeHash(byte[] left, byte[] right) {
+        MessageDigest digest = sha256();
+        digest.update((byte) 0x01);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+
+    /**
+     * Hash of leaves [from, to). Splits at the largest power of two below the size, and appends
+     * the sibling hash at this level to the path of every leaf underneath, so paths end up
+     * ordered from the leaf towards the root.
+     */
+    private byte[] build(List<byte[]> leaves, int from, int to) {
+        if (to - from == 1) {
+            return leafHash(leaves.get(from));
+        }
+        int split = Integer.highestOneBit(to - from - 1);
+        byte[] left = build(leaves, from, from + split);
+        byte[] right = build(leaves, from + split, to);
+        for (int i = from; i < from + split; i++) {
+            proofs.get(i).add(right);
+        }
+        for (int i = from + split; i < to; i++) {
+            proofs.get(i).add(left);
+        }
+        return nodeHash(left, right);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Position of one leaf in a signed tree plus the sibling hashes needed to recompute the root.
+     * Travels in the CMS SignerInfo as an unsigned attribute:
+     * <pre>
+     * MerkleInclusionProof ::= SEQUENCE {
+     *     leafIndex INTEGER,
+     *     treeSize  INTEGER,
+     *     path      SEQUENCE OF OCTET STRING }
+     * </pre>
+     */
+    public static class InclusionProof {
+
+        // Self-assigned under the UUID arc (X.667), no registration needed
+        public static final ASN1ObjectIdentifier ATTRIBUTE_OID =
+                new ASN1ObjectIdentifier("2.25.88744319122190918377383067891755114092");
+
+        private final int leafIndex;
+        private final int treeSize;
+        private final List<byte[]> path;
+
+        public InclusionProof(int leafIndex, int treeSize, List<byte[]> path) {
+            this.leafIndex = leafIndex;
+            this.treeSize = treeSize;
+            this.path = Collections.unmodifiableList(new ArrayList<>(path));
+        }
+
+        public int getLeafIndex() { return leafIndex; }
+        public int getTreeSize() { return treeSize; }
+        public List<byte[]> getPath() { return path; }
+
+        /**
+         * Root implied by this proof for the given leaf, or null if the path does not fit the
+         * tree shape (RFC 9162, section 2.1.3.2)
+         */
+        public byte[] rootFor(byte[] leaf) {
+            if (leafIndex < 0 || leafIndex >= treeSize) {
+                return null;
+            }
+            long fn = leafIndex;
+            long sn = treeSize - 1;
+            byte[] r = leafHash(leaf);
+            for (byte[] p : path) {
+                if (sn == 0) {
+                    return null;
+                }
+                if ((fn & 1) == 1 || fn == sn) {
+                    r = nodeHash(p, r);
+                    while ((fn & 1) == 0 && fn != 0) {
+                        fn >>= 1;
+                        sn >>= 1;
+                    }
+                } else {
+                    r = nodeHash(r, p);
+                }
+                fn >>= 1;
+                sn >>= 1;
+            }
+            return sn == 0 ? r : null;
+        }
+
+        public Attribute toAttribute() {
+            ASN1EncodableVector hashes = new ASN1EncodableVector();
+            for (byte[] hash : path) {
+                hashes.add(new DEROctetString(hash));
+            }
+            ASN1EncodableVector proof = new ASN1EncodableVector();
+            proof.add(new ASN1Integer(leafIndex));
+            proof.add(new ASN1Integer(treeSize));
+            proof.add(new DERSequence(hashes));
+            return new Attribute(ATTRIBUTE_OID, new DERSet(new DERSequence(proof)));
+        }
+
+        /**
+         * Proof carried in the given unsigned attributes, or null if there is none
+         */
+        public static InclusionProof fromAttributes(AttributeTable unsignedAttributes) {
+            if (unsignedAttributes == null) {
+                return null;
+            }
+            Attribute attribute = unsignedAttributes.get(ATTRIBUTE_OID);
+            if (attribute == null || attribute.getAttrValues().size() != 1) {
+                return null;
+            }
+            try {
+                ASN1Sequence proof = ASN1Sequence.getInstance(attribute.getAttrValues().getObjectAt(0));
+                List<byte[]> path = new ArrayList<>();
+                for (ASN1Encodable hash : ASN1Sequence.getInstance(proof.getObjectAt(2))) {
+                    path.add(ASN1OctetString.getInstance(hash).getOctets());
+                }
+                return new InclusionProof(ASN1Integer.getInstance(proof.getObjectAt(0)).intValueExact(),
+                        ASN1Integer.getInstance(proof.getObjectAt(1)).intValueExact(), path);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed Merkle inclusion proof: " + e.getMessage(), e);
+            }
+        }
+    }
+}
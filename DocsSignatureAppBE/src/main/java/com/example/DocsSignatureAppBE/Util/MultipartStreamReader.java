@@ -0,0 +1,274 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads a multipart/form-data body part by part as it arrives, without buffering parts in memory or
+ * on disk. Each part's content is an {@link InputStream} that ends at the next boundary; it must be
+ * read (or is skipped) before the next part is returned. A malformed or truncated body is the
+ * client's fault and raises IllegalArgumentException; IOException is left to the underlying stream.
+ */
+public class MultipartStreamReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final Pattern DISPOSITION_PARAM =
+            Pattern.compile("(?i);\\s*(name|filename)\\s*=\\s*(\"((?:[^\"\\\\]|\\\\.)*)\"|[^;]*)");
+
+    private final InputStream in;
+    // CRLF "--" boundary; the body is read as if preceded by CRLF, so the first boundary matches too
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private boolean finished;
+    // Stream of the part being read; the preamble before the first boundary counts as one
+    private PartInputStream current;
+
+    public MultipartStreamReader(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 4)];
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        limit = 2;
+        current = new PartInputStream();
+    }
+
+    /**
+     * Boundary parameter of a multipart Content-Type, or null if the type is not multipart
+     */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return null;
+        }
+        for (String param : contentType.split(";")) {
+            String p = param.trim();
+            if (p.regionMatches(true, 0, "boundary=", 0, 9)) {
+                String value = p.substring(9).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                // RFC 2046 limits boundaries to 70 characters
+                return value.isEmpty() || value.length() > 70 ? null : value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skip whatever is left of the current part and return the next one, or null after the closing boundary
+     */
+    public Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        current.skipRest();
+
+        if (!fill(2)) {
+            throw new IllegalArgumentException("Unexpected end of multipart body");
+        }
+        if (buffer[pos] == '-' && buffer[pos + 1] == '-') {
+            // Closing boundary, the epilogue is ignored
+            finished = true;
+            return null;
+        }
+        // Rest of the boundary line: optional transport padding, then CRLF
+        readLine(MAX_HEADER_BYTES);
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        int headerBytes = 0;
+        String line;
+        while (!(line = readLine(MAX_HEADER_BYTES)).isEmpty()) {
+            headerBytes += line.length();
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw new IllegalArgumentException("Multipart headers too large");
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+
+        current = new PartInputStream();
+        return new Part(headers, current);
+    }
+
+    /**
+     * Copy part content up to the next delimiter; -1 once the delimiter is reached (and consumed)
+     */
+    private int readBody(byte[] b, int off, int len) throws IOException {
+        while (true) {
+            int found = indexOfDelimiter();
+            if (found == pos) {
+                pos += delimiter.length;
+                return -1;
+            }
+            // Without a match, the last delimiter.length - 1 bytes could still be the start of one
+            int safe = found >= 0 ? found - pos : limit - pos - (delimiter.length - 1);
+            if (safe > 0) {
+                int n = Math.min(len, safe);
+                System.arraycopy(buffer, pos, b, off, n);
+                pos += n;
+                return n;
+            }
+            if (eof) {
+                throw new IllegalArgumentException("Unexpected end of multipart body");
+            }
+            fillMore();
+        }
+    }
+
+    private int indexOfDelimiter() {
+        int last = limit - delimiter.length;
+        outer:
+        for (int i = pos; i <= last; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private String readLine(int max) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            if (!fill(1)) {
+                throw new IllegalArgumentException("Unexpected end of multipart body");
+            }
+            byte c = buffer[pos++];
+            if (c == '\n') {
+                break;
+            }
+            if (line.size() >= max) {
+                throw new IllegalArgumentException("Multipart header line too long");
+            }
+            line.write(c);
+        }
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Make at least n unread bytes available; false if the body ends first
+     */
+    private boolean fill(int n) throws IOException {
+        while (limit - pos < n) {
+            if (eof) {
+                return false;
+            }
+            fillMore();
+        }
+        return true;
+    }
+
+    private void fillMore() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        int n = in.read(buffer, limit, buffer.length - limit);
+        if (n < 0) {
+            eof = true;
+        } else {
+            limit += n;
+        }
+    }
+
+    private class PartInputStream extends InputStream {
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int n = readBody(b, off, len);
+            if (n < 0) {
+                done = true;
+            }
+            return n;
+        }
+
+        void skipRest() throws IOException {
+            byte[] scratch = new byte[8192];
+            while (read(scratch, 0, scratch.length) >= 0) {
+                // discard
+            }
+        }
+    }
+
+    /**
+     * One part of the body: a form field or an uploaded file
+     */
+    public static class Part {
+        private final Map<String, String> headers;
+        private final InputStream content;
+        private final String name;
+        private final String filename;
+
+        Part(Map<String, String> headers, InputStream content) {
+            this.headers = headers;
+            this.content = content;
+            String name = null;
+            String filename = null;
+            String disposition = headers.get("content-disposition");
+            if (disposition != null) {
+                Matcher m = DISPOSITION_PARAM.matcher(disposition);
+                while (m.find()) {
+                    String value = m.group(3) != null ? m.group(3).replaceAll("\\\\(.)", "$1") : m.group(2).trim();
+                    if ("name".equalsIgnoreCase(m.group(1))) {
+                        name = value;
+                    } else {
+                        // Some browsers send the full client path
+                        filename = value.substring(Math.max(value.lastIndexOf('/'), value.lastIndexOf('\\')) + 1);
+                    }
+                }
+            }
+            this.name = name;
+            this.filename = filename;
+        }
+
+        public String getName() { return name; }
+        /** Client file name, or null for a plain form field */
+        public String getFilename() { return filename; }
+        public String getContentType() { return headers.get("content-type"); }
+        public Map<String, String> getHeaders() { return headers; }
+        public InputStream getInputStream() { return content; }
+
+        /**
+         * Content of a form field as UTF-8 text, refusing fields longer than maxBytes
+         */
+        public String readString(int maxBytes) throws IOException {
+            byte[] bytes = content.readNBytes(maxBytes + 1);
+            if (bytes.length > maxBytes) {
+                throw new IllegalArgumentException("Form field " + name + " is too long");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
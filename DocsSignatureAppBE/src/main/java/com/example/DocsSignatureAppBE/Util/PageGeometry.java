@@ -0,0 +1,155 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Size and orientation of a single PDF page, captured once at upload time.
+ * Boxes are in PDF user space units (points).
+ */
+public class PageGeometry {
+
+    private static final String PAGE_SEPARATOR = ";";
+    private static final String VALUE_SEPARATOR = ",";
+
+    private final float mediaX;
+    private final float mediaY;
+    private final float mediaWidth;
+    private final float mediaHeight;
+    private final float cropX;
+    private final float cropY;
+    private final float cropWidth;
+    private final float cropHeight;
+    private final int rotation;
+
+    public PageGeometry(float mediaX, float mediaY, float mediaWidth, float mediaHeight,
+                        float cropX, float cropY, float cropWidth, float cropHeight, int rotation) {
+        this.mediaX = mediaX;
+        this.mediaY = mediaY;
+        this.mediaWidth = mediaWidth;
+        this.mediaHeight = mediaHeight;
+        this.cropX = cropX;
+        this.cropY = cropY;
+        this.cropWidth = cropWidth;
+        this.cropHeight = cropHeight;
+        this.rotation = normalizeRotation(rotation);
+    }
+
+    /**
+     * Capture the geometry of a loaded page
+     */
+    public static PageGeometry of(PDPage page) {
+        PDRectangle media = page.getMediaBox();
+        PDRectangle crop = page.getCropBox();
+        return new PageGeometry(
+                media.getLowerLeftX(), media.getLowerLeftY(), media.getWidth(), media.getHeight(),
+                crop.getLowerLeftX(), crop.getLowerLeftY(), crop.getWidth(), crop.getHeight(),
+                page.getRotation());
+    }
+
+    /**
+     * Capture the geometry of every page of a loaded document
+     */
+    public static List<PageGeometry> of(PDDocument document) {
+        List<PageGeometry> pages = new ArrayList<>(document.getNumberOfPages());
+        for (PDPage page : document.getPages()) {
+            pages.add(of(page));
+        }
+        return pages;
+    }
+
+    /**
+     * Encode pages as "mx,my,mw,mh,cx,cy,cw,ch,rotation" separated by ";"
+     */
+    public static String encode(List<PageGeometry> pages) {
+        StringBuilder sb = new StringBuilder();
+        for (PageGeometry page : pages) {
+            if (sb.length() > 0) {
+                sb.append(PAGE_SEPARATOR);
+            }
+            sb.append(format(page.mediaX)).append(VALUE_SEPARATOR)
+              .append(format(page.mediaY)).append(VALUE_SEPARATOR)
+              .append(format(page.mediaWidth)).append(VALUE_SEPARATOR)
+              .append(format(page.mediaHeight)).append(VALUE_SEPARATOR)
+              .append(format(page.cropX)).append(VALUE_SEPARATOR)
+              .append(format(page.cropY)).append(VALUE_SEPARATOR)
+              .append(format(page.cropWidth)).append(VALUE_SEPARATOR)
+              .append(format(page.cropHeight)).append(VALUE_SEPARATOR)
+              .append(page.rotation);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Decode the format written by {@link #encode(List)}
+     */
+    public static List<PageGeometry> decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String[] pageParts = encoded.split(PAGE_SEPARATOR);
+        List<PageGeometry> pages = new ArrayList<>(pageParts.length);
+        for (String pagePart : pageParts) {
+            String[] v = pagePart.split(VALUE_SEPARATOR);
+            if (v.length != 9) {
+                throw new IllegalArgumentException("Malformed page geometry entry: " + pagePart);
+            }
+            pages.add(new PageGeometry(
+                    Float.parseFloat(v[0]), Float.parseFloat(v[1]), Float.parseFloat(v[2]), Float.parseFloat(v[3]),
+                    Float.parseFloat(v[4]), Float.parseFloat(v[5]), Float.parseFloat(v[6]), Float.parseFloat(v[7]),
+                    Integer.parseInt(v[8])));
+        }
+        return pages;
+    }
+
+    private static String format(float value) {
+        // Two decimals are well below a printer dot and keep the record compact
+        String s = String.format(Locale.ROOT, "%.2f", value);
+        if (s.contains(".")) {
+            s = s.replaceAll("0+$", "");
+            if (s.endsWith(".")) {
+                s = s.substring(0, s.length() - 1);
+            }
+        }
+        return s;
+    }
+
+    private static int normalizeRotation(int rotation) {
+        int r = rotation % 360;
+        if (r < 0) {
+            r += 360;
+        }
+        // /Rotate must be a multiple of 90
+        return (r / 90) * 90;
+    }
+
+    /**
+     * Width of the visible page as displayed, i.e. after /Rotate is applied
+     */
+    public float getDisplayWidth() {
+        return (rotation == 90 || rotation == 270) ? cropHeight : cropWidth;
+    }
+
+    /**
+     * Height of the visible page as displayed, i.e. after /Rotate is applied
+     */
+    public float getDisplayHeight() {
+        return (rotation == 90 || rotation == 270) ? cropWidth : cropHeight;
+    }
+
+    public float getMediaX() { return mediaX; }
+    public float getMediaY() { return mediaY; }
+    public float getMediaWidth() { return mediaWidth; }
+    public float getMediaHeight() { return mediaHeight; }
+    public float getCropX() { return cropX; }
+    public float getCropY() { return cropY; }
+    public float getCropWidth() { return cropWidth; }
+    public float getCropHeight() { return cropHeight; }
+    public int getRotation() { return rotation; }
+}
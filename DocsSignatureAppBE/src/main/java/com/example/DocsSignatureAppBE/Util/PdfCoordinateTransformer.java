@@ -0,0 +1,101 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import com.example.DocsSignatureAppBE.DTO.SignaturePositionDto;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.util.Matrix;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps frontend placements to PDF user space.
+ * The frontend works in percentages of the page as displayed: top-left origin, CropBox only,
+ * with /Rotate already applied. PDF user space has a bottom-left origin on the unrotated page.
+ */
+@Component
+public class PdfCoordinateTransformer {
+
+    /**
+     * Group positions by zero-based page index, keeping request order within each page
+     */
+    public Map<Integer, List<SignaturePositionDto>> groupByPage(List<SignaturePositionDto> positions) {
+        Map<Integer, List<SignaturePositionDto>> byPage = new LinkedHashMap<>();
+        for (SignaturePositionDto pos : positions) {
+            int pageIndex = Math.max(0, pos.getPageNumber() - 1);
+            byPage.computeIfAbsent(pageIndex, k -> new ArrayList<>()).add(pos);
+        }
+        return byPage;
+    }
+
+    /**
+     * Transform all positions that belong to one page
+     */
+    public List<Matrix> toUserSpace(PageGeometry page, List<SignaturePositionDto> positions) {
+        List<Matrix> matrices = new ArrayList<>(positions.size());
+        for (SignaturePositionDto pos : positions) {
+            matrices.add(toUserSpace(page, pos));
+        }
+        return matrices;
+    }
+
+    /**
+     * Matrix that maps the unit square onto the placement in user space, rotated so that
+     * the stamp appears upright in the displayed page. Suitable for drawImage(image, matrix)
+     * or as a cm transform for vector content drawn in a unit box.
+     */
+    public Matrix toUserSpace(PageGeometry page, SignaturePositionDto pos) {
+        float u = (pos.getXPercent() / 100f) * page.getDisplayWidth();
+        float v = (pos.getYPercent() / 100f) * page.getDisplayHeight();
+        float w = pos.getWidth();
+        float h = pos.getHeight();
+        float cx = page.getCropX();
+        float cy = page.getCropY();
+        float cw = page.getCropWidth();
+        float ch = page.getCropHeight();
+
+        switch (page.getRotation()) {
+            case 90:
+                return new Matrix(0, w, -h, 0, cx + v + h, cy + u);
+            case 180:
+                return new Matrix(-w, 0, 0, -h, cx + cw - u, cy + v + h);
+            case 270:
+                return new Matrix(0, -w, h, 0, cx + cw - v - h, cy + ch - u);
+            default:
+                return new Matrix(w, 0, 0, h, cx + u, cy + ch - v - h);
+        }
+    }
+
+    /**
+     * Axis-aligned bounds of the placement in user space
+     */
+    public PDRectangle toUserSpaceBounds(PageGeometry page, SignaturePositionDto pos) {
+        Matrix m = toUserSpace(page, pos);
+        float[][] corners = {{0, 0}, {1, 0}, {0, 1}, {1, 1}};
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (float[] c : corners) {
+            float x = m.getScaleX() * c[0] + m.getShearX() * c[1] + m.getTranslateX();
+            float y = m.getShearY() * c[0] + m.getScaleY() * c[1] + m.getTranslateY();
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        return new PDRectangle(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /**
+     * Check that the placement lies inside the visible CropBox, with a small rounding tolerance
+     */
+    public boolean fitsOnPage(PageGeometry page, SignaturePositionDto pos) {
+        PDRectangle bounds = toUserSpaceBounds(page, pos);
+        float tolerance = 0.5f;
+        return bounds.getLowerLeftX() >= page.getCropX() - tolerance
+                && bounds.getLowerLeftY() >= page.getCropY() - tolerance
+                && bounds.getUpperRightX() <= page.getCropX() + page.getCropWidth() + tolerance
+                && bounds.getUpperRightY() <= page.getCropY() + page.getCropHeight() + tolerance;
+    }
+}
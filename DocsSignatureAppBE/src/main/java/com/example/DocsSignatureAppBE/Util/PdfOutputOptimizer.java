@@ -0,0 +1,263 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Output optimization for documents that are rewritten in full: identical image XObjects and
+ * embedded font programs are merged into a single object, and the file is written with object
+ * streams and an xref stream. Only safe before the first signature, since a full rewrite
+ * invalidates any existing one.
+ */
+@Component
+public class PdfOutputOptimizer {
+
+    private static final COSName[] FONT_FILE_KEYS = {COSName.FONT_FILE, COSName.FONT_FILE2, COSName.FONT_FILE3};
+
+    @Value("${pdf.output.optimize:false}")
+    private boolean enabled;
+
+    @Value("${pdf.output.object-stream-size:100}")
+    private int objectStreamSize;
+
+    private final AtomicLong documentsOptimized = new AtomicLong();
+    private final AtomicLong imagesDeduplicated = new AtomicLong();
+    private final AtomicLong fontFilesDeduplicated = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong saveNanos = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the document can be rewritten in full without breaking an existing signature
+     */
+    public boolean canRewrite(PDDocument document) throws IOException {
+        return document.getSignatureDictionaries().isEmpty();
+    }
+
+    /**
+     * Compression settings for a full save: object streams plus xref stream
+     */
+    public CompressParameters compressParameters() {
+        return new CompressParameters(objectStreamSize);
+    }
+
+    /**
+     * Deduplicate and save with compression. The input size is used for the before/after counters.
+     */
+    public void optimizeAndSave(PDDocument document, File output, long inputSize) throws IOException {
+        deduplicate(document);
+
+        long start = System.nanoTime();
+        document.save(output, compressParameters());
+        saveNanos.addAndGet(System.nanoTime() - start);
+
+        documentsOptimized.incrementAndGet();
+        bytesIn.addAndGet(inputSize);
+        bytesOut.addAndGet(output.length());
+    }
+
+    /**
+     * Point every reference to an identical image XObject or font program at one shared stream.
+     * Orphaned copies are dropped by the next full save.
+     */
+    public void deduplicate(PDDocument document) throws IOException {
+        Map<String, COSStream> images = new HashMap<>();
+        Map<String, COSStream> fontFiles = new HashMap<>();
+        Set<COSDictionary> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PDPage page : document.getPages()) {
+            if (page.getResources() != null) {
+                deduplicateResources(page.getResources().getCOSObject(), images, fontFiles, visited);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("documentsOptimized", documentsOptimized.get());
+        stats.put("imagesDeduplicated", imagesDeduplicated.get());
+        stats.put("fontFilesDeduplicated", fontFilesDeduplicated.get());
+        stats.put("bytesIn", bytesIn.get());
+        stats.put("bytesOut", bytesOut.get());
+        stats.put("saveMillis", saveNanos.get() / 1_000_000);
+        return stats;
+    }
+
+    private void deduplicateResources(COSDictionary resources, Map<String, COSStream> images,
+                                      Map<String, COSStream> fontFiles, Set<COSDictionary> visited) throws IOException {
+        if (resources == null || !visited.add(resources)) {
+            return;
+        }
+
+        COSDictionary xObjects = resources.getCOSDictionary(COSName.XOBJECT);
+        if (xObjects != null) {
+            for (COSName name : new ArrayList<>(xObjects.keySet())) {
+                COSBase base = xObjects.getDictionaryObject(name);
+                if (!(base instanceof COSStream)) {
+                    continue;
+                }
+                COSStream stream = (COSStream) base;
+                if (COSName.IMAGE.equals(stream.getCOSName(COSName.SUBTYPE))) {
+                    COSStream canonical = images.computeIfAbsent(fingerprint(stream), k -> stream);
+                    if (canonical != stream) {
+                        xObjects.setItem(name, canonical);
+                        imagesDeduplicated.incrementAndGet();
+                    }
+                } else if (COSName.FORM.equals(stream.getCOSName(COSName.SUBTYPE))) {
+                    deduplicateResources(stream.getCOSDictionary(COSName.RESOURCES), images, fontFiles, visited);
+                }
+            }
+        }
+
+        COSDictionary fonts = resources.getCOSDictionary(COSName.FONT);
+        if (fonts != null) {
+            for (COSName name : new ArrayList<>(fonts.keySet())) {
+                COSBase base = fonts.getDictionaryObject(name);
+                if (!(base instanceof COSDictionary)) {
+                    continue;
+                }
+                COSDictionary font = (COSDictionary) base;
+                deduplicateFontFile(font.getCOSDictionary(COSName.FONT_DESC), fontFiles);
+                COSArray descendants = font.getCOSArray(COSName.DESCENDANT_FONTS);
+                if (descendants != null && descendants.size() > 0 && descendants.getObject(0) instanceof COSDictionary) {
+                    COSDictionary descendant = (COSDictionary) descendants.getObject(0);
+                    deduplicateFontFile(descendant.getCOSDictionary(COSName.FONT_DESC), fontFiles);
+                }
+                // Type 3 glyph procedures may use their own resources
+                if (COSName.TYPE3.equals(font.getCOSName(COSName.SUBTYPE))) {
+                    deduplicateResources(font.getCOSDictionary(COSName.RESOURCES), images, fontFiles, visited);
+                }
+            }
+        }
+    }
+
+    private void deduplicateFontFile(COSDictionary descriptor, Map<String, COSStream> fontFiles) throws IOException {
+        if (descriptor == null) {
+            return;
+        }
+        for (COSName key : FONT_FILE_KEYS) {
+            COSBase base = descriptor.getDictionaryObject(key);
+            if (base instanceof COSStream) {
+                COSStream stream = (COSStream) base;
+                COSStream canonical = fontFiles.computeIfAbsent(key.getName() + ":" + fingerprint(stream), k -> stream);
+                if (canonical != stream) {
+                    descriptor.setItem(key, canonical);
+                    fontFilesDeduplicated.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Content identity of a stream: its dictionary (minus /Length) and raw, still-encoded bytes.
+     * Nested streams such as an /SMask are fingerprinted recursively.
+     */
+    private String fingerprint(COSStream stream) throws IOException {
+        MessageDigest digest = sha256();
+        StringBuilder sb = new StringBuilder();
+        describe(stream, sb, Collections.newSetFromMap(new IdentityHashMap<>()));
+        digest.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+        updateWithRawData(stream, digest);
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private void describe(COSBase base, StringBuilder sb, Set<COSBase> path) throws IOException {
+        if (base instanceof COSObject) {
+            base = ((COSObject) base).getObject();
+        }
+        if (base == null) {
+            sb.append("null");
+        } else if (base instanceof COSStream) {
+            if (!path.add(base)) {
+                sb.append("<cycle>");
+                return;
+            }
+            describeDictionary((COSDictionary) base, sb, path);
+            MessageDigest digest = sha256();
+            updateWithRawData((COSStream) base, digest);
+            sb.append("stream:").append(Hex.encodeHexString(digest.digest()));
+            path.remove(base);
+        } else if (base instanceof COSDictionary) {
+            if (!path.add(base)) {
+                sb.append("<cycle>");
+                return;
+            }
+            describeDictionary((COSDictionary) base, sb, path);
+            path.remove(base);
+        } else if (base instanceof COSArray) {
+            sb.append('[');
+            for (COSBase item : (COSArray) base) {
+                describe(item, sb, path);
+                sb.append(' ');
+            }
+            sb.append(']');
+        } else {
+            sb.append(base.toString());
+        }
+    }
+
+    private void describeDictionary(COSDictionary dict, StringBuilder sb, Set<COSBase> path) throws IOException {
+        // Sorted keys, so producers that order entries differently still match
+        List<COSName> keys = new ArrayList<>(dict.keySet());
+        keys.sort(Comparator.comparing(COSName::getName));
+        sb.append("<<");
+        for (COSName key : keys) {
+            if (COSName.LENGTH.equals(key)) {
+                continue;
+            }
+            sb.append('/').append(key.getName()).append(' ');
+            describe(dict.getItem(key), sb, path);
+            sb.append(' ');
+        }
+        sb.append(">>");
+    }
+
+    private static void updateWithRawData(COSStream stream, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = stream.createRawInputStream()) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.springframework.http.HttpStatus;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks an upload while it streams: the size limit is enforced as bytes arrive and the PDF header
+ * is looked for in the first kilobyte, so a bad upload fails before it is committed to storage.
+ */
+public class PdfUploadInputStream extends FilterInputStream {
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    // PDF readers accept the header anywhere in the first kilobyte
+    public static final int HEADER_WINDOW = 1024;
+
+    private final long maxSize;
+    private final byte[] head = new byte[HEADER_WINDOW];
+    private int headLength;
+    private boolean headerChecked;
+    private long count;
+
+    public PdfUploadInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n < 0 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n < 0) {
+            checkHeader();
+            return n;
+        }
+        count += n;
+        if (count > maxSize) {
+            throw new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "File size exceeds maximum allowed size of " + maxSize + " bytes");
+        }
+        if (!headerChecked) {
+            int copy = Math.min(n, HEADER_WINDOW - headLength);
+            System.arraycopy(b, off, head, headLength, copy);
+            headLength += copy;
+            if (headLength == HEADER_WINDOW) {
+                checkHeader();
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Skipped bytes would escape both checks
+        byte[] scratch = new byte[(int) Math.min(n, 8192)];
+        int read = read(scratch, 0, scratch.length);
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private void checkHeader() throws UploadRejectedException {
+        if (headerChecked) {
+            return;
+        }
+        headerChecked = true;
+        if (!hasPdfHeader(head, headLength)) {
+            throw new UploadRejectedException(HttpStatus.BAD_REQUEST, "Uploaded file is not a valid PDF");
+        }
+    }
+
+    /**
+     * Whether the first bytes of a file contain the %PDF- header
+     */
+    public static boolean hasPdfHeader(byte[] bytes, int length) {
+        outer:
+        for (int i = 0; i + PDF_MAGIC.length <= length; i++) {
+            for (int j = 0; j < PDF_MAGIC.length; j++) {
+                if (bytes[i + j] != PDF_MAGIC[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The upload broke a limit; carries the status to answer with
+     */
+    public static class UploadRejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final HttpStatus status;
+
+        UploadRejectedException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.DocsSignatureAppBE.Util;
 
+import com.example.DocsSignatureAppBE.Storage.BlobStore;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.io.ScratchFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -15,6 +20,23 @@ import java.nio.file.Paths;
 @Component
 public class PdfUtils {
 
+    private final BlobStore blobStore;
+
+    // Documents up to this size are processed fully in memory
+    @Value("${pdf.load.spill-threshold-bytes:8388608}")
+    private long spillThresholdBytes;
+
+    // Heap budget per larger document before stream data spills to the scratch file
+    @Value("${pdf.load.memory-budget-bytes:16777216}")
+    private long memoryBudgetBytes;
+
+    @Value("${pdf.load.scratch-dir:}")
+    private String scratchDir;
+
+    public PdfUtils(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
     public Float percentageToPixelX(float percentage, PDPage page) {
         PDRectangle media = page.getMediaBox();
         return (percentage / 100f) * media.getWidth();
@@ -32,8 +54,28 @@ public class PdfUtils {
         }
     }
 
+    /**
+     * Load a PDF with a stream cache chosen from the file size: small files stay on the heap,
+     * larger ones get a bounded heap budget and spill the rest to a scratch file. Stored files
+     * that are not on local disk are fetched from the storage backend first.
+     */
     public PDDocument load(String path) throws IOException {
-        return Loader.loadPDF(new File(path));
+        File file = blobStore.fetch(path).toFile();
+        return Loader.loadPDF(file, streamCacheFor(file.length()));
+    }
+
+    public RandomAccessStreamCache.StreamCacheCreateFunction streamCacheFor(long fileSize) {
+        MemoryUsageSetting setting;
+        if (fileSize <= spillThresholdBytes) {
+            setting = MemoryUsageSetting.setupMainMemoryOnly();
+        } else {
+            setting = MemoryUsageSetting.setupMixed(memoryBudgetBytes);
+            if (scratchDir != null && !scratchDir.isEmpty()) {
+                setting = setting.setTempDir(new File(scratchDir));
+            }
+        }
+        MemoryUsageSetting memoryUsageSetting = setting;
+        return () -> new ScratchFile(memoryUsageSetting);
     }
 
 }
@@ -1,8 +1,11 @@
 package com.example.DocsSignatureAppBE.Util;
 
+import com.example.DocsSignatureAppBE.DTO.SignaturePositionDto;
 import com.example.DocsSignatureAppBE.DTO.SignatureValidationResponse;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Utility class for validating signature coordinates
  * Ensures coordinates are within acceptable bounds for PDF rendering
@@ -19,11 +22,27 @@ public class SignatureCoordinateValidator {
     private static final float MAX_SIGNATURE_WIDTH = 300f; // Maximum signature width
     private static final float MAX_SIGNATURE_HEIGHT = 150f; // Maximum signature height
 
+    private final PdfCoordinateTransformer coordinateTransformer;
+
+    public SignatureCoordinateValidator(PdfCoordinateTransformer coordinateTransformer) {
+        this.coordinateTransformer = coordinateTransformer;
+    }
+
     /**
      * Validate signature placement coordinates
      */
     public SignatureValidationResponse validateCoordinates(Float xCoordinate, Float yCoordinate,
                                                           Integer pageNumber, String signatureData) {
+        return validateCoordinates(xCoordinate, yCoordinate, pageNumber, signatureData, null);
+    }
+
+    /**
+     * Validate signature placement coordinates against the document's real pages.
+     * When no page geometry is known only the lower page bound is checked.
+     */
+    public SignatureValidationResponse validateCoordinates(Float xCoordinate, Float yCoordinate,
+                                                          Integer pageNumber, String signatureData,
+                                                          List<PageGeometry> pages) {
         SignatureValidationResponse response = new SignatureValidationResponse();
 
         // Check if signature data is present
@@ -39,7 +58,7 @@ public class SignatureCoordinateValidator {
         response.setYValid(yValid);
 
         // Validate page number
-        boolean pageValid = isPageNumberValid(pageNumber);
+        boolean pageValid = isPageNumberValid(pageNumber, pages);
         response.setPageValid(pageValid);
 
         // Overall validation
@@ -99,10 +118,60 @@ public class SignatureCoordinateValidator {
     }
 
     /**
-     * Check if page number is valid (minimum 1)
+     * Check if page number is valid (minimum 1, and at most the page count when known)
+     */
+    private boolean isPageNumberValid(Integer pageNumber, List<PageGeometry> pages) {
+        if (pageNumber == null || pageNumber < 1) {
+            return false;
+        }
+        return pages == null || pages.isEmpty() || pageNumber <= pages.size();
+    }
+
+    /**
+     * Check that every stamp position lands on an existing page and fits inside it.
+     * Width and height are in PDF points, percentages are relative to the displayed page.
+     * @throws IllegalArgumentException listing every invalid position
+     */
+    public void validatePositions(List<PageGeometry> pages, List<SignaturePositionDto> positions) {
+        if (positions == null || positions.isEmpty()) {
+            return;
+        }
+
+        StringBuilder errorDetails = new StringBuilder();
+        for (int i = 0; i < positions.size(); i++) {
+            String error = validatePosition(pages, positions.get(i));
+            if (error != null) {
+                errorDetails.append("Position ").append(i + 1).append(": ").append(error).append(" ");
+            }
+        }
+
+        if (errorDetails.length() > 0) {
+            throw new IllegalArgumentException("Signature position validation failed: " + errorDetails.toString().trim());
+        }
+    }
+
+    /**
+     * Validate a single stamp position, returning the reason it is invalid or null
      */
-    private boolean isPageNumberValid(Integer pageNumber) {
-        return pageNumber != null && pageNumber >= 1;
+    public String validatePosition(List<PageGeometry> pages, SignaturePositionDto position) {
+        int pageNumber = position.getPageNumber();
+        if (!isPageNumberValid(pageNumber, pages)) {
+            return "Invalid page number " + pageNumber + ".";
+        }
+        if (!isCoordinateValid(position.getXPercent()) || !isCoordinateValid(position.getYPercent())) {
+            return "Coordinates out of bounds.";
+        }
+        if (position.getWidth() <= 0 || position.getHeight() <= 0) {
+            return "Signature size must be positive.";
+        }
+        if (pages == null || pages.isEmpty()) {
+            return null;
+        }
+
+        if (!coordinateTransformer.fitsOnPage(pages.get(pageNumber - 1), position)) {
+            return "Signature does not fit on page " + pageNumber + ".";
+        }
+        return null;
     }
 
     /**
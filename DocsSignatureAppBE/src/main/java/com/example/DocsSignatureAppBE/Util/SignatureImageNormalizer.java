@@ -0,0 +1,288 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Ingest stage for raster signatures. Canvas exports are full-resolution RGBA with large transparent
+ * margins; this trims them to the inked area, downsamples to the resolution the placement actually
+ * needs and detects single-ink signatures, which only need an ink colour plus a 1-bit or 4-bit alpha.
+ */
+@Component
+public class SignatureImageNormalizer {
+
+    // Pixels at or below this alpha, or opaque near-white pixels, count as background when trimming
+    private static final int BACKGROUND_ALPHA = 8;
+    private static final int BACKGROUND_WHITE = 248;
+    // Maximum channel distance from the mean ink colour for a single-ink signature
+    private static final int INK_TOLERANCE = 48;
+
+    @Value("${signature.normalize.dpi:200}")
+    private int targetDpi;
+
+    @Value("${signature.normalize.storage-max-width-px:800}")
+    private int storageMaxWidthPx;
+
+    @Value("${signature.normalize.storage-max-height-px:400}")
+    private int storageMaxHeightPx;
+
+    /**
+     * Normalize an uploaded signature for storage: trim, fit into the configured maximum size
+     * and write as PNG, palette-based for single-ink signatures
+     */
+    public byte[] normalizeForStorage(byte[] imageBytes) throws IOException {
+        BufferedImage source = decode(imageBytes);
+        int[] bounds = inkBounds(source);
+        double scale = Math.min(1.0, Math.min((double) storageMaxWidthPx / bounds[2], (double) storageMaxHeightPx / bounds[3]));
+        return toPng(normalize(source, bounds, scale));
+    }
+
+    /**
+     * Normalize a signature for stamping into a box of the given size in points.
+     * The image is stretched onto the box, so each axis keeps at least the target DPI.
+     */
+    public NormalizedImage normalizeForPlacement(byte[] imageBytes, float boxWidthPt, float boxHeightPt) throws IOException {
+        BufferedImage source = decode(imageBytes);
+        int[] bounds = inkBounds(source);
+        double scale = Math.min(1.0, Math.max(
+                (double) pixelsFor(boxWidthPt) / source.getWidth(),
+                (double) pixelsFor(boxHeightPt) / source.getHeight()));
+        return normalize(source, bounds, scale);
+    }
+
+    /**
+     * Pixels needed to cover the given length in points at the target DPI, rounded up to a
+     * multiple of 64 so nearby placement sizes share one normalized image
+     */
+    public int pixelsFor(float points) {
+        int px = (int) Math.ceil(Math.max(points, 1f) * targetDpi / 72f);
+        return ((px + 63) / 64) * 64;
+    }
+
+    /**
+     * Encode as PNG. Single-ink images become a 2- or 16-entry palette of the ink colour at
+     * increasing alpha, everything else stays 32-bit ARGB.
+     */
+    public byte[] toPng(NormalizedImage normalized) throws IOException {
+        BufferedImage image = normalized.getImage();
+        BufferedImage out = image;
+        if (normalized.getInk() != null) {
+            int bits = normalized.getAlphaBits() == 1 ? 1 : 4;
+            int size = 1 << bits;
+            byte[] r = new byte[size], g = new byte[size], b = new byte[size], a = new byte[size];
+            Color ink = normalized.getInk();
+            for (int i = 0; i < size; i++) {
+                r[i] = (byte) ink.getRed();
+                g[i] = (byte) ink.getGreen();
+                b[i] = (byte) ink.getBlue();
+                a[i] = (byte) Math.round(i * 255f / (size - 1));
+            }
+            IndexColorModel palette = new IndexColorModel(bits, size, r, g, b, a);
+            out = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_BINARY, palette);
+            WritableRaster raster = out.getRaster();
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    raster.setSample(x, y, 0, quantizeAlpha(image.getRGB(x, y) >>> 24, bits));
+                }
+            }
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        if (!ImageIO.write(out, "png", bos)) {
+            throw new IOException("No PNG writer available");
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Map an 8-bit alpha value to the nearest level of a 1-, 4- or 8-bit alpha
+     */
+    public static int quantizeAlpha(int alpha, int bits) {
+        int max = (1 << bits) - 1;
+        return Math.round(alpha * max / 255f);
+    }
+
+    private BufferedImage decode(byte[] imageBytes) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image == null) {
+            throw new IllegalArgumentException("Unsupported signature image format");
+        }
+        return image;
+    }
+
+    /**
+     * Bounding box {x, y, width, height} of the inked area, with one pixel of padding for anti-aliasing.
+     * An image without ink is the client's mistake, so it is rejected like any other bad input.
+     */
+    private int[] inkBounds(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] row = new int[w];
+        int minX = w, minY = h, maxX = -1, maxY = -1;
+        for (int y = 0; y < h; y++) {
+            image.getRGB(0, y, w, 1, row, 0, w);
+            for (int x = 0; x < w; x++) {
+                if (!isBackground(row[x])) {
+                    if (x < minX) minX = x;
+                    if (x > maxX) maxX = x;
+                    if (y < minY) minY = y;
+                    maxY = y;
+                }
+            }
+        }
+        if (maxX < 0) {
+            throw new IllegalArgumentException("Signature image is empty");
+        }
+        minX = Math.max(0, minX - 1);
+        minY = Math.max(0, minY - 1);
+        maxX = Math.min(w - 1, maxX + 1);
+        maxY = Math.min(h - 1, maxY + 1);
+        return new int[]{minX, minY, maxX - minX + 1, maxY - minY + 1};
+    }
+
+    private static boolean isBackground(int argb) {
+        int alpha = argb >>> 24;
+        if (alpha <= BACKGROUND_ALPHA) {
+            return true;
+        }
+        return alpha == 255
+                && ((argb >> 16) & 0xff) >= BACKGROUND_WHITE
+                && ((argb >> 8) & 0xff) >= BACKGROUND_WHITE
+                && (argb & 0xff) >= BACKGROUND_WHITE;
+    }
+
+    private NormalizedImage normalize(BufferedImage source, int[] bounds, double scale) {
+        BufferedImage cropped = toArgb(source.getSubimage(bounds[0], bounds[1], bounds[2], bounds[3]));
+        int targetWidth = Math.max(1, (int) Math.round(bounds[2] * scale));
+        int targetHeight = Math.max(1, (int) Math.round(bounds[3] * scale));
+        BufferedImage scaled = downscale(cropped, targetWidth, targetHeight);
+
+        int w = scaled.getWidth();
+        int h = scaled.getHeight();
+        int[] argb = scaled.getRGB(0, 0, w, h, null, 0, w);
+
+        // Single ink colour and the alpha depth it needs
+        boolean opaque = true;
+        boolean binaryAlpha = true;
+        long sumR = 0, sumG = 0, sumB = 0, weight = 0;
+        for (int pixel : argb) {
+            int alpha = pixel >>> 24;
+            if (alpha != 255) {
+                opaque = false;
+            }
+            if (alpha > BACKGROUND_ALPHA && alpha < 255 - BACKGROUND_ALPHA) {
+                binaryAlpha = false;
+            }
+            if (alpha >= 32) {
+                sumR += (long) ((pixel >> 16) & 0xff) * alpha;
+                sumG += (long) ((pixel >> 8) & 0xff) * alpha;
+                sumB += (long) (pixel & 0xff) * alpha;
+                weight += alpha;
+            }
+        }
+
+        Color ink = null;
+        if (!opaque && weight > 0) {
+            int r = (int) (sumR / weight), g = (int) (sumG / weight), b = (int) (sumB / weight);
+            boolean singleInk = true;
+            for (int pixel : argb) {
+                if ((pixel >>> 24) >= 32
+                        && (Math.abs(((pixel >> 16) & 0xff) - r) > INK_TOLERANCE
+                        || Math.abs(((pixel >> 8) & 0xff) - g) > INK_TOLERANCE
+                        || Math.abs((pixel & 0xff) - b) > INK_TOLERANCE)) {
+                    singleInk = false;
+                    break;
+                }
+            }
+            if (singleInk) {
+                ink = new Color(r, g, b);
+            }
+        }
+
+        int alphaBits = ink == null ? 8 : (binaryAlpha ? 1 : 4);
+        return new NormalizedImage(scaled, ink, alphaBits,
+                (float) bounds[0] / source.getWidth(), (float) bounds[1] / source.getHeight(),
+                (float) bounds[2] / source.getWidth(), (float) bounds[3] / source.getHeight());
+    }
+
+    private static BufferedImage toArgb(BufferedImage image) {
+        BufferedImage argb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = argb.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return argb;
+    }
+
+    /**
+     * Halve repeatedly with bilinear filtering, then do the final step, on premultiplied pixels
+     * so transparent canvas pixels do not bleed a dark fringe into the strokes
+     */
+    private static BufferedImage downscale(BufferedImage image, int targetWidth, int targetHeight) {
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        while (w != targetWidth || h != targetHeight) {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Trimmed and downscaled signature. The crop fields give the kept area as fractions of the
+     * original image (top-left origin), so a stamp can be drawn exactly where the ink was.
+     */
+    public static class NormalizedImage {
+        private final BufferedImage image;
+        private final Color ink;
+        private final int alphaBits;
+        private final float cropX;
+        private final float cropY;
+        private final float cropWidth;
+        private final float cropHeight;
+
+        NormalizedImage(BufferedImage image, Color ink, int alphaBits,
+                        float cropX, float cropY, float cropWidth, float cropHeight) {
+            this.image = image;
+            this.ink = ink;
+            this.alphaBits = alphaBits;
+            this.cropX = cropX;
+            this.cropY = cropY;
+            this.cropWidth = cropWidth;
+            this.cropHeight = cropHeight;
+        }
+
+        public BufferedImage getImage() { return image; }
+        /** Ink colour of a single-ink signature, or null if the image needs full colour */
+        public Color getInk() { return ink; }
+        public int getAlphaBits() { return alphaBits; }
+        public float getCropX() { return cropX; }
+        public float getCropY() { return cropY; }
+        public float getCropWidth() { return cropWidth; }
+        public float getCropHeight() { return cropHeight; }
+    }
+}
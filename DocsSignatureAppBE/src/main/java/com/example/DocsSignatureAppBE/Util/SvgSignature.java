@@ -0,0 +1,737 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.util.Matrix;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.Color;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Vector signature parsed from the SVG produced by the signature pad.
+ * Supports &lt;path&gt;, &lt;polyline&gt;, &lt;polygon&gt;, &lt;line&gt; and &lt;circle&gt; with stroke/fill
+ * colour and stroke width, inside an optional viewBox. Paths are kept as absolute PDF path
+ * operators (m, l, c, h) so drawing them is a straight copy into a content stream.
+ */
+public class SvgSignature {
+
+    private static final int MOVE = 0;
+    private static final int LINE = 1;
+    private static final int CURVE = 2;
+    private static final int CLOSE = 3;
+
+    // Cubic Bezier handle length for a quarter circle
+    private static final float KAPPA = 0.5522848f;
+
+    private final float minX;
+    private final float minY;
+    private final float width;
+    private final float height;
+    private final List<Shape> shapes;
+
+    private SvgSignature(float minX, float minY, float width, float height, List<Shape> shapes) {
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+        this.shapes = shapes;
+    }
+
+    /**
+     * Quick check whether the bytes hold SVG markup rather than a raster image: the first element,
+     * after any XML declaration, comments, processing instructions or doctype however long, is
+     * &lt;svg&gt;. Raster formats fail on their first byte.
+     */
+    public static boolean isSvg(byte[] data) {
+        if (data == null) {
+            return false;
+        }
+        int i = 0;
+        // UTF-8 byte order mark
+        if (data.length >= 3 && (data[0] & 0xff) == 0xEF && (data[1] & 0xff) == 0xBB && (data[2] & 0xff) == 0xBF) {
+            i = 3;
+        }
+        while (true) {
+            while (i < data.length && (data[i] == ' ' || data[i] == '\t' || data[i] == '\r' || data[i] == '\n')) {
+                i++;
+            }
+            if (i >= data.length || data[i] != '<') {
+                return false;
+            }
+            int end;
+            if (startsWith(data, i, "<!--")) {
+                end = indexOf(data, i + 4, "-->");
+            } else if (startsWith(data, i, "<?") || startsWith(data, i, "<!")) {
+                end = indexOf(data, i + 2, ">");
+            } else {
+                int nameEnd = i + 1;
+                while (nameEnd < data.length && data[nameEnd] != '>' && data[nameEnd] != '/'
+                        && data[nameEnd] != ' ' && data[nameEnd] != '\t' && data[nameEnd] != '\r' && data[nameEnd] != '\n') {
+                    nameEnd++;
+                }
+                String name = new String(data, i + 1, nameEnd - i - 1, StandardCharsets.UTF_8);
+                return "svg".equals(name.substring(name.indexOf(':') + 1));
+            }
+            if (end < 0) {
+                return false;
+            }
+            i = end;
+        }
+    }
+
+    /**
+     * Position just past the next occurrence of the ASCII marker at or after from, or -1
+     */
+    private static int indexOf(byte[] data, int from, String marker) {
+        for (int i = from; i + marker.length() <= data.length; i++) {
+            if (startsWith(data, i, marker)) {
+                return i + marker.length();
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, String prefix) {
+        if (offset + prefix.length() > data.length) {
+            return false;
+        }
+        for (int j = 0; j < prefix.length(); j++) {
+            if (data[offset + j] != prefix.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static SvgSignature parse(byte[] data) {
+        return parse(new String(data, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse the SVG markup. Throws IllegalArgumentException if it is not usable as a signature.
+     */
+    public static SvgSignature parse(String svg) {
+        if (svg == null || svg.isBlank()) {
+            throw new IllegalArgumentException("Signature SVG is empty");
+        }
+
+        Element root;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setXIncludeAware(false);
+            factory.setExpandEntityReferences(false);
+            root = factory.newDocumentBuilder().parse(new InputSource(new StringReader(svg))).getDocumentElement();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid signature SVG: " + e.getMessage());
+        }
+        if (!"svg".equals(localName(root))) {
+            throw new IllegalArgumentException("Invalid signature SVG: root element is not <svg>");
+        }
+
+        float[] viewBox = parseViewBox(root);
+        List<Shape> shapes = new ArrayList<>();
+        collectShapes(root, Style.DEFAULT, shapes);
+        if (shapes.isEmpty()) {
+            throw new IllegalArgumentException("Signature SVG contains no drawable shapes");
+        }
+        return new SvgSignature(viewBox[0], viewBox[1], viewBox[2], viewBox[3], shapes);
+    }
+
+    /**
+     * Build a form XObject whose content maps onto the unit square, so it can be placed with the
+     * same matrices used for image XObjects. SVG's top-left origin is flipped to PDF's bottom-left.
+     */
+    public PDFormXObject toFormXObject(PDDocument document) throws IOException {
+        PDFormXObject form = new PDFormXObject(document);
+        form.setBBox(new PDRectangle(0, 0, width, height));
+        form.setMatrix(Matrix.getScaleInstance(1f / width, 1f / height).createAffineTransform());
+        form.setResources(new PDResources());
+
+        try (PDFormContentStream cs = new PDFormContentStream(form)) {
+            for (Shape shape : shapes) {
+                if (shape.fill == null && shape.stroke == null) {
+                    continue;
+                }
+                if (shape.stroke != null) {
+                    cs.setStrokingColor(shape.stroke);
+                    cs.setLineWidth(shape.strokeWidth);
+                    cs.setLineCapStyle(shape.lineCap);
+                    cs.setLineJoinStyle(shape.lineJoin);
+                }
+                if (shape.fill != null) {
+                    cs.setNonStrokingColor(shape.fill);
+                }
+
+                float[] c = shape.coords;
+                int ci = 0;
+                for (int i = 0; i < shape.opCount; i++) {
+                    switch (shape.ops[i]) {
+                        case MOVE:
+                            cs.moveTo(x(c[ci]), y(c[ci + 1]));
+                            ci += 2;
+                            break;
+                        case LINE:
+                            cs.lineTo(x(c[ci]), y(c[ci + 1]));
+                            ci += 2;
+                            break;
+                        case CURVE:
+                            cs.curveTo(x(c[ci]), y(c[ci + 1]), x(c[ci + 2]), y(c[ci + 3]), x(c[ci + 4]), y(c[ci + 5]));
+                            ci += 6;
+                            break;
+                        default:
+                            cs.closePath();
+                    }
+                }
+
+                if (shape.fill != null && shape.stroke != null) {
+                    cs.fillAndStroke();
+                } else if (shape.fill != null) {
+                    cs.fill();
+                } else {
+                    cs.stroke();
+                }
+            }
+        }
+        return form;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    private float x(float svgX) {
+        return svgX - minX;
+    }
+
+    private float y(float svgY) {
+        return height - (svgY - minY);
+    }
+
+    private static float[] parseViewBox(Element root) {
+        String viewBox = root.getAttribute("viewBox");
+        if (!viewBox.isBlank()) {
+            float[] v = parseNumbers(viewBox);
+            if (v.length == 4 && v[2] > 0 && v[3] > 0) {
+                return v;
+            }
+        }
+        float width = parseLength(root.getAttribute("width"));
+        float height = parseLength(root.getAttribute("height"));
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Signature SVG needs a viewBox or width and height");
+        }
+        return new float[]{0, 0, width, height};
+    }
+
+    private static void collectShapes(Element element, Style inherited, List<Shape> shapes) {
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node node = children.item(i);
+            if (node.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            Element child = (Element) node;
+            Style style = inherited.with(child);
+            switch (localName(child)) {
+                case "g":
+                case "a":
+                    collectShapes(child, style, shapes);
+                    break;
+                case "path":
+                    addShape(shapes, style, parsePathData(child.getAttribute("d")));
+                    break;
+                case "polyline":
+                case "polygon":
+                    addShape(shapes, style, parsePoints(child.getAttribute("points"), "polygon".equals(localName(child))));
+                    break;
+                case "line":
+                    PathBuilder line = new PathBuilder();
+                    line.moveTo(attr(child, "x1"), attr(child, "y1"));
+                    line.lineTo(attr(child, "x2"), attr(child, "y2"));
+                    addShape(shapes, style, line);
+                    break;
+                case "circle":
+                    addShape(shapes, style, circle(attr(child, "cx"), attr(child, "cy"), attr(child, "r")));
+                    break;
+                default:
+                    // defs, metadata, text, ... are not part of a hand-drawn signature
+                    break;
+            }
+        }
+    }
+
+    private static void addShape(List<Shape> shapes, Style style, PathBuilder path) {
+        if (path.opCount > 0) {
+            shapes.add(new Shape(path, style));
+        }
+    }
+
+    private static PathBuilder circle(float cx, float cy, float r) {
+        PathBuilder p = new PathBuilder();
+        if (r <= 0) {
+            return p;
+        }
+        float k = r * KAPPA;
+        p.moveTo(cx + r, cy);
+        p.curveTo(cx + r, cy + k, cx + k, cy + r, cx, cy + r);
+        p.curveTo(cx - k, cy + r, cx - r, cy + k, cx - r, cy);
+        p.curveTo(cx - r, cy - k, cx - k, cy - r, cx, cy - r);
+        p.curveTo(cx + k, cy - r, cx + r, cy - k, cx + r, cy);
+        p.close();
+        return p;
+    }
+
+    private static PathBuilder parsePoints(String points, boolean closed) {
+        float[] v = parseNumbers(points);
+        PathBuilder p = new PathBuilder();
+        for (int i = 0; i + 1 < v.length; i += 2) {
+            if (i == 0) {
+                p.moveTo(v[i], v[i + 1]);
+            } else {
+                p.lineTo(v[i], v[i + 1]);
+            }
+        }
+        if (closed && p.opCount > 0) {
+            p.close();
+        }
+        return p;
+    }
+
+    /**
+     * Convert SVG path data to absolute move/line/cubic/close operations.
+     * Quadratic segments are raised to cubics; elliptical arcs are replaced by a line to their
+     * end point, which signature pads do not emit.
+     */
+    static PathBuilder parsePathData(String d) {
+        PathBuilder p = new PathBuilder();
+        PathTokenizer t = new PathTokenizer(d);
+        float x = 0, y = 0;
+        float startX = 0, startY = 0;
+        float lastCtrlX = 0, lastCtrlY = 0;
+        char prev = ' ';
+        char cmd = ' ';
+
+        while (t.hasMore()) {
+            if (t.nextIsCommand()) {
+                cmd = t.command();
+            } else if (cmd == ' ' || cmd == 'Z' || cmd == 'z') {
+                throw new IllegalArgumentException("Invalid signature SVG: expected a path command at position " + t.position());
+            }
+            boolean rel = Character.isLowerCase(cmd);
+            float ox = rel ? x : 0;
+            float oy = rel ? y : 0;
+
+            switch (Character.toUpperCase(cmd)) {
+                case 'M':
+                    x = ox + t.number();
+                    y = oy + t.number();
+                    p.moveTo(x, y);
+                    startX = x;
+                    startY = y;
+                    // Further coordinate pairs after a moveto are implicit linetos
+                    cmd = rel ? 'l' : 'L';
+                    break;
+                case 'L':
+                    x = ox + t.number();
+                    y = oy + t.number();
+                    p.lineTo(x, y);
+                    break;
+                case 'H':
+                    x = ox + t.number();
+                    p.lineTo(x, y);
+                    break;
+                case 'V':
+                    y = oy + t.number();
+                    p.lineTo(x, y);
+                    break;
+                case 'C': {
+                    float x1 = ox + t.number(), y1 = oy + t.number();
+                    float x2 = ox + t.number(), y2 = oy + t.number();
+                    x = ox + t.number();
+                    y = oy + t.number();
+                    p.curveTo(x1, y1, x2, y2, x, y);
+                    lastCtrlX = x2;
+                    lastCtrlY = y2;
+                    break;
+                }
+                case 'S': {
+                    boolean smooth = "CcSs".indexOf(prev) >= 0;
+                    float x1 = smooth ? 2 * x - lastCtrlX : x;
+                    float y1 = smooth ? 2 * y - lastCtrlY : y;
+                    float x2 = ox + t.number(), y2 = oy + t.number();
+                    x = ox + t.number();
+                    y = oy + t.number();
+                    p.curveTo(x1, y1, x2, y2, x, y);
+                    lastCtrlX = x2;
+                    lastCtrlY = y2;
+                    break;
+                }
+                case 'Q': {
+                    float qx = ox + t.number(), qy = oy + t.number();
+                    float ex = ox + t.number(), ey = oy + t.number();
+                    p.quadTo(x, y, qx, qy, ex, ey);
+                    lastCtrlX = qx;
+                    lastCtrlY = qy;
+                    x = ex;
+                    y = ey;
+                    break;
+                }
+                case 'T': {
+                    boolean smooth = "QqTt".indexOf(prev) >= 0;
+                    float qx = smooth ? 2 * x - lastCtrlX : x;
+                    float qy = smooth ? 2 * y - lastCtrlY : y;
+                    float ex = ox + t.number(), ey = oy + t.number();
+                    p.quadTo(x, y, qx, qy, ex, ey);
+                    lastCtrlX = qx;
+                    lastCtrlY = qy;
+                    x = ex;
+                    y = ey;
+                    break;
+                }
+                case 'A':
+                    t.number();
+                    t.number();
+                    t.number();
+                    t.flag();
+                    t.flag();
+                    x = ox + t.number();
+                    y = oy + t.number();
+                    p.lineTo(x, y);
+                    break;
+                case 'Z':
+                    p.close();
+                    x = startX;
+                    y = startY;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid signature SVG: unknown path command '" + cmd + "'");
+            }
+            prev = cmd;
+        }
+        return p;
+    }
+
+    private static float[] parseNumbers(String s) {
+        if (s == null || s.isBlank()) {
+            return new float[0];
+        }
+        String[] parts = s.trim().split("[\\s,]+");
+        float[] v = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            v[i] = Float.parseFloat(parts[i]);
+        }
+        return v;
+    }
+
+    private static float parseLength(String s) {
+        if (s == null || s.isBlank() || s.endsWith("%")) {
+            return 0;
+        }
+        String number = s.trim().replaceAll("[a-zA-Z]+$", "");
+        try {
+            return Float.parseFloat(number);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static float attr(Element element, String name) {
+        return parseLength(element.getAttribute(name));
+    }
+
+    private static String localName(Node node) {
+        String name = node.getLocalName() != null ? node.getLocalName() : node.getNodeName();
+        int colon = name.indexOf(':');
+        return colon >= 0 ? name.substring(colon + 1) : name;
+    }
+
+    /**
+     * Presentation attributes that matter for a signature, resolved through the element tree
+     */
+    private static class Style {
+        static final Style DEFAULT = new Style(Color.BLACK, null, 1f, 0, 0);
+
+        final Color fill;
+        final Color stroke;
+        final float strokeWidth;
+        final int lineCap;
+        final int lineJoin;
+
+        Style(Color fill, Color stroke, float strokeWidth, int lineCap, int lineJoin) {
+            this.fill = fill;
+            this.stroke = stroke;
+            this.strokeWidth = strokeWidth;
+            this.lineCap = lineCap;
+            this.lineJoin = lineJoin;
+        }
+
+        Style with(Element element) {
+            Color fill = this.fill;
+            Color stroke = this.stroke;
+            float strokeWidth = this.strokeWidth;
+            int lineCap = this.lineCap;
+            int lineJoin = this.lineJoin;
+
+            List<String[]> properties = new ArrayList<>();
+            for (String name : new String[]{"fill", "stroke", "stroke-width", "stroke-linecap", "stroke-linejoin"}) {
+                if (element.hasAttribute(name)) {
+                    properties.add(new String[]{name, element.getAttribute(name)});
+                }
+            }
+            // Inline style wins over presentation attributes
+            for (String declaration : element.getAttribute("style").split(";")) {
+                int colon = declaration.indexOf(':');
+                if (colon > 0) {
+                    properties.add(new String[]{declaration.substring(0, colon).trim(), declaration.substring(colon + 1).trim()});
+                }
+            }
+
+            for (String[] property : properties) {
+                String value = property[1].trim();
+                switch (property[0]) {
+                    case "fill":
+                        fill = parseColor(value, fill);
+                        break;
+                    case "stroke":
+                        stroke = parseColor(value, stroke);
+                        break;
+                    case "stroke-width":
+                        float w = parseLength(value);
+                        if (w > 0) {
+                            strokeWidth = w;
+                        }
+                        break;
+                    case "stroke-linecap":
+                        lineCap = "round".equals(value) ? 1 : "square".equals(value) ? 2 : 0;
+                        break;
+                    case "stroke-linejoin":
+                        lineJoin = "round".equals(value) ? 1 : "bevel".equals(value) ? 2 : 0;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return new Style(fill, stroke, strokeWidth, lineCap, lineJoin);
+        }
+
+        private static Color parseColor(String value, Color inherited) {
+            String v = value.toLowerCase(Locale.ROOT);
+            if (v.isEmpty() || "inherit".equals(v) || "currentcolor".equals(v)) {
+                return inherited;
+            }
+            if ("none".equals(v) || "transparent".equals(v)) {
+                return null;
+            }
+            try {
+                if (v.startsWith("#")) {
+                    String hex = v.substring(1);
+                    if (hex.length() == 3) {
+                        hex = "" + hex.charAt(0) + hex.charAt(0) + hex.charAt(1) + hex.charAt(1) + hex.charAt(2) + hex.charAt(2);
+                    }
+                    return new Color(Integer.parseInt(hex.substring(0, 6), 16));
+                }
+                if (v.startsWith("rgb")) {
+                    String[] parts = v.substring(v.indexOf('(') + 1, v.indexOf(')')).split(",");
+                    return new Color(channel(parts[0]), channel(parts[1]), channel(parts[2]));
+                }
+            } catch (RuntimeException e) {
+                return inherited;
+            }
+            switch (v) {
+                case "black": return Color.BLACK;
+                case "white": return Color.WHITE;
+                case "blue": return Color.BLUE;
+                case "navy": return new Color(0, 0, 128);
+                case "darkblue": return new Color(0, 0, 139);
+                case "red": return Color.RED;
+                case "green": return new Color(0, 128, 0);
+                case "gray":
+                case "grey": return Color.GRAY;
+                default: return inherited;
+            }
+        }
+
+        private static int channel(String s) {
+            String v = s.trim();
+            if (v.endsWith("%")) {
+                return Math.round(Float.parseFloat(v.substring(0, v.length() - 1)) * 2.55f);
+            }
+            return Math.max(0, Math.min(255, Math.round(Float.parseFloat(v))));
+        }
+    }
+
+    /**
+     * One drawable element: path operations plus its resolved style
+     */
+    private static class Shape {
+        final int[] ops;
+        final int opCount;
+        final float[] coords;
+        final Color fill;
+        final Color stroke;
+        final float strokeWidth;
+        final int lineCap;
+        final int lineJoin;
+
+        Shape(PathBuilder path, Style style) {
+            this.ops = path.ops;
+            this.opCount = path.opCount;
+            this.coords = path.coords;
+            this.fill = style.fill;
+            this.stroke = style.stroke;
+            this.strokeWidth = style.strokeWidth;
+            this.lineCap = style.lineCap;
+            this.lineJoin = style.lineJoin;
+        }
+    }
+
+    static class PathBuilder {
+        int[] ops = new int[16];
+        int opCount;
+        float[] coords = new float[64];
+        int coordCount;
+
+        void moveTo(float x, float y) {
+            op(MOVE);
+            coord(x, y);
+        }
+
+        void lineTo(float x, float y) {
+            op(LINE);
+            coord(x, y);
+        }
+
+        void curveTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            op(CURVE);
+            coord(x1, y1);
+            coord(x2, y2);
+            coord(x3, y3);
+        }
+
+        /**
+         * Quadratic from (x0, y0) via (qx, qy) to (x, y), raised to the equivalent cubic
+         */
+        void quadTo(float x0, float y0, float qx, float qy, float x, float y) {
+            curveTo(x0 + 2f / 3f * (qx - x0), y0 + 2f / 3f * (qy - y0),
+                    x + 2f / 3f * (qx - x), y + 2f / 3f * (qy - y),
+                    x, y);
+        }
+
+        void close() {
+            op(CLOSE);
+        }
+
+        private void op(int op) {
+            if (opCount == ops.length) {
+                ops = Arrays.copyOf(ops, ops.length * 2);
+            }
+            ops[opCount++] = op;
+        }
+
+        private void coord(float x, float y) {
+            if (coordCount + 2 > coords.length) {
+                coords = Arrays.copyOf(coords, coords.length * 2);
+            }
+            coords[coordCount++] = x;
+            coords[coordCount++] = y;
+        }
+    }
+
+    /**
+     * Splits SVG path data into commands and numbers, including the compact forms
+     * signature pads emit such as "M10-5.5.5" and arc flags written without separators
+     */
+    private static class PathTokenizer {
+        private final String s;
+        private int pos;
+
+        PathTokenizer(String s) {
+            this.s = s == null ? "" : s;
+            skipSeparators();
+        }
+
+        int position() {
+            return pos;
+        }
+
+        boolean hasMore() {
+            return pos < s.length();
+        }
+
+        boolean nextIsCommand() {
+            return Character.isLetter(s.charAt(pos)) && s.charAt(pos) != 'e' && s.charAt(pos) != 'E';
+        }
+
+        char command() {
+            char c = s.charAt(pos++);
+            skipSeparators();
+            return c;
+        }
+
+        float flag() {
+            if (pos >= s.length() || (s.charAt(pos) != '0' && s.charAt(pos) != '1')) {
+                throw new IllegalArgumentException("Invalid signature SVG: malformed arc flag");
+            }
+            float v = s.charAt(pos++) - '0';
+            skipSeparators();
+            return v;
+        }
+
+        float number() {
+            int start = pos;
+            if (pos < s.length() && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+                pos++;
+            }
+            boolean dot = false;
+            while (pos < s.length()) {
+                char c = s.charAt(pos);
+                if (Character.isDigit(c)) {
+                    pos++;
+                } else if (c == '.' && !dot) {
+                    dot = true;
+                    pos++;
+                } else if ((c == 'e' || c == 'E') && pos > start) {
+                    pos++;
+                    if (pos < s.length() && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+                        pos++;
+                    }
+                } else {
+                    break;
+                }
+            }
+            if (start == pos) {
+                throw new IllegalArgumentException("Invalid signature SVG: expected a number at position " + start);
+            }
+            float v = Float.parseFloat(s.substring(start, pos));
+            skipSeparators();
+            return v;
+        }
+
+        private void skipSeparators() {
+            while (pos < s.length() && (Character.isWhitespace(s.charAt(pos)) || s.charAt(pos) == ',')) {
+                pos++;
+            }
+        }
+    }
+}
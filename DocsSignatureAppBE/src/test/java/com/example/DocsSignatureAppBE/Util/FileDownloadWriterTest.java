@@ -0,0 +1,135 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileDownloadWriterTest {
+
+	private static final String CONTENT = "%PDF-1.7 0123456789abcdefghij";
+	private static final String SHA256 = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void parseSingleRange() {
+		assertArrayEquals(new long[]{0, 99}, FileDownloadWriter.parseRange("bytes=0-99", 1000));
+		assertArrayEquals(new long[]{500, 999}, FileDownloadWriter.parseRange("bytes=500-", 1000));
+		// An end past the file is clipped to the last byte
+		assertArrayEquals(new long[]{900, 999}, FileDownloadWriter.parseRange("bytes=900-5000", 1000));
+	}
+
+	@Test
+	void parseSuffixRange() {
+		assertArrayEquals(new long[]{900, 999}, FileDownloadWriter.parseRange("bytes=-100", 1000));
+		// A suffix longer than the file means the whole file
+		assertArrayEquals(new long[]{0, 999}, FileDownloadWriter.parseRange("bytes=-5000", 1000));
+		assertNull(FileDownloadWriter.parseRange("bytes=-0", 1000));
+		assertNull(FileDownloadWriter.parseRange("bytes=-10", 0));
+	}
+
+	@Test
+	void parseUnsatisfiableRange() {
+		assertNull(FileDownloadWriter.parseRange("bytes=1000-", 1000));
+		assertNull(FileDownloadWriter.parseRange("bytes=2000-3000", 1000));
+	}
+
+	@Test
+	void parseIgnoredRange() {
+		assertEquals(0, FileDownloadWriter.parseRange("items=0-9", 1000).length);
+		assertEquals(0, FileDownloadWriter.parseRange("bytes=0-9,20-29", 1000).length);
+		assertEquals(0, FileDownloadWriter.parseRange("bytes=abc", 1000).length);
+		assertEquals(0, FileDownloadWriter.parseRange("bytes=x-9", 1000).length);
+		assertEquals(0, FileDownloadWriter.parseRange("bytes=50-10", 1000).length);
+	}
+
+	@Test
+	void rangeRequestGetsPartialContent() throws IOException {
+		MockHttpServletRequest request = request("bytes=0-7");
+		MockHttpServletResponse response = write(request, SHA256);
+
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 0-7/" + CONTENT.length(), response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals("%PDF-1.7", response.getContentAsString());
+	}
+
+	@Test
+	void unsatisfiableRangeGets416() throws IOException {
+		MockHttpServletResponse response = write(request("bytes=" + CONTENT.length() + "-"), SHA256);
+
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */" + CONTENT.length(), response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void matchingIfRangeGetsPartialContent() throws IOException {
+		MockHttpServletRequest request = request("bytes=-10");
+		request.addHeader(HttpHeaders.IF_RANGE, "\"" + SHA256 + "\"");
+		MockHttpServletResponse response = write(request, SHA256);
+
+		assertEquals(206, response.getStatus());
+		assertEquals(CONTENT.substring(CONTENT.length() - 10), response.getContentAsString());
+	}
+
+	@Test
+	void staleIfRangeGetsWholeFile() throws IOException {
+		MockHttpServletRequest request = request("bytes=-10");
+		request.addHeader(HttpHeaders.IF_RANGE, "\"0000\"");
+		MockHttpServletResponse response = write(request, SHA256);
+
+		assertEquals(200, response.getStatus());
+		assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals(CONTENT, response.getContentAsString());
+	}
+
+	@Test
+	void matchingIfNoneMatchGets304() throws IOException {
+		MockHttpServletRequest request = request(null);
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"" + SHA256 + "\"");
+		MockHttpServletResponse response = write(request, SHA256);
+
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void missingChecksumSendsNoEtag() throws IOException {
+		MockHttpServletRequest request = request("bytes=0-7");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "*");
+		request.addHeader(HttpHeaders.IF_RANGE, "\"null\"");
+		MockHttpServletResponse response = write(request, null);
+
+		assertEquals(200, response.getStatus());
+		assertNull(response.getHeader(HttpHeaders.ETAG));
+		assertEquals(CONTENT, response.getContentAsString());
+	}
+
+	private static MockHttpServletRequest request(String range) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/download");
+		if (range != null) {
+			request.addHeader(HttpHeaders.RANGE, range);
+		}
+		return request;
+	}
+
+	private MockHttpServletResponse write(MockHttpServletRequest request, String sha256) throws IOException {
+		Path file = dir.resolve("document.pdf");
+		Files.write(file, CONTENT.getBytes(StandardCharsets.US_ASCII));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new FileDownloadWriter().write(request, response, file, sha256, "application/pdf", null);
+		return response;
+	}
+}
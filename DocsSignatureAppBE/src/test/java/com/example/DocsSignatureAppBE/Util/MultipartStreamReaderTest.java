@@ -0,0 +1,164 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultipartStreamReaderTest {
+
+	private static final String BOUNDARY = "----formBoundary7MA4YWxk";
+	private static final String PDF = "%PDF-1.7\r\n1 0 obj\r\n<< >>\r\nendobj\r\n--not-a-boundary\r\n%%EOF";
+
+	@Test
+	void delimiterSplitAcrossReads() throws IOException {
+		byte[] body = body(filePart(PDF), titlePart("Contract")).getBytes(StandardCharsets.ISO_8859_1);
+		// Every read size puts the delimiter across a read boundary at some offset
+		for (int chunk = 1; chunk <= 48; chunk++) {
+			MultipartStreamReader reader = new MultipartStreamReader(new TrickleInputStream(body, chunk), BOUNDARY);
+
+			MultipartStreamReader.Part file = reader.nextPart();
+			assertEquals("file", file.getName());
+			assertEquals(PDF, new String(file.getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1), "chunk " + chunk);
+
+			MultipartStreamReader.Part title = reader.nextPart();
+			assertEquals("Contract", title.readString(1024), "chunk " + chunk);
+			assertNull(reader.nextPart());
+		}
+	}
+
+	@Test
+	void preambleIsSkipped() throws IOException {
+		String body = "This is a preamble that clients may send.\r\n--" + BOUNDARY + "\r\n"
+				+ body(filePart(PDF)).substring(("--" + BOUNDARY + "\r\n").length());
+		MultipartStreamReader reader = reader(body);
+
+		MultipartStreamReader.Part file = reader.nextPart();
+		assertEquals("file", file.getName());
+		assertEquals("contract.pdf", file.getFilename());
+		assertEquals("application/pdf", file.getContentType());
+		assertEquals(PDF, new String(file.getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1));
+		assertNull(reader.nextPart());
+	}
+
+	@Test
+	void titleAfterFilePart() throws IOException {
+		MultipartStreamReader reader = reader(body(filePart(PDF), titlePart("Lease \u00e9t\u00e9")));
+
+		MultipartStreamReader.Part file = reader.nextPart();
+		assertEquals("file", file.getName());
+		// Left unread: nextPart skips the rest of the file content
+
+		MultipartStreamReader.Part title = reader.nextPart();
+		assertEquals("title", title.getName());
+		assertNull(title.getFilename());
+		assertEquals("Lease \u00e9t\u00e9", title.readString(1024));
+		assertNull(reader.nextPart());
+	}
+
+	@Test
+	void truncatedBodyIsClientError() throws IOException {
+		String body = body(filePart(PDF));
+		MultipartStreamReader reader = reader(body.substring(0, body.indexOf("%%EOF")));
+
+		MultipartStreamReader.Part file = reader.nextPart();
+		assertThrows(IllegalArgumentException.class, () -> file.getInputStream().readAllBytes());
+	}
+
+	@Test
+	void missingClosingBoundaryIsClientError() throws IOException {
+		String body = body(filePart(PDF));
+		MultipartStreamReader reader = reader(body.substring(0, body.lastIndexOf("--" + BOUNDARY + "--")) + "--" + BOUNDARY);
+
+		reader.nextPart().getInputStream().readAllBytes();
+		assertThrows(IllegalArgumentException.class, reader::nextPart);
+	}
+
+	@Test
+	void overlongFieldIsClientError() throws IOException {
+		MultipartStreamReader reader = reader(body(titlePart("x".repeat(1025))));
+
+		MultipartStreamReader.Part title = reader.nextPart();
+		assertThrows(IllegalArgumentException.class, () -> title.readString(1024));
+	}
+
+	@Test
+	void overlongHeaderLineIsClientError() {
+		String body = "--" + BOUNDARY + "\r\nX-Padding: " + "a".repeat(20 * 1024) + "\r\n\r\nvalue\r\n--" + BOUNDARY + "--\r\n";
+		MultipartStreamReader reader = reader(body);
+
+		assertThrows(IllegalArgumentException.class, reader::nextPart);
+	}
+
+	@Test
+	void binaryContentIsPassedThrough() throws IOException {
+		byte[] content = new byte[200_000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) (i * 31);
+		}
+		String head = "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"scan.pdf\"\r\n\r\n";
+		String tail = "\r\n--" + BOUNDARY + "--\r\n";
+		byte[] body = new byte[head.length() + content.length + tail.length()];
+		System.arraycopy(head.getBytes(StandardCharsets.ISO_8859_1), 0, body, 0, head.length());
+		System.arraycopy(content, 0, body, head.length(), content.length);
+		System.arraycopy(tail.getBytes(StandardCharsets.ISO_8859_1), 0, body, head.length() + content.length, tail.length());
+
+		MultipartStreamReader reader = new MultipartStreamReader(new TrickleInputStream(body, 8191), BOUNDARY);
+		assertArrayEquals(content, reader.nextPart().getInputStream().readAllBytes());
+		assertNull(reader.nextPart());
+	}
+
+	@Test
+	void boundaryOfContentType() {
+		assertEquals(BOUNDARY, MultipartStreamReader.boundaryOf("multipart/form-data; boundary=" + BOUNDARY));
+		assertEquals("quoted value", MultipartStreamReader.boundaryOf("Multipart/Form-Data; charset=utf-8; boundary=\"quoted value\""));
+		assertNull(MultipartStreamReader.boundaryOf("application/pdf"));
+		assertNull(MultipartStreamReader.boundaryOf("multipart/form-data"));
+	}
+
+	private static MultipartStreamReader reader(String body) {
+		return new MultipartStreamReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), BOUNDARY);
+	}
+
+	private static String filePart(String content) {
+		return "Content-Disposition: form-data; name=\"file\"; filename=\"C:\\\\Users\\\\me\\\\contract.pdf\"\r\n"
+				+ "Content-Type: application/pdf\r\n\r\n" + content;
+	}
+
+	private static String titlePart(String title) {
+		return "Content-Disposition: form-data; name=\"title\"\r\n\r\n" + title;
+	}
+
+	private static String body(String... parts) {
+		StringBuilder body = new StringBuilder();
+		for (String part : parts) {
+			body.append("--").append(BOUNDARY).append("\r\n").append(part).append("\r\n");
+		}
+		return body.append("--").append(BOUNDARY).append("--\r\n").toString();
+	}
+
+	/**
+	 * Hands out at most a fixed number of bytes per read, like a slow network connection
+	 */
+	private static class TrickleInputStream extends FilterInputStream {
+		private final int chunk;
+
+		TrickleInputStream(byte[] content, int chunk) {
+			super(new ByteArrayInputStream(content));
+			this.chunk = chunk;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, chunk));
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.DocsSignatureAppBE.Util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PdfUploadInputStreamTest {
+
+	@Test
+	void acceptsPdfWithinLimit() throws IOException {
+		byte[] pdf = pdf(5000);
+		PdfUploadInputStream in = new PdfUploadInputStream(new ByteArrayInputStream(pdf), pdf.length);
+
+		assertArrayEquals(pdf, in.readAllBytes());
+		assertEquals(pdf.length, in.getCount());
+	}
+
+	@Test
+	void acceptsHeaderAfterLeadingGarbage() throws IOException {
+		byte[] pdf = pdf(3000);
+		byte[] prefixed = new byte[pdf.length + 500];
+		Arrays.fill(prefixed, 0, 500, (byte) ' ');
+		System.arraycopy(pdf, 0, prefixed, 500, pdf.length);
+
+		assertEquals(prefixed.length, new PdfUploadInputStream(new ByteArrayInputStream(prefixed), 1 << 20).readAllBytes().length);
+	}
+
+	@Test
+	void rejectsOversizeUpload() {
+		byte[] pdf = pdf(10_000);
+		PdfUploadInputStream in = new PdfUploadInputStream(new ByteArrayInputStream(pdf), 4096);
+
+		PdfUploadInputStream.UploadRejectedException e =
+				assertThrows(PdfUploadInputStream.UploadRejectedException.class, in::readAllBytes);
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+	}
+
+	@Test
+	void rejectsNonPdf() {
+		byte[] html = "<html>".concat("x".repeat(4000)).getBytes(StandardCharsets.US_ASCII);
+		PdfUploadInputStream in = new PdfUploadInputStream(new ByteArrayInputStream(html), 1 << 20);
+
+		PdfUploadInputStream.UploadRejectedException e =
+				assertThrows(PdfUploadInputStream.UploadRejectedException.class, in::readAllBytes);
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+	}
+
+	@Test
+	void rejectsShortNonPdfAtEndOfStream() {
+		// Shorter than the header window, so the check runs when the stream ends
+		byte[] text = "hello".getBytes(StandardCharsets.US_ASCII);
+		PdfUploadInputStream in = new PdfUploadInputStream(new ByteArrayInputStream(text), 1 << 20);
+
+		PdfUploadInputStream.UploadRejectedException e =
+				assertThrows(PdfUploadInputStream.UploadRejectedException.class, in::readAllBytes);
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+	}
+
+	@Test
+	void rejectsHeaderOutsideWindow() {
+		byte[] pdf = pdf(3000);
+		byte[] late = new byte[pdf.length + PdfUploadInputStream.HEADER_WINDOW];
+		System.arraycopy(pdf, 0, late, PdfUploadInputStream.HEADER_WINDOW, pdf.length);
+		PdfUploadInputStream in = new PdfUploadInputStream(new ByteArrayInputStream(late), 1 << 20);
+
+		assertThrows(PdfUploadInputStream.UploadRejectedException.class, in::readAllBytes);
+	}
+
+	private static byte[] pdf(int size) {
+		byte[] pdf = new byte[size];
+		Arrays.fill(pdf, (byte) 'x');
+		byte[] header = "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(header, 0, pdf, 0, header.length);
+		return pdf;
+	}
+}